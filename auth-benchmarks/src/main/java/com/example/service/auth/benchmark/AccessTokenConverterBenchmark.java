@@ -0,0 +1,158 @@
+package com.example.service.auth.benchmark;
+
+import com.example.service.auth.service.KeyRingJwtAccessTokenConverter;
+import com.example.service.auth.service.SigningAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signs and verifies access tokens the way the token endpoint and <code>/oauth/check_token</code> do: through
+ * <code>JwtAccessTokenConverter.enhance</code> and <code>JwtTokenStore.readAccessToken</code>. The service's
+ * {@link KeyRingJwtAccessTokenConverter} is measured for each key ring algorithm, next to Spring's own converter
+ * with a plain RSA key pair as it was configured before the key ring.
+ *
+ * <pre>
+ * mvn package && java -cp target/benchmarks.jar com.example.service.auth.benchmark.AccessTokenConverterBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessTokenConverterBenchmark {
+
+  private static final OAuth2Authentication AUTHENTICATION = new OAuth2Authentication(
+      new OAuth2Request(Collections.emptyMap(), "proxy-client", AuthorityUtils.createAuthorityList("ROLE_CLIENT"),
+          true, new HashSet<>(Arrays.asList("read", "write", "trust")), Collections.emptySet(), null,
+          Collections.emptySet(), Collections.emptyMap()),
+      new UsernamePasswordAuthenticationToken("user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+  @State(Scope.Benchmark)
+  public static class KeyRingConverter {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    ConfigurableApplicationContext context;
+    JwtAccessTokenConverter converter;
+    JwtTokenStore tokenStore;
+    String token;
+
+    @Setup
+    public void setup() throws Exception {
+      SigningAlgorithm signingAlgorithm = SigningAlgorithm.fromName(algorithm);
+      if (signingAlgorithm == SigningAlgorithm.RS256) {
+        context = BenchmarkContext.start("auth.key-ring.algorithm=" + algorithm);
+      } else {
+        KeyPair keyPair = signingAlgorithm.generateKeyPair(2048);
+        context = BenchmarkContext.start("auth.key-ring.algorithm=" + algorithm,
+            "auth.key-ring.private-key=" + pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()),
+            "auth.key-ring.public-key=" + pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+      }
+      converter = context.getBean(KeyRingJwtAccessTokenConverter.class);
+      tokenStore = new JwtTokenStore(converter);
+      token = sign(converter);
+    }
+
+    @TearDown
+    public void tearDown() {
+      context.close();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class SpringConverter {
+
+    JwtAccessTokenConverter converter;
+    JwtTokenStore tokenStore;
+    String token;
+
+    @Setup
+    public void setup() throws Exception {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(2048);
+      converter = new JwtAccessTokenConverter();
+      converter.setKeyPair(generator.generateKeyPair());
+      converter.afterPropertiesSet();
+      tokenStore = new JwtTokenStore(converter);
+      token = sign(converter);
+    }
+  }
+
+  @Benchmark
+  public String keyRingSign(KeyRingConverter state) {
+    return sign(state.converter);
+  }
+
+  @Benchmark
+  public OAuth2AccessToken keyRingVerify(KeyRingConverter state) {
+    return state.tokenStore.readAccessToken(state.token);
+  }
+
+  @Benchmark
+  public String springSign(SpringConverter state) {
+    return sign(state.converter);
+  }
+
+  @Benchmark
+  public OAuth2AccessToken springVerify(SpringConverter state) {
+    return state.tokenStore.readAccessToken(state.token);
+  }
+
+  private static String pem(final String type, final byte[] der) {
+    return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END " + type
+        + "-----";
+  }
+
+  private static String sign(final JwtAccessTokenConverter converter) {
+    DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken(UUID.randomUUID().toString());
+    accessToken.setExpiration(new Date(System.currentTimeMillis() + 3600_000L));
+    accessToken.setScope(AUTHENTICATION.getOAuth2Request().getScope());
+    return converter.enhance(accessToken, AUTHENTICATION).getValue();
+  }
+
+  public static void main(String[] args) throws Exception {
+    List<String> available = new ArrayList<>();
+    for (SigningAlgorithm algorithm : SigningAlgorithm.values()) {
+      if (algorithm.isAvailable()) {
+        available.add(algorithm.getJwsName());
+      }
+    }
+    new Runner(BenchmarkOptions.forSuite(AccessTokenConverterBenchmark.class)
+        .param("algorithm", available.toArray(new String[0]))
+        .build()).run();
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.service.auth.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.code.AuthorizationCodeServices;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues and exchanges authorization codes against the in-memory store and the JPA store on an H2 database, with
+ * and without write batching, at increasing thread counts. Each code is exchanged right after it is issued, so the
+ * table stays small and the numbers reflect insert and delete cost rather than table growth.
+ *
+ * <pre>
+ * mvn package && java -cp target/benchmarks.jar com.example.service.auth.benchmark.AuthorizationCodeStoreBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationCodeStoreBenchmark {
+
+  private static final int[] THREADS = {1, 4, 16, 64};
+
+  @Param({"memory", "jpa"})
+  public String store;
+
+  @Param({"1", "64"})
+  public int batchSize;
+
+  private ConfigurableApplicationContext context;
+  private AuthorizationCodeServices authorizationCodeServices;
+  private OAuth2Authentication authentication;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start(
+        "auth.authorization-code.store=" + store,
+        "auth.authorization-code.batch-size=" + batchSize,
+        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+    authorizationCodeServices = context.getBean(AuthorizationCodeServices.class);
+    OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "proxy-client",
+        AuthorityUtils.createAuthorityList("ROLE_CLIENT"), true, Collections.singleton("read"),
+        Collections.emptySet(), "http://localhost:9000/login", Collections.emptySet(), Collections.emptyMap());
+    authentication = new OAuth2Authentication(request,
+        new UsernamePasswordAuthenticationToken("user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public OAuth2Authentication issueAndExchange() {
+    String code = authorizationCodeServices.createAuthorizationCode(authentication);
+    return authorizationCodeServices.consumeAuthorizationCode(code);
+  }
+
+  public static void main(String[] args) throws Exception {
+    for (int threads : THREADS) {
+      new Runner(BenchmarkOptions.forSuite(AuthorizationCodeStoreBenchmark.class, threads + "-threads")
+          .threads(threads)
+          .build()).run();
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.service.auth.benchmark;
+
+import com.example.service.auth.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Boots the authentication service for suites that need its beans wired together, against an in-memory H2
+ * database and with the settings in <code>benchmark.yml</code>. No config server is contacted.
+ */
+final class BenchmarkContext {
+
+  private BenchmarkContext() {
+  }
+
+  static ConfigurableApplicationContext start(final String... properties) {
+    return new SpringApplicationBuilder(Application.class)
+        .properties(Stream.concat(Stream.of(
+            "spring.config.additional-location=classpath:/benchmark.yml",
+            "spring.cloud.config.enabled=false"),
+            Arrays.stream(properties)).toArray(String[]::new))
+        .run();
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.service.auth.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Options shared by the suites' <code>main</code> methods: results are written as JSON to
+ * <code>results/&lt;suite&gt;.json</code>, or under <code>-Djmh.results.dir</code>, so a run can be diffed against
+ * the one from the previous release.
+ */
+final class BenchmarkOptions {
+
+  private BenchmarkOptions() {
+  }
+
+  static ChainedOptionsBuilder forSuite(final Class<?> suite) throws IOException {
+    return forSuite(suite, null);
+  }
+
+  /**
+   * @param variant distinguishes the result files of a suite that <code>main</code> runs several times, e.g. once
+   * per thread count.
+   */
+  static ChainedOptionsBuilder forSuite(final Class<?> suite, final String variant) throws IOException {
+    Path directory = Paths.get(System.getProperty("jmh.results.dir", "results"));
+    Files.createDirectories(directory);
+    String name = variant == null ? suite.getSimpleName() : suite.getSimpleName() + "-" + variant;
+    return new OptionsBuilder()
+        .include(suite.getSimpleName())
+        .resultFormat(ResultFormatType.JSON)
+        .result(directory.resolve(name + ".json").toString());
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.service.auth.benchmark;
+
+import com.example.service.auth.domain.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the Consumer getter calls made while validating one token request, against the split-on-every-call
+ * getters the entity used to have and against the parse-once entity. Run with the GC profiler and compare
+ * <code>gc.alloc.rate.norm</code> (bytes allocated per token request).
+ *
+ * <pre>
+ * mvn package && java -cp target/benchmarks.jar com.example.service.auth.benchmark.ConsumerGetterBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsumerGetterBenchmark {
+
+  private static final String SCOPES = "read,write,trust";
+  private static final String GRANT_TYPES = "password,refresh_token,authorization_code";
+  private static final String REDIRECT_URIS = "http://localhost:9000/login,http://localhost:9000/callback";
+  private static final String AUTHORITIES = "ROLE_CLIENT,ROLE_TRUSTED_CLIENT";
+  private static final String AUTO_APPROVE = "read,write";
+
+  private LegacyConsumer legacy;
+  private Consumer consumer;
+
+  @Setup
+  public void setup() {
+    legacy = new LegacyConsumer();
+    consumer = new Consumer();
+    consumer.setClientId("proxy-client");
+    consumer.setScopeCsv(SCOPES);
+    consumer.setAuthorizedGrantTypesCsv(GRANT_TYPES);
+    consumer.setRegisteredRedirectUrisCsv(REDIRECT_URIS);
+    consumer.setAuthorityCsv(AUTHORITIES);
+    consumer.setAutoApproveCsv(AUTO_APPROVE);
+  }
+
+  @Benchmark
+  public void legacyTokenRequest(Blackhole blackhole) {
+    blackhole.consume(legacy.getAuthorizedGrantTypes());
+    blackhole.consume(legacy.isScoped());
+    blackhole.consume(legacy.getScope());
+    blackhole.consume(legacy.getScope());
+    blackhole.consume(legacy.getScope());
+    blackhole.consume(legacy.getRegisteredRedirectUri());
+    blackhole.consume(legacy.getResourceIds());
+    blackhole.consume(legacy.getAuthorities());
+    blackhole.consume(legacy.isAutoApprove("read"));
+    blackhole.consume(legacy.isAutoApprove("trust"));
+  }
+
+  @Benchmark
+  public void parsedOnceTokenRequest(Blackhole blackhole) {
+    blackhole.consume(consumer.getAuthorizedGrantTypes());
+    blackhole.consume(consumer.isScoped());
+    blackhole.consume(consumer.getScope());
+    blackhole.consume(consumer.getScope());
+    blackhole.consume(consumer.getScope());
+    blackhole.consume(consumer.getRegisteredRedirectUri());
+    blackhole.consume(consumer.getResourceIds());
+    blackhole.consume(consumer.getAuthorities());
+    blackhole.consume(consumer.isAutoApprove("read"));
+    blackhole.consume(consumer.isAutoApprove("trust"));
+  }
+
+  /**
+   * The Consumer getters as they were before the CSV columns were parsed once.
+   */
+  private static final class LegacyConsumer {
+
+    Set<String> getAuthorizedGrantTypes() {
+      return new HashSet<>(Arrays.asList(GRANT_TYPES.split(",")));
+    }
+
+    Set<String> getResourceIds() {
+      return Collections.emptySet();
+    }
+
+    Set<String> getScope() {
+      return new HashSet<>(Arrays.asList(SCOPES.split(",")));
+    }
+
+    Set<String> getRegisteredRedirectUri() {
+      return new HashSet<>(Arrays.asList(REDIRECT_URIS.split(",")));
+    }
+
+    boolean isScoped() {
+      return !Arrays.asList(SCOPES.split(",")).isEmpty();
+    }
+
+    boolean isAutoApprove(String scope) {
+      for (String auto : AUTO_APPROVE.split(",")) {
+        if ("true".equals(auto) || scope.matches(auto)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    Collection<GrantedAuthority> getAuthorities() {
+      Set<GrantedAuthority> grantedAuthorityList = new HashSet<>();
+      for (String authority : AUTHORITIES.split(",")) {
+        grantedAuthorityList.add(new SimpleGrantedAuthority(authority));
+      }
+      return grantedAuthorityList;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(BenchmarkOptions.forSuite(ConsumerGetterBenchmark.class)
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.service.auth.benchmark;
+
+import com.example.service.auth.validation.CredentialValidator;
+import com.example.service.auth.validation.ValidationRegex;
+import org.apache.commons.validator.routines.RegexValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validates the USER_ID and PASSWORD headers of one password update three ways: a new {@link RegexValidator} per
+ * call as the controller used to, precompiled {@link Pattern}s, and the hand-written checks in
+ * {@link CredentialValidator}. Run with the GC profiler to compare <code>gc.alloc.rate.norm</code> as well.
+ *
+ * <pre>
+ * mvn package && java -cp target/benchmarks.jar com.example.service.auth.benchmark.CredentialValidatorBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CredentialValidatorBenchmark {
+
+  private static final Pattern UUID = Pattern.compile(ValidationRegex.UUID_PATTERN);
+  private static final Pattern BCRYPT = Pattern.compile(ValidationRegex.BCRYPT_PATTERN);
+
+  private final String username = "8f14e45f-ceea-467f-a0e6-7c2b3f1d9a4e";
+  private final String password = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+  @Benchmark
+  public boolean regexValidatorPerCall() {
+    return new RegexValidator(ValidationRegex.UUID_PATTERN).isValid(username)
+        && new RegexValidator(ValidationRegex.BCRYPT_PATTERN).isValid(password);
+  }
+
+  @Benchmark
+  public boolean precompiledPattern() {
+    return UUID.matcher(username).matches() && BCRYPT.matcher(password).matches();
+  }
+
+  @Benchmark
+  public boolean handWritten() {
+    return CredentialValidator.isUuid(username) && CredentialValidator.isBCryptHash(password);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(BenchmarkOptions.forSuite(CredentialValidatorBenchmark.class)
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
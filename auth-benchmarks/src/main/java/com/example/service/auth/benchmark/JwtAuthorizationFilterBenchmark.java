@@ -0,0 +1,141 @@
+package com.example.service.auth.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.example.service.auth.constants.SecurityConstants;
+import com.example.service.auth.filter.JwtAuthorizationFilter;
+import com.example.service.auth.filter.JwtCodec;
+import com.example.service.auth.filter.VerifiedTokenCache;
+import com.example.service.auth.service.TokenRevocationList;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original JwtAuthorizationFilter with the current one on a mix of anonymous, Basic and bearer
+ * requests. Root logging is raised to ERROR so console output does not dominate either side; the warnings the
+ * legacy filter logs on every failure are therefore not part of its measured cost.
+ *
+ * <pre>
+ * mvn package && java -cp target/benchmarks.jar com.example.service.auth.benchmark.JwtAuthorizationFilterBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthorizationFilterBenchmark {
+
+  private static final String SECRET = "benchmark-signing-secret-benchmark-signing-secret-benchmark-signing-secret";
+  private static final String OTHER_SECRET = "some-other-signing-secret-some-other-signing-secret-some-other-secret";
+  private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+  private static final AuthenticationManager NO_OP_MANAGER = authentication -> authentication;
+
+  private LegacyJwtAuthorizationFilter legacyFilter;
+  private JwtAuthorizationFilter filter;
+  private MockHttpServletRequest[] requests;
+  private MockHttpServletResponse response;
+  private int next;
+
+  @Setup
+  public void setup() throws Exception {
+    ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.ERROR);
+
+    legacyFilter = new LegacyJwtAuthorizationFilter(SECRET, NO_OP_MANAGER);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    filter = new JwtAuthorizationFilter(new JwtCodec(SECRET), new VerifiedTokenCache(10_000, 600, meterRegistry),
+        new TokenRevocationList(65_536, "", false, 1000, meterRegistry), NO_OP_MANAGER, meterRegistry);
+    response = new MockHttpServletResponse();
+
+    String basic = "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes());
+    String[] valid = { token(SECRET, "alice", 3600_000L), token(SECRET, "bob", 3600_000L) };
+    String expired = token(SECRET, "carol", -3600_000L);
+    String badSignature = token(OTHER_SECRET, "mallory", 3600_000L);
+
+    // 20 request mix: 8 anonymous, 4 Basic, 6 valid bearer, 1 expired, 1 bad signature.
+    List<MockHttpServletRequest> mix = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      mix.add(request(null));
+    }
+    for (int i = 0; i < 4; i++) {
+      mix.add(request(basic));
+    }
+    for (int i = 0; i < 6; i++) {
+      mix.add(request(SecurityConstants.TOKEN_PREFIX + valid[i % valid.length]));
+    }
+    mix.add(request(SecurityConstants.TOKEN_PREFIX + expired));
+    mix.add(request(SecurityConstants.TOKEN_PREFIX + badSignature));
+    Collections.shuffle(mix, new Random(42));
+    requests = mix.toArray(new MockHttpServletRequest[0]);
+  }
+
+  @Benchmark
+  public void legacyFilter() throws Exception {
+    legacyFilter.doFilter(nextRequest(), response, NO_OP_CHAIN);
+    SecurityContextHolder.clearContext();
+  }
+
+  @Benchmark
+  public void fastPathFilter() throws Exception {
+    filter.doFilter(nextRequest(), response, NO_OP_CHAIN);
+    SecurityContextHolder.clearContext();
+  }
+
+  private MockHttpServletRequest nextRequest() {
+    MockHttpServletRequest request = requests[next];
+    next = (next + 1) % requests.length;
+    return request;
+  }
+
+  private static MockHttpServletRequest request(final String authorization) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+    if (authorization != null) {
+      request.addHeader(SecurityConstants.TOKEN_HEADER, authorization);
+    }
+    return request;
+  }
+
+  private static String token(final String secret, final String subject, final long expiresInMillis) {
+    return Jwts.builder()
+        .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+        .setHeaderParam("typ", SecurityConstants.TOKEN_TYPE)
+        .setIssuer(SecurityConstants.TOKEN_ISSUER)
+        .setAudience(SecurityConstants.TOKEN_AUDIENCE)
+        .setSubject(subject)
+        .setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+        .claim("roles", Collections.singletonList("ROLE_USER"))
+        .compact();
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(BenchmarkOptions.forSuite(JwtAuthorizationFilterBenchmark.class)
+        .build()).run();
+  }
+}
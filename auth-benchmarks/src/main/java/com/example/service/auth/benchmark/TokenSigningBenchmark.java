@@ -0,0 +1,110 @@
+package com.example.service.auth.benchmark;
+
+import com.example.service.auth.service.SigningAlgorithm;
+import com.example.service.auth.service.SigningKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of each {@link SigningAlgorithm} for access tokens carrying 5, 20 and 80
+ * authorities. Before the JMH run, <code>main</code> prints the encoded size of each token, which is what every
+ * proxied request carries in its <code>Authorization</code> header.
+ *
+ * <pre>
+ * mvn package && java -cp target/benchmarks.jar com.example.service.auth.benchmark.TokenSigningBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenSigningBenchmark {
+
+  @Param({"RS256", "ES256", "EdDSA"})
+  public String algorithm;
+
+  @Param({"5", "20", "80"})
+  public int authorities;
+
+  private SigningKey key;
+  private String claims;
+  private String token;
+
+  @Setup
+  public void setup() throws Exception {
+    key = key(SigningAlgorithm.fromName(algorithm));
+    claims = claims(authorities);
+    token = key.encode(claims);
+  }
+
+  @Benchmark
+  public String sign() {
+    return key.encode(claims);
+  }
+
+  @Benchmark
+  public String verify() {
+    return key.decode(token);
+  }
+
+  private static SigningKey key(SigningAlgorithm algorithm) throws Exception {
+    KeyPair keyPair = algorithm.generateKeyPair(2048);
+    return new SigningKey(algorithm, keyPair.getPublic(), keyPair.getPrivate(), Instant.now());
+  }
+
+  /**
+   * Claims shaped like the ones <code>DefaultAccessTokenConverter</code> writes for a password grant.
+   */
+  private static String claims(int authorities) {
+    StringBuilder claims = new StringBuilder()
+        .append("{\"exp\":").append(Instant.now().plusSeconds(3600).getEpochSecond())
+        .append(",\"user_name\":\"").append(UUID.randomUUID())
+        .append("\",\"authorities\":[");
+    for (int i = 0; i < authorities; i++) {
+      claims.append(i > 0 ? "," : "").append("\"ROLE_PERMISSION_").append(i).append('"');
+    }
+    return claims.append("],\"jti\":\"").append(UUID.randomUUID())
+        .append("\",\"client_id\":\"proxy-client\",\"scope\":[\"read\",\"write\",\"trust\"]}")
+        .toString();
+  }
+
+  public static void main(String[] args) throws Exception {
+    List<String> available = new ArrayList<>();
+    for (SigningAlgorithm algorithm : SigningAlgorithm.values()) {
+      if (algorithm.isAvailable()) {
+        available.add(algorithm.getJwsName());
+      }
+    }
+
+    System.out.println("Encoded token size in bytes");
+    System.out.printf("%-8s %8s %8s %8s%n", "alg", "5", "20", "80");
+    for (String name : available) {
+      SigningKey key = key(SigningAlgorithm.fromName(name));
+      System.out.printf("%-8s %8d %8d %8d%n", name, key.encode(claims(5)).length(),
+          key.encode(claims(20)).length(), key.encode(claims(80)).length());
+    }
+
+    new Runner(BenchmarkOptions.forSuite(TokenSigningBenchmark.class)
+        .param("algorithm", available.toArray(new String[0]))
+        .build()).run();
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.service.auth.benchmark;
+
+import com.example.service.auth.domain.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the User getter calls made while authenticating one password grant and issuing its token, against the
+ * split-on-every-call <code>getAuthorities</code> the entity used to have and against the memoized one. Run with
+ * the GC profiler and compare <code>gc.alloc.rate.norm</code> (bytes allocated per login).
+ *
+ * <pre>
+ * mvn package && java -cp target/benchmarks.jar com.example.service.auth.benchmark.UserGetterBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UserGetterBenchmark {
+
+  private static final String ROLES = "USER,ADMIN,ROLE_PERMISSION_1,ROLE_PERMISSION_2";
+
+  private User user;
+
+  @Setup
+  public void setup() {
+    user = new User();
+    user.setUsername("user");
+    user.setPassword("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+    user.setActive(true);
+    user.setRoles(ROLES);
+  }
+
+  @Benchmark
+  public void legacyLogin(Blackhole blackhole) {
+    login(blackhole);
+    // Account checks, the authenticated token, the access token's authorities claim.
+    blackhole.consume(legacyAuthorities());
+    blackhole.consume(legacyAuthorities());
+    blackhole.consume(legacyAuthorities());
+  }
+
+  @Benchmark
+  public void memoizedLogin(Blackhole blackhole) {
+    login(blackhole);
+    blackhole.consume(user.getAuthorities());
+    blackhole.consume(user.getAuthorities());
+    blackhole.consume(user.getAuthorities());
+  }
+
+  private void login(final Blackhole blackhole) {
+    blackhole.consume(user.getUsername());
+    blackhole.consume(user.getPassword());
+    blackhole.consume(user.isAccountNonLocked());
+    blackhole.consume(user.isEnabled());
+    blackhole.consume(user.isAccountNonExpired());
+    blackhole.consume(user.isCredentialsNonExpired());
+  }
+
+  /**
+   * User.getAuthorities as it was before the roles were parsed once per load.
+   */
+  private Collection<GrantedAuthority> legacyAuthorities() {
+    Set<GrantedAuthority> grantedAuthorityList = new HashSet<>();
+    for (String role : user.getRoles().split(",")) {
+      grantedAuthorityList.add(new SimpleGrantedAuthority(role));
+    }
+    return grantedAuthorityList;
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(BenchmarkOptions.forSuite(UserGetterBenchmark.class)
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
@@ -0,0 +1,81 @@
+package com.example.service.auth.benchmark;
+
+import com.example.service.auth.service.CachingUserDetailsService;
+import com.example.service.auth.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User lookups as the authentication providers make them: through {@link UserService}, which queries the H2
+ * database every time, and through the {@link CachingUserDetailsService} in front of it. Unknown usernames are
+ * never cached, so they cost a query either way.
+ *
+ * <pre>
+ * mvn package && java -cp target/benchmarks.jar com.example.service.auth.benchmark.UserLookupBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class UserLookupBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private UserService userService;
+  private CachingUserDetailsService cachingUserDetailsService;
+
+  @Setup
+  public void setup() {
+    context = BenchmarkContext.start();
+    userService = context.getBean(UserService.class);
+    cachingUserDetailsService = context.getBean(CachingUserDetailsService.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public UserDetails database() {
+    return userService.loadUserByUsername("user");
+  }
+
+  @Benchmark
+  public UserDetails cached() {
+    return cachingUserDetailsService.loadUserByUsername("user");
+  }
+
+  @Benchmark
+  public boolean unknownUser() {
+    try {
+      return cachingUserDetailsService.loadUserByUsername("nobody") != null;
+    } catch (UsernameNotFoundException e) {
+      return false;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(BenchmarkOptions.forSuite(UserLookupBenchmark.class)
+        .build()).run();
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.service.auth.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor that async endpoints run their blocking work on once they have released the Tomcat thread, such
+ * as JPA lookups. Password hashing itself stays on the bounded hashing pool.
+ * <p>
+ * With <code>auth.async.virtual-threads</code> enabled and a JDK that has virtual threads, every task gets its own
+ * virtual thread. Otherwise <code>auth.async.threads</code> platform threads are used. Spring MVC's own async
+ * work, such as writing a <code>StreamingResponseBody</code>, runs on the same executor.
+ */
+@Slf4j
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+  public static final String EXECUTOR = "userRequestExecutor";
+
+  private final ExecutorService executor;
+  private final long timeoutMillis;
+
+  public AsyncRequestConfig(
+      @Value("${auth.async.virtual-threads:true}") final boolean virtualThreads,
+      @Value("${auth.async.threads:64}") final int threads,
+      @Value("${auth.async.timeout-millis:30000}") final long timeoutMillis) {
+    ExecutorService virtual = virtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+    if (virtual != null) {
+      log.info("Async user requests run on virtual threads");
+      this.executor = virtual;
+    } else {
+      log.info("Async user requests run on {} platform threads", threads);
+      AtomicInteger threadNumber = new AtomicInteger();
+      this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+        Thread thread = new Thread(runnable, "user-request-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  @Bean(name = EXECUTOR, destroyMethod = "shutdown")
+  public ExecutorService userRequestExecutor() {
+    return executor;
+  }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(new ConcurrentTaskExecutor(executor));
+    configurer.setDefaultTimeout(timeoutMillis);
+  }
+
+  // Looked up reflectively so that the service still builds and runs on JDKs without virtual threads.
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      log.debug("Virtual threads are not available on this JDK", e);
+      return null;
+    }
+  }
+}
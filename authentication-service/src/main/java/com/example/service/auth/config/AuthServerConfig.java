@@ -16,7 +16,13 @@
 package com.example.service.auth.config;
 
 import com.example.service.auth.service.ConsumerService;
-import com.example.service.auth.service.UserService;
+import com.example.service.auth.service.CachingUserDetailsService;
+import com.example.service.auth.service.KeyRing;
+import com.example.service.auth.service.KeyRingJwtAccessTokenConverter;
+import com.example.service.auth.service.OpaqueTokenEnhancer;
+import com.example.service.auth.service.OpaqueTokenStore;
+import com.example.service.auth.service.TokenRevocationList;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,15 +31,16 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.AuthorizationServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableAuthorizationServer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.code.AuthorizationCodeServices;
 import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
 import org.springframework.security.oauth2.provider.token.TokenStore;
-import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
@@ -44,8 +51,9 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 /**
- * An instance of Legacy Authorization Server (spring-security-oauth2) that uses a single,
- * not-rotating key and exposes a JWK endpoint.
+ * An instance of Legacy Authorization Server (spring-security-oauth2) that signs tokens with the
+ * {@link KeyRing}'s rotating keys and exposes them as a JWK set. With <code>auth.token-store.mode: opaque</code>
+ * it issues short reference tokens held by an {@link OpaqueTokenStore} instead.
  *
  * See
  * <a
@@ -61,29 +69,51 @@ import javax.servlet.http.HttpSession;
 @EnableAuthorizationServer
 public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
 
-  private final String privateKey ;
+  public static final String OPAQUE_MODE = "opaque";
 
-  private final String publicKey;
+  private final KeyRing keyRing;
+
+  private final TokenRevocationList revocationList;
 
   private final ConsumerService consumerService;
 
   private final AuthenticationManager authenticationManager;
 
-  private final UserService userService;
+  private final CachingUserDetailsService userDetailsService;
+
+  private final AuthorizationCodeServices authorizationCodeServices;
+
+  private final MeterRegistry meterRegistry;
+
+  private final boolean opaqueTokens;
+
+  private final int tokenStoreShards;
 
-  private JwtAccessTokenConverter jwtAccessTokenConverter;
+  private final long tokenStoreTickMillis;
+
+  private KeyRingJwtAccessTokenConverter jwtAccessTokenConverter;
 
   @Autowired
   public AuthServerConfig(
-      @Value("${keyPair.private-key}") final String privateKey,
-      @Value("${keyPair.public-key}") final String publicKey,
+      final KeyRing keyRing,
+      final TokenRevocationList revocationList,
       final ConsumerService consumerService,
-      final UserService userService,
-      final AuthenticationConfiguration authenticationConfiguration) throws Exception {
-    this.privateKey = privateKey;
-    this.publicKey = publicKey;
+      final CachingUserDetailsService userDetailsService,
+      final AuthenticationConfiguration authenticationConfiguration,
+      final AuthorizationCodeServices authorizationCodeServices,
+      final MeterRegistry meterRegistry,
+      @Value("${auth.token-store.mode:jwt}") final String tokenStoreMode,
+      @Value("${auth.token-store.shards:64}") final int tokenStoreShards,
+      @Value("${auth.token-store.tick-millis:1000}") final long tokenStoreTickMillis) throws Exception {
+    this.keyRing = keyRing;
+    this.revocationList = revocationList;
+    this.authorizationCodeServices = authorizationCodeServices;
+    this.meterRegistry = meterRegistry;
+    this.opaqueTokens = OPAQUE_MODE.equals(tokenStoreMode);
+    this.tokenStoreShards = tokenStoreShards;
+    this.tokenStoreTickMillis = tokenStoreTickMillis;
     this.consumerService = consumerService;
-    this.userService = userService;
+    this.userDetailsService = userDetailsService;
     this.authenticationManager = authenticationConfiguration.getAuthenticationManager();
   }
 
@@ -103,11 +133,18 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
   public void configure(final AuthorizationServerEndpointsConfigurer endpoints) {
     endpoints
         .authenticationManager(authenticationManager)
-        .accessTokenConverter(jwtAccessTokenConverter())
-        .userDetailsService(userService)
-        .tokenStore(tokenStore());
+        .userDetailsService(userDetailsService)
+        .tokenStore(tokenStore())
+        .authorizationCodeServices(authorizationCodeServices)
+        .exceptionTranslator(new PasswordHashingExceptionTranslator());
+    if (opaqueTokens) {
+      endpoints.tokenEnhancer(new OpaqueTokenEnhancer(tokenStore()));
+    } else {
+      endpoints.accessTokenConverter(jwtAccessTokenConverter());
+    }
 
-    //Invalidate the session once the user has been authenticated
+    //Invalidate the session once the user has been authenticated, and forget the login so that in stateless mode
+    //its cookie is cleared too
     endpoints.addInterceptor(new HandlerInterceptorAdapter() {
       @Override
       public void postHandle(HttpServletRequest request,
@@ -122,6 +159,7 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
             if (session != null) {
               session.invalidate();
             }
+            SecurityContextHolder.clearContext();
           }
         }
       }
@@ -130,6 +168,9 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
 
   @Bean
   public TokenStore tokenStore() {
+    if (opaqueTokens) {
+      return new OpaqueTokenStore(tokenStoreShards, tokenStoreTickMillis, meterRegistry);
+    }
     return new JwtTokenStore(jwtAccessTokenConverter());
   }
 
@@ -141,18 +182,19 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
     tokenServices.setTokenStore(tokenStore);
     tokenServices.setClientDetailsService(clientDetailsService);
     tokenServices.setAuthenticationManager(this.authenticationManager);
+    if (opaqueTokens) {
+      tokenServices.setTokenEnhancer(new OpaqueTokenEnhancer(tokenStore));
+    }
     return tokenServices;
   }
 
 
   @Bean
-  public JwtAccessTokenConverter jwtAccessTokenConverter() {
+  public KeyRingJwtAccessTokenConverter jwtAccessTokenConverter() {
     if (jwtAccessTokenConverter != null) {
       return jwtAccessTokenConverter;
     }
-    jwtAccessTokenConverter = new JwtAccessTokenConverter();
-    jwtAccessTokenConverter.setSigningKey(privateKey);
-    jwtAccessTokenConverter.setVerifierKey(publicKey);
+    jwtAccessTokenConverter = new KeyRingJwtAccessTokenConverter(keyRing, revocationList);
     return jwtAccessTokenConverter;
   }
 
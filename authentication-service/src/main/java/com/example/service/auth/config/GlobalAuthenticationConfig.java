@@ -1,29 +1,32 @@
 package com.example.service.auth.config;
 
-import com.example.service.auth.service.UserService;
+import com.example.service.auth.service.CachingUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.authentication.configuration.GlobalAuthenticationConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Order(Ordered.HIGHEST_PRECEDENCE)
 @Configuration
 public class GlobalAuthenticationConfig extends GlobalAuthenticationConfigurerAdapter {
 
-  private final UserService userService;
+  private final CachingUserDetailsService userDetailsService;
+  private final PasswordEncoder passwordEncoder;
 
   @Autowired
-  public GlobalAuthenticationConfig(final UserService userService) {
-    this.userService = userService;
+  public GlobalAuthenticationConfig(final CachingUserDetailsService userDetailsService,
+      final PasswordEncoder passwordEncoder) {
+    this.userDetailsService = userDetailsService;
+    this.passwordEncoder = passwordEncoder;
   }
 
   @Override
   public void init(AuthenticationManagerBuilder auth) throws Exception {
     auth
-        .userDetailsService(userService)
-        .passwordEncoder(new BCryptPasswordEncoder());
+        .userDetailsService(userDetailsService)
+        .passwordEncoder(passwordEncoder);
   }
 }
@@ -0,0 +1,49 @@
+package com.example.service.auth.config;
+
+import com.example.service.auth.filter.PasswordHashingRejectionFilter;
+import com.example.service.auth.service.AdaptiveBCryptPasswordEncoder;
+import com.example.service.auth.service.BoundedPasswordEncoder;
+import com.example.service.auth.service.PasswordHashingExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * The one {@link PasswordEncoder} used for users and clients. It is kept apart from the security configurers so
+ * that both the global and the web authentication managers can depend on it.
+ * <p>
+ * A fixed <code>auth.password.strength</code> pins the BCrypt cost. Left at 0, the cost is calibrated at startup
+ * to the highest value between <code>min-strength</code> and <code>max-strength</code> that hashes within
+ * <code>target-latency-millis</code> on this node.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+  @Bean
+  public PasswordEncoder passwordEncoder(
+      final PasswordHashingExecutor passwordHashingExecutor,
+      @Value("${auth.password.strength:0}") final int strength,
+      @Value("${auth.password.target-latency-millis:250}") final long targetLatencyMillis,
+      @Value("${auth.password.min-strength:10}") final int minStrength,
+      @Value("${auth.password.max-strength:14}") final int maxStrength) {
+    int cost = strength > 0 ? strength : AdaptiveBCryptPasswordEncoder.calibrate(targetLatencyMillis,
+        Math.max(AdaptiveBCryptPasswordEncoder.MIN_STRENGTH, minStrength),
+        Math.min(AdaptiveBCryptPasswordEncoder.MAX_STRENGTH, maxStrength));
+    // Spring Security only picks up the encoder when it is the single PasswordEncoder bean in the context.
+    return new BoundedPasswordEncoder(new AdaptiveBCryptPasswordEncoder(cost), passwordHashingExecutor);
+  }
+
+  /**
+   * Registered ahead of Spring Security so that hashing rejections during authentication also become 503s.
+   */
+  @Bean
+  public FilterRegistrationBean<PasswordHashingRejectionFilter> passwordHashingRejectionFilter() {
+    FilterRegistrationBean<PasswordHashingRejectionFilter> registration =
+        new FilterRegistrationBean<>(new PasswordHashingRejectionFilter());
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return registration;
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.service.auth.config;
+
+import com.example.service.auth.service.PasswordHashingRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.provider.error.DefaultWebResponseExceptionTranslator;
+
+/**
+ * Lets the token endpoint answer 503 <code>temporarily_unavailable</code> when the password grant is shed by the
+ * hashing pool, instead of the generic 500 <code>server_error</code>.
+ */
+public class PasswordHashingExceptionTranslator extends DefaultWebResponseExceptionTranslator {
+
+  private static final String TEMPORARILY_UNAVAILABLE = "temporarily_unavailable";
+
+  @Override
+  public ResponseEntity<OAuth2Exception> translate(Exception e) throws Exception {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof PasswordHashingRejectedException) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CACHE_CONTROL, "no-store");
+        headers.set(HttpHeaders.PRAGMA, "no-cache");
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(new TemporarilyUnavailableException(cause.getMessage()), headers,
+            HttpStatus.SERVICE_UNAVAILABLE);
+      }
+    }
+    return super.translate(e);
+  }
+
+  private static final class TemporarilyUnavailableException extends OAuth2Exception {
+
+    private TemporarilyUnavailableException(String msg) {
+      super(msg);
+    }
+
+    @Override
+    public String getOAuth2ErrorCode() {
+      return TEMPORARILY_UNAVAILABLE;
+    }
+
+    @Override
+    public int getHttpErrorCode() {
+      return HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+  }
+}
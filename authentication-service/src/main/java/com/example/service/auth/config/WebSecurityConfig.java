@@ -1,62 +1,143 @@
 package com.example.service.auth.config;
 
+import com.example.service.auth.constants.SecurityConstants;
+import com.example.service.auth.controller.JwksController;
+import com.example.service.auth.controller.RevocationController;
+import com.example.service.auth.filter.CookieRequestCache;
+import com.example.service.auth.filter.CookieSecurityContextRepository;
 import com.example.service.auth.filter.JwtAuthenticationFilter;
 import com.example.service.auth.filter.JwtAuthorizationFilter;
-import com.example.service.auth.service.UserService;
+import com.example.service.auth.filter.JwtCodec;
+import com.example.service.auth.filter.SealedCookies;
+import com.example.service.auth.filter.VerifiedTokenCache;
+import com.example.service.auth.service.CachingUserDetailsService;
+import com.example.service.auth.service.TokenRevocationList;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.DelegatingAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * For configuring the end users recognized by this Authorization Server
+ * <p>
+ * With <code>auth.stateless.enabled</code>, the login form and the authorize request never create an HttpSession:
+ * the authorize request interrupted by the login, the logged-in user and the CSRF token are carried in cookies,
+ * the first two sealed with <code>auth.stateless.cookie-key</code>, so any node can serve any step of the flow.
  */
+@Slf4j
 @Order(-20)
 @Configuration
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
-  private final UserService userService;
+  private final CachingUserDetailsService userDetailsService;
   private final AuthenticationConfiguration authenticationConfiguration;
-  private final String privateKey;
+  private final JwtCodec jwtCodec;
+  private final VerifiedTokenCache verifiedTokenCache;
+  private final TokenRevocationList revocationList;
+  private final PasswordEncoder passwordEncoder;
+  private final MeterRegistry meterRegistry;
+  private final SealedCookies sealedCookies;
 
   @Autowired
   public WebSecurityConfig(
-      @Value("${keyPair.private-key}") final String privateKey,
-      final UserService userService,
-      final AuthenticationConfiguration authenticationConfiguration) {
-    this.privateKey = privateKey;
+      final JwtCodec jwtCodec,
+      final CachingUserDetailsService userDetailsService,
+      final VerifiedTokenCache verifiedTokenCache,
+      final TokenRevocationList revocationList,
+      final PasswordEncoder passwordEncoder,
+      final AuthenticationConfiguration authenticationConfiguration,
+      final MeterRegistry meterRegistry,
+      @Value("${auth.stateless.enabled:false}") final boolean stateless,
+      @Value("${auth.stateless.cookie-key:}") final String cookieKey,
+      @Value("${auth.stateless.max-age-seconds:300}") final long maxAgeSeconds) {
+    this.jwtCodec = jwtCodec;
+    this.passwordEncoder = passwordEncoder;
+    this.meterRegistry = meterRegistry;
+    this.verifiedTokenCache = verifiedTokenCache;
+    this.revocationList = revocationList;
     this.authenticationConfiguration = authenticationConfiguration;
-    this.userService = userService;
+    this.userDetailsService = userDetailsService;
+    this.sealedCookies = stateless
+        ? new SealedCookies(cookieKey(cookieKey), TimeUnit.SECONDS.toMillis(maxAgeSeconds))
+        : null;
   }
 
   @Override
   public void configure(AuthenticationManagerBuilder auth) throws Exception {
     auth
         .parentAuthenticationManager(authenticationConfiguration.getAuthenticationManager())
-        .userDetailsService(userService)
-        .passwordEncoder(passwordEncoder());
+        .userDetailsService(userDetailsService)
+        .passwordEncoder(passwordEncoder);
   }
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public JwtAuthenticationFilter jwtAuthenticationFilter() throws Exception {
+    return new JwtAuthenticationFilter(jwtCodec, authenticationManager(), meterRegistry);
   }
 
+  @Bean
+  public JwtAuthorizationFilter jwtAuthorizationFilter() throws Exception {
+    return new JwtAuthorizationFilter(jwtCodec, verifiedTokenCache, revocationList, authenticationManager(),
+        meterRegistry);
+  }
+
+  /**
+   * The JWT filters are beans so they can share the {@link JwtCodec}, but they belong in the Spring Security
+   * chain only, not in the servlet container's filter chain.
+   */
+  @Bean
+  public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(
+      final JwtAuthenticationFilter filter) {
+    FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.setEnabled(false);
+    return registration;
+  }
+
+  @Bean
+  public FilterRegistrationBean<JwtAuthorizationFilter> jwtAuthorizationFilterRegistration(
+      final JwtAuthorizationFilter filter) {
+    FilterRegistrationBean<JwtAuthorizationFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.setEnabled(false);
+    return registration;
+  }
+
+  /**
+   * Revocation needs no authentication: holding the token is what entitles the caller to revoke it.
+   */
   @Override
   public void configure(WebSecurity web) throws Exception {
     web.ignoring().antMatchers(
         "/webjars/**",
         "/css/**",
         "/images/**",
-        "/favicon.ico");
+        "/favicon.ico",
+        JwksController.JWKS_PATH,
+        RevocationController.REVOKE_PATH);
   }
 
   @Override
@@ -69,6 +150,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
         .authorizeRequests()
             .anyRequest().authenticated()
             .and()
+        .exceptionHandling()
+            .authenticationEntryPoint(authenticationEntryPoint())
+            .and()
         .formLogin()
             .loginPage( "/login")
             .permitAll()
@@ -76,9 +160,53 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
         .logout()
             .permitAll()
         .and()
-            .addFilter(new JwtAuthenticationFilter(privateKey, authenticationManager()))
-            .addFilter(new JwtAuthorizationFilter(privateKey, authenticationManager()));
+            .addFilter(jwtAuthenticationFilter())
+            .addFilter(jwtAuthorizationFilter());
+    if (sealedCookies != null) {
+      http
+          .sessionManagement()
+              .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+              .and()
+          .securityContext()
+              .securityContextRepository(new CookieSecurityContextRepository(sealedCookies, userDetailsService))
+              .and()
+          .requestCache()
+              .requestCache(new CookieRequestCache(sealedCookies))
+              .and()
+          .csrf()
+              .csrfTokenRepository(new CookieCsrfTokenRepository());
+    }
     // @formatter:on
   }
 
+  /**
+   * A request whose bearer token was rejected is answered 401; everything else is sent to the login page, whatever
+   * its Accept header.
+   */
+  private static AuthenticationEntryPoint authenticationEntryPoint() {
+    LinkedHashMap<RequestMatcher, AuthenticationEntryPoint> entryPoints = new LinkedHashMap<>();
+    entryPoints.put(WebSecurityConfig::hasBearerToken, new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED));
+    DelegatingAuthenticationEntryPoint entryPoint = new DelegatingAuthenticationEntryPoint(entryPoints);
+    entryPoint.setDefaultEntryPoint(new LoginUrlAuthenticationEntryPoint("/login"));
+    return entryPoint;
+  }
+
+  private static boolean hasBearerToken(final HttpServletRequest request) {
+    String header = request.getHeader(SecurityConstants.TOKEN_HEADER);
+    return header != null && header.startsWith(SecurityConstants.TOKEN_PREFIX);
+  }
+
+  /**
+   * Every node must share the key; without one, a random key is generated and only this node can read the cookies.
+   */
+  private static byte[] cookieKey(final String encoded) {
+    if (StringUtils.hasText(encoded)) {
+      return Base64.getDecoder().decode(encoded);
+    }
+    log.warn("auth.stateless.cookie-key is not set; using a random key, so logins only work on this node");
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    return key;
+  }
+
 }
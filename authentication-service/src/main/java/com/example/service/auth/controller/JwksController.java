@@ -0,0 +1,43 @@
+package com.example.service.auth.controller;
+
+import com.example.service.auth.service.KeyRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the {@link KeyRing} as a JWK set, so resource servers verify tokens locally with cached keys. The
+ * response may be cached for <code>auth.key-ring.jwks-max-age-seconds</code>, and a request whose
+ * <code>If-None-Match</code> matches the current ETag gets an empty 304.
+ */
+@RestController
+public class JwksController {
+
+  public static final String JWKS_PATH = "/.well-known/jwks.json";
+
+  private final KeyRing keyRing;
+  private final CacheControl cacheControl;
+
+  @Autowired
+  public JwksController(
+      final KeyRing keyRing,
+      @Value("${auth.key-ring.jwks-max-age-seconds:300}") final long maxAgeSeconds) {
+    this.keyRing = keyRing;
+    this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+  }
+
+  @RequestMapping(value = JWKS_PATH, method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<String> jwks() {
+    return ResponseEntity.ok()
+        .cacheControl(cacheControl)
+        .eTag(keyRing.getJwksETag())
+        .body(keyRing.getJwks());
+  }
+}
@@ -0,0 +1,109 @@
+package com.example.service.auth.controller;
+
+import com.example.service.auth.filter.JwtAuthorizationFilter;
+import com.example.service.auth.filter.JwtCodec;
+import com.example.service.auth.service.KeyRingJwtAccessTokenConverter;
+import com.example.service.auth.service.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Revokes a token, in the manner of RFC 7009: holding a token is enough to revoke it, and the answer is 200
+ * whether or not the token was valid. Signed tokens, both the <code>/api/authenticate</code> ones and those of
+ * the key ring, go on the {@link TokenRevocationList} until they expire; opaque tokens are removed from the
+ * token store.
+ */
+@Slf4j
+@RestController
+public class RevocationController {
+
+  public static final String REVOKE_PATH = "/api/revoke";
+
+  private final JwtCodec jwtCodec;
+  private final KeyRingJwtAccessTokenConverter accessTokenConverter;
+  private final TokenStore tokenStore;
+  private final TokenRevocationList revocationList;
+
+  @Autowired
+  public RevocationController(
+      final JwtCodec jwtCodec,
+      final KeyRingJwtAccessTokenConverter accessTokenConverter,
+      final TokenStore tokenStore,
+      final TokenRevocationList revocationList) {
+    this.jwtCodec = jwtCodec;
+    this.accessTokenConverter = accessTokenConverter;
+    this.tokenStore = tokenStore;
+    this.revocationList = revocationList;
+  }
+
+  @PostMapping(REVOKE_PATH)
+  public ResponseEntity<Void> revoke(@RequestParam("token") final String token) {
+    if (JwtAuthorizationFilter.isCompactJws(token)) {
+      revokeSigned(token);
+    } else {
+      revokeOpaque(token);
+    }
+    return ResponseEntity.ok().build();
+  }
+
+  private void revokeSigned(final String token) {
+    try {
+      Claims claims = jwtCodec.parse(token);
+      if (claims.getExpiration() != null) {
+        revoke(claims.getId(), claims.getExpiration().getTime());
+      }
+      return;
+    } catch (JwtException | IllegalArgumentException e) {
+      // Not one of ours; try the key ring.
+    }
+    try {
+      Map<String, Object> claims = accessTokenConverter.readClaims(token);
+      Object tokenId = claims.get(AccessTokenConverter.JTI);
+      Object expiration = claims.get(AccessTokenConverter.EXP);
+      if (expiration instanceof Number) {
+        revoke(tokenId instanceof String ? (String) tokenId : null, ((Number) expiration).longValue() * 1000L);
+      }
+    } catch (InvalidTokenException e) {
+      log.debug("Ignoring revocation of an invalid token: {}", e.getMessage());
+    }
+  }
+
+  private void revokeOpaque(final String token) {
+    try {
+      OAuth2AccessToken accessToken = tokenStore.readAccessToken(token);
+      if (accessToken != null) {
+        tokenStore.removeAccessToken(accessToken);
+        return;
+      }
+      OAuth2RefreshToken refreshToken = tokenStore.readRefreshToken(token);
+      if (refreshToken != null) {
+        tokenStore.removeAccessTokenUsingRefreshToken(refreshToken);
+        tokenStore.removeRefreshToken(refreshToken);
+      }
+    } catch (InvalidTokenException e) {
+      // A signed token store cannot read an opaque value.
+      log.debug("Ignoring revocation of an invalid token: {}", e.getMessage());
+    }
+  }
+
+  private void revoke(final String tokenId, final long expiresAt) {
+    if (tokenId == null) {
+      log.warn("Cannot revoke a token issued without a jti; it stays valid until it expires");
+      return;
+    }
+    revocationList.revoke(tokenId, expiresAt);
+  }
+}
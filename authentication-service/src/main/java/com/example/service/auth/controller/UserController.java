@@ -1,21 +1,41 @@
 package com.example.service.auth.controller;
 
+import com.example.service.auth.config.AsyncRequestConfig;
+import com.example.service.auth.domain.Credential;
 import com.example.service.auth.domain.User;
 import com.example.service.auth.repository.UserRepository;
-import com.example.service.auth.validation.ValidationRegex;
-import org.apache.commons.validator.routines.RegexValidator;
+import com.example.service.auth.service.BatchPasswordVerificationService;
+import com.example.service.auth.service.BoundedPasswordEncoder;
+import com.example.service.auth.service.CachingUserDetailsService;
+import com.example.service.auth.validation.CredentialValidator;
+import com.example.service.auth.validation.ValidationError;
+import com.example.service.auth.validation.ValidationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @RestController
 public class UserController {
@@ -23,14 +43,31 @@ public class UserController {
   private static final String PASSWORD = "PASSWORD";
   private static final String USER_ID = "USER_ID";
   private static final Logger LOG = LoggerFactory.getLogger(UserController.class);
-  private static final String MISSING_PARAM_MSG = "%s must not be null.";
   private UserRepository userRepository;
+  private CachingUserDetailsService userDetailsService;
+  private PasswordEncoder passwordEncoder;
+  private CredentialValidator credentialValidator;
+  private BatchPasswordVerificationService batchPasswordVerificationService;
+  private ObjectMapper objectMapper;
+  private ExecutorService userRequestExecutor;
 
   @Autowired
   public UserController(
-      final UserRepository userRepository
+      final UserRepository userRepository,
+      final CachingUserDetailsService userDetailsService,
+      final PasswordEncoder passwordEncoder,
+      final CredentialValidator credentialValidator,
+      final BatchPasswordVerificationService batchPasswordVerificationService,
+      final ObjectMapper objectMapper,
+      @Qualifier(AsyncRequestConfig.EXECUTOR) final ExecutorService userRequestExecutor
   ) {
     this.userRepository = userRepository;
+    this.userDetailsService = userDetailsService;
+    this.passwordEncoder = passwordEncoder;
+    this.credentialValidator = credentialValidator;
+    this.batchPasswordVerificationService = batchPasswordVerificationService;
+    this.objectMapper = objectMapper;
+    this.userRequestExecutor = userRequestExecutor;
   }
 
   @PostConstruct
@@ -44,7 +81,7 @@ public class UserController {
       user = new User();
       user.setId(1L);
       user.setUsername("user");
-      user.setPassword(new BCryptPasswordEncoder().encode("password"));
+      user.setPassword(passwordEncoder.encode("password"));
       user.setActive(true);
       user.setRoles("USER");
       user.setFirstName("Steve");
@@ -56,54 +93,138 @@ public class UserController {
 
   @RequestMapping(value = "/users/updateUserPassword", method = RequestMethod.POST)
   public Optional<User> updateUserPassword(@RequestHeader(USER_ID) String username, @RequestHeader(PASSWORD) String password) {
-    try {
-      Assert.hasText(username, String.format(MISSING_PARAM_MSG, "username"));
-      Assert.isTrue(new RegexValidator(ValidationRegex.UUID_PATTERN).isValid(username),
-          "username is invalid: ".concat(username));
-      Assert.hasText(password, String.format(MISSING_PARAM_MSG, "password"));
-      Assert.isTrue(new RegexValidator(ValidationRegex.BCRYPT_PATTERN).isValid(password),
-          "password is invalid: ".concat(password));
-      Optional<User> user = userRepository.findByUsername(username);
-      if (user.isPresent()) {
-        user.get().setPassword(password);
-        return Optional.of(userRepository.save(user.get()));
-      } else {
-        LOG.debug("User not found");
-        return Optional.empty();
-      }
-    } catch (Exception e) {
-      LOG.error(e.getMessage(), e);
-      return Optional.empty();
-    }
+    credentialValidator.validateUpdate(USER_ID, username, PASSWORD, password);
+    return savePassword(username, password);
+  }
+
+  /**
+   * Same as {@link #updateUserPassword(String, String)}, but the lookup and save run on the async request executor
+   * instead of holding the Tomcat thread.
+   */
+  @RequestMapping(value = "/users/updateUserPasswordAsync", method = RequestMethod.POST)
+  public CompletableFuture<Optional<User>> updateUserPasswordAsync(@RequestHeader(USER_ID) String username,
+      @RequestHeader(PASSWORD) String password) {
+    credentialValidator.validateUpdate(USER_ID, username, PASSWORD, password);
+    return CompletableFuture.supplyAsync(() -> savePassword(username, password), userRequestExecutor);
   }
 
   @RequestMapping(value = "/users/verifyUserPassword", method = RequestMethod.GET)
   public Boolean verifyUsernameAndPassword(@RequestHeader(USER_ID) String username,
       @RequestHeader(PASSWORD) String password) {
-    try {
-      Assert.hasText(username, String.format(MISSING_PARAM_MSG, "username"));
-      Assert.isTrue(new RegexValidator(ValidationRegex.UUID_PATTERN).isValid(username),
-          "username is invalid: ".concat(username));
-      Assert.hasText(password, String.format(MISSING_PARAM_MSG, "password"));
-      Optional<User> user = userRepository.findByUsername(username);
-      if (user.isPresent()) {
-        LOG.debug("User found: ", user.get());
-        boolean matches = new BCryptPasswordEncoder().matches(password, user.get().getPassword());
-        if (matches) {
-          LOG.debug("Password matches");
-          return Boolean.TRUE;
-        } else {
-          LOG.debug("Password does not match");
-          return Boolean.FALSE;
+    credentialValidator.validateVerification(USER_ID, username, PASSWORD, password);
+    Optional<User> user = userRepository.findByUsername(username);
+    if (user.isPresent()) {
+      LOG.debug("User found: {}", username);
+      return logMatch(passwordEncoder.matches(password, user.get().getPassword()));
+    } else {
+      LOG.debug("User not found");
+      return Boolean.FALSE;
+    }
+  }
+
+  /**
+   * Same as {@link #verifyUsernameAndPassword(String, String)}, but no Tomcat thread is held: the lookup runs on the
+   * async request executor and the BCrypt check on the password hashing pool.
+   */
+  @RequestMapping(value = "/users/verifyUserPasswordAsync", method = RequestMethod.GET)
+  public CompletableFuture<Boolean> verifyUsernameAndPasswordAsync(@RequestHeader(USER_ID) String username,
+      @RequestHeader(PASSWORD) String password) {
+    credentialValidator.validateVerification(USER_ID, username, PASSWORD, password);
+    return CompletableFuture.supplyAsync(() -> userRepository.findByUsername(username), userRequestExecutor)
+        .thenCompose(user -> {
+          if (user.isPresent()) {
+            LOG.debug("User found: {}", username);
+            return BoundedPasswordEncoder.matchesAsync(passwordEncoder, password, user.get().getPassword())
+                .thenApply(UserController::logMatch);
+          }
+          LOG.debug("User not found");
+          return CompletableFuture.completedFuture(Boolean.FALSE);
+        });
+  }
+
+  /**
+   * Verify many credentials in one request. The body is a JSON array of
+   * <code>{"username":"...","password":"..."}</code> objects, read as a stream; the response is a JSON array of
+   * <code>{"username":"...","matches":true}</code> objects in the same order. The checks run off the Tomcat thread
+   * and all finish before the first byte is written, so a saturated hashing pool is still answered with a 503.
+   */
+  @RequestMapping(value = "/users/verifyUserPasswords", method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public StreamingResponseBody verifyUsernamesAndPasswords(HttpServletRequest request) throws IOException {
+    List<Credential> credentials = readCredentials(request);
+    return outputStream -> {
+      boolean[] matches = batchPasswordVerificationService.verify(credentials);
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        generator.writeStartArray();
+        for (int i = 0; i < matches.length; i++) {
+          generator.writeStartObject();
+          generator.writeStringField("username", credentials.get(i).getUsername());
+          generator.writeBooleanField("matches", matches[i]);
+          generator.writeEndObject();
+        }
+        generator.writeEndArray();
+      }
+    };
+  }
+
+  private List<Credential> readCredentials(HttpServletRequest request) throws IOException {
+    List<Credential> credentials = new ArrayList<>();
+    List<ValidationError> errors = new ArrayList<>();
+    try (JsonParser parser = objectMapper.getFactory().createParser(request.getInputStream())) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw invalidBody("must be a JSON array of credentials");
+      }
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        if (credentials.size() == batchPasswordVerificationService.getMaxBatchSize()) {
+          throw new ValidationException(Collections.singletonList(new ValidationError("body",
+              ValidationError.TOO_LARGE, "body must not hold more than "
+              + batchPasswordVerificationService.getMaxBatchSize() + " credentials")));
+        }
+        Credential credential = objectMapper.readValue(parser, Credential.class);
+        String prefix = "[" + credentials.size() + "].";
+        try {
+          credentialValidator.validateVerification(prefix + "username", credential.getUsername(),
+              prefix + "password", credential.getPassword());
+        } catch (ValidationException e) {
+          errors.addAll(e.getErrors());
         }
-      } else {
-        LOG.debug("User not found");
-        return Boolean.FALSE;
+        credentials.add(credential);
       }
-    } catch (Exception e) {
-      LOG.error(e.getMessage(), e);
+      if (parser.currentToken() != JsonToken.END_ARRAY) {
+        throw invalidBody("must only hold credential objects");
+      }
+    }
+    if (!errors.isEmpty()) {
+      throw new ValidationException(errors);
+    }
+    return credentials;
+  }
+
+  private Optional<User> savePassword(String username, String encodedPassword) {
+    Optional<User> user = userRepository.findByUsername(username);
+    if (user.isPresent()) {
+      user.get().setPassword(encodedPassword);
+      User saved = userRepository.save(user.get());
+      userDetailsService.invalidate(username);
+      return Optional.of(saved);
+    } else {
+      LOG.debug("User not found");
+      return Optional.empty();
+    }
+  }
+
+  private static Boolean logMatch(boolean matches) {
+    if (matches) {
+      LOG.debug("Password matches");
+      return Boolean.TRUE;
+    } else {
+      LOG.debug("Password does not match");
       return Boolean.FALSE;
     }
   }
 
+  private static ValidationException invalidBody(String message) {
+    return new ValidationException(Collections.singletonList(
+        new ValidationError("body", ValidationError.INVALID_FORMAT, "body " + message)));
+  }
 }
@@ -0,0 +1,53 @@
+package com.example.service.auth.controller;
+
+import com.example.service.auth.validation.ValidationError;
+import com.example.service.auth.validation.ValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns rejected request values into a 400 whose body lists every {@link ValidationError}:
+ * <code>{"error":"invalid_request","errors":[{"field":"USER_ID","code":"invalid_format","message":"..."}]}</code>.
+ */
+@RestControllerAdvice
+public class ValidationExceptionHandler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ValidationExceptionHandler.class);
+
+  @ExceptionHandler(ValidationException.class)
+  public ResponseEntity<Map<String, Object>> handleValidationException(ValidationException e) {
+    LOG.debug("Rejected request: {}", e.getErrors());
+    return badRequest(e.getErrors());
+  }
+
+  @ExceptionHandler(MissingRequestHeaderException.class)
+  public ResponseEntity<Map<String, Object>> handleMissingHeader(MissingRequestHeaderException e) {
+    return badRequest(Collections.singletonList(new ValidationError(e.getHeaderName(), ValidationError.MISSING,
+        e.getHeaderName() + " must not be empty")));
+  }
+
+  @ExceptionHandler(JsonProcessingException.class)
+  public ResponseEntity<Map<String, Object>> handleMalformedBody(JsonProcessingException e) {
+    LOG.debug("Rejected malformed body: {}", e.getOriginalMessage());
+    return badRequest(Collections.singletonList(new ValidationError("body", ValidationError.INVALID_FORMAT,
+        "body is not valid JSON: " + e.getOriginalMessage())));
+  }
+
+  private static ResponseEntity<Map<String, Object>> badRequest(List<ValidationError> errors) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("error", "invalid_request");
+    body.put("errors", errors);
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+  }
+}
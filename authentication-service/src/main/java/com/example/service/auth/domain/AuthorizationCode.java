@@ -0,0 +1,39 @@
+package com.example.service.auth.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+/**
+ * An issued authorization code and the serialized authentication it stands for, until it is exchanged for a
+ * token or expires.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(name = "authorization_code_expires_at", columnList = "expiresAt"))
+public class AuthorizationCode {
+
+  @Id
+  private String code;
+
+  @Lob
+  @Column(nullable = false)
+  @ToString.Exclude
+  private byte[] authentication;
+
+  /**
+   * Epoch milliseconds.
+   */
+  @Column(nullable = false)
+  private long expiresAt;
+}
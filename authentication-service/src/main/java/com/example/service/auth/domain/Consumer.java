@@ -1,25 +1,31 @@
 package com.example.service.auth.domain;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.provider.ClientDetails;
 
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * This is a simplified ClientDetails implementation. There is one record for each micro-service needing to use
  * oauth2 credentials to access another service. For example, a RabbitMQ consumer does not have end-user credentials
  * when it runs, so if it needs to call the report-service it uses its client id and client secret to authenticate.
- * To simplify the model, there are several comma delimited properties that get split as needed.
+ * To simplify the model, there are several comma delimited properties. They are split once when the entity loads
+ * (or on first use) into immutable sets, and parsed again only after one of their setters is called.
  */
 @Entity
 @Data
@@ -64,41 +70,77 @@ public class Consumer implements ClientDetails, Serializable {
   @LastModifiedBy
   private String modifiedBy;
 
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private transient volatile ParsedColumns parsed;
+
+  public void setResourceIdsCsv(String resourceIdsCsv) {
+    this.resourceIdsCsv = resourceIdsCsv;
+    this.parsed = null;
+  }
+
+  public void setScopeCsv(String scopeCsv) {
+    this.scopeCsv = scopeCsv;
+    this.parsed = null;
+  }
+
+  public void setAuthorizedGrantTypesCsv(String authorizedGrantTypesCsv) {
+    this.authorizedGrantTypesCsv = authorizedGrantTypesCsv;
+    this.parsed = null;
+  }
+
+  public void setRegisteredRedirectUrisCsv(String registeredRedirectUrisCsv) {
+    this.registeredRedirectUrisCsv = registeredRedirectUrisCsv;
+    this.parsed = null;
+  }
+
+  public void setAuthorityCsv(String authorityCsv) {
+    this.authorityCsv = authorityCsv;
+    this.parsed = null;
+  }
+
+  public void setAutoApproveCsv(String autoApproveCsv) {
+    this.autoApproveCsv = autoApproveCsv;
+    this.parsed = null;
+  }
+
+  @PostLoad
+  void parseCsvColumns() {
+    this.parsed = new ParsedColumns(this);
+  }
+
+  private ParsedColumns parsed() {
+    ParsedColumns current = parsed;
+    if (current == null) {
+      current = new ParsedColumns(this);
+      parsed = current;
+    }
+    return current;
+  }
+
   @Override
   @Transient
   public Set<String> getAuthorizedGrantTypes() {
-    if (authorizedGrantTypesCsv != null) {
-      return new HashSet<>(Arrays.asList(authorizedGrantTypesCsv.split(",")));
-    }
-    return Collections.emptySet();
+    return parsed().authorizedGrantTypes;
   }
 
   @Override
   @Transient
   public Set<String> getResourceIds() {
-    if (resourceIdsCsv != null) {
-      return new HashSet<>(Arrays.asList(resourceIdsCsv.split(",")));
-    }
-    return Collections.emptySet();
+    return parsed().resourceIds;
   }
 
   @Override
   @Transient
   public Set<String> getScope() {
-    if (scopeCsv != null) {
-      return new HashSet<>(Arrays.asList(scopeCsv.split(",")));
-    }
-    return Collections.emptySet();
+    return parsed().scope;
   }
 
   @Override
   @Transient
   public Set<String> getRegisteredRedirectUri() {
-    if (registeredRedirectUrisCsv != null) {
-      return new HashSet<>(Arrays.asList(registeredRedirectUrisCsv.split(",")));
-    }
-    return Collections.emptySet();
-//    return Collections.emptySet();
+    return parsed().registeredRedirectUri;
   }
 
   @Override
@@ -110,23 +152,40 @@ public class Consumer implements ClientDetails, Serializable {
   @Override
   @Transient
   public boolean isScoped() {
-    return this.scopeCsv != null && !Arrays.asList(scopeCsv.split(",")).isEmpty();
+    return parsed().scoped;
   }
 
   @Override
   @Transient
   public boolean isAutoApprove(String scope) {
-    if (autoApproveCsv == null) {
-      return false;
+    ParsedColumns columns = parsed();
+    if (columns.autoApproveAll) {
+      return true;
     }
-    for (String auto : autoApproveCsv.split(",")) {
-      if ("true".equals(auto) || scope.matches(auto)) {
+    for (Pattern auto : columns.autoApprovePatterns) {
+      if (auto.matcher(scope).matches()) {
         return true;
       }
     }
     return false;
   }
 
+  /**
+   * @return true if <code>autoApproveCsv</code> contains <code>true</code>, approving every scope.
+   */
+  @Transient
+  boolean isAutoApproveAll() {
+    return parsed().autoApproveAll;
+  }
+
+  /**
+   * @return the compiled <code>autoApproveCsv</code> entries other than <code>true</code>.
+   */
+  @Transient
+  List<Pattern> getAutoApprovePatterns() {
+    return parsed().autoApprovePatterns;
+  }
+
   @Override
   @Transient
   public Map<String, Object> getAdditionalInformation() {
@@ -136,13 +195,62 @@ public class Consumer implements ClientDetails, Serializable {
   @Override
   @Transient
   public Collection<GrantedAuthority> getAuthorities() {
-    if (authorityCsv != null) {
-      Set<GrantedAuthority> grantedAuthorityList = new HashSet<>();
-      for (String authority : authorityCsv.split(",")) {
-        grantedAuthorityList.add(new SimpleGrantedAuthority(authority));
+    return parsed().authorities;
+  }
+
+  /**
+   * The CSV columns of one Consumer, split and compiled. Instances are immutable and replaced as a whole.
+   */
+  private static final class ParsedColumns {
+    private final Set<String> authorizedGrantTypes;
+    private final Set<String> resourceIds;
+    private final Set<String> scope;
+    private final boolean scoped;
+    private final Set<String> registeredRedirectUri;
+    private final Collection<GrantedAuthority> authorities;
+    private final boolean autoApproveAll;
+    private final List<Pattern> autoApprovePatterns;
+
+    private ParsedColumns(Consumer consumer) {
+      this.authorizedGrantTypes = toSet(consumer.authorizedGrantTypesCsv);
+      this.resourceIds = toSet(consumer.resourceIdsCsv);
+      this.scope = toSet(consumer.scopeCsv);
+      this.scoped = consumer.scopeCsv != null && consumer.scopeCsv.split(",").length > 0;
+      this.registeredRedirectUri = toSet(consumer.registeredRedirectUrisCsv);
+
+      this.authorities = GrantedAuthorities.fromCsv(consumer.authorityCsv);
+
+      boolean approveAll = false;
+      List<Pattern> patterns = new ArrayList<>();
+      if (consumer.autoApproveCsv != null) {
+        for (String auto : consumer.autoApproveCsv.split(",")) {
+          if ("true".equals(auto)) {
+            approveAll = true;
+          } else {
+            patterns.add(compile(auto));
+          }
+        }
+      }
+      this.autoApproveAll = approveAll;
+      this.autoApprovePatterns = Collections.unmodifiableList(patterns);
+    }
+
+    private static Set<String> toSet(String csv) {
+      if (csv != null) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(csv.split(","))));
+      }
+      return Collections.emptySet();
+    }
+
+    /**
+     * Auto-approve entries are regular expressions; an entry that does not compile only matches itself.
+     */
+    private static Pattern compile(String auto) {
+      try {
+        return Pattern.compile(auto);
+      } catch (PatternSyntaxException e) {
+        return Pattern.compile(auto, Pattern.LITERAL);
       }
-      return grantedAuthorityList;
     }
-    return Collections.emptySet();
   }
 }
@@ -0,0 +1,20 @@
+package com.example.service.auth.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A username and raw password pair, as sent to the batch password verification endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Credential {
+
+  private String username;
+
+  @ToString.Exclude
+  private String password;
+}
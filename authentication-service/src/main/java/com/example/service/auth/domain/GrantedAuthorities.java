@@ -0,0 +1,52 @@
+package com.example.service.auth.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared {@link GrantedAuthority} instances for the comma delimited role columns. Role names are few and repeat
+ * across every user and client, so each name maps to a single interned instance. The pool is capped so that a
+ * column full of unexpected values cannot grow it without bound; past the cap, new names are simply not interned.
+ */
+public final class GrantedAuthorities {
+
+  private static final int MAX_INTERNED = 1024;
+
+  private static final ConcurrentMap<String, GrantedAuthority> INTERNED = new ConcurrentHashMap<>();
+
+  private GrantedAuthorities() {
+  }
+
+  public static GrantedAuthority intern(String role) {
+    GrantedAuthority authority = INTERNED.get(role);
+    if (authority != null) {
+      return authority;
+    }
+    if (INTERNED.size() >= MAX_INTERNED) {
+      return new SimpleGrantedAuthority(role);
+    }
+    return INTERNED.computeIfAbsent(role, SimpleGrantedAuthority::new);
+  }
+
+  /**
+   * @return an unmodifiable set of the interned authorities named in the CSV, or an empty set for null or empty
+   * input.
+   */
+  public static Collection<GrantedAuthority> fromCsv(String csv) {
+    if (csv == null || csv.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<GrantedAuthority> authorities = new HashSet<>();
+    for (String role : csv.split(",")) {
+      authorities.add(intern(role));
+    }
+    return Collections.unmodifiableSet(authorities);
+  }
+}
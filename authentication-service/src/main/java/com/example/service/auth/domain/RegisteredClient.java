@@ -0,0 +1,187 @@
+package com.example.service.auth.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.provider.ClientDetails;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable snapshot of a {@link ClientDetails}. Every collection is copied once when the snapshot is taken, and
+ * the auto-approve decision is precomputed for each of the client's scopes, so the OAuth2 endpoints can call the
+ * getters as often as they like without allocating. Scopes outside that set, which unscoped clients may request,
+ * fall back to a {@link Consumer}'s <code>true</code> entry and compiled auto-approve patterns.
+ */
+public final class RegisteredClient implements ClientDetails {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String clientId;
+  private final Set<String> resourceIds;
+  private final boolean secretRequired;
+  private final String clientSecret;
+  private final boolean scoped;
+  private final Set<String> scope;
+  private final Set<String> authorizedGrantTypes;
+  private final Set<String> registeredRedirectUri;
+  private final Collection<GrantedAuthority> authorities;
+  private final Integer accessTokenValiditySeconds;
+  private final Integer refreshTokenValiditySeconds;
+  private final Set<String> autoApprovedScopes;
+  private final boolean autoApproveAll;
+  private final List<Pattern> autoApprovePatterns;
+  private final Map<String, Object> additionalInformation;
+
+  private RegisteredClient(final String clientId, final ClientDetails source) {
+    this.clientId = clientId;
+    this.resourceIds = copyOf(source.getResourceIds());
+    this.secretRequired = source.isSecretRequired();
+    this.clientSecret = source.getClientSecret();
+    this.scoped = source.isScoped();
+    this.scope = copyOf(source.getScope());
+    this.authorizedGrantTypes = copyOf(source.getAuthorizedGrantTypes());
+    this.registeredRedirectUri = copyOf(source.getRegisteredRedirectUri());
+    this.authorities = source.getAuthorities() == null ? Collections.emptyList()
+        : Collections.unmodifiableList(new ArrayList<>(source.getAuthorities()));
+    this.accessTokenValiditySeconds = source.getAccessTokenValiditySeconds();
+    this.refreshTokenValiditySeconds = source.getRefreshTokenValiditySeconds();
+    Set<String> approved = new LinkedHashSet<>();
+    for (String candidate : this.scope) {
+      if (source.isAutoApprove(candidate)) {
+        approved.add(candidate);
+      }
+    }
+    this.autoApprovedScopes = Collections.unmodifiableSet(approved);
+    if (source instanceof Consumer) {
+      this.autoApproveAll = ((Consumer) source).isAutoApproveAll();
+      this.autoApprovePatterns = ((Consumer) source).getAutoApprovePatterns();
+    } else {
+      this.autoApproveAll = false;
+      this.autoApprovePatterns = Collections.emptyList();
+    }
+    this.additionalInformation = source.getAdditionalInformation() == null ? Collections.emptyMap()
+        : Collections.unmodifiableMap(new LinkedHashMap<>(source.getAdditionalInformation()));
+  }
+
+  private RegisteredClient(final String clientId, final RegisteredClient template) {
+    this.clientId = clientId;
+    this.resourceIds = template.resourceIds;
+    this.secretRequired = template.secretRequired;
+    this.clientSecret = template.clientSecret;
+    this.scoped = template.scoped;
+    this.scope = template.scope;
+    this.authorizedGrantTypes = template.authorizedGrantTypes;
+    this.registeredRedirectUri = template.registeredRedirectUri;
+    this.authorities = template.authorities;
+    this.accessTokenValiditySeconds = template.accessTokenValiditySeconds;
+    this.refreshTokenValiditySeconds = template.refreshTokenValiditySeconds;
+    this.autoApprovedScopes = template.autoApprovedScopes;
+    this.autoApproveAll = template.autoApproveAll;
+    this.autoApprovePatterns = template.autoApprovePatterns;
+    this.additionalInformation = template.additionalInformation;
+  }
+
+  public static RegisteredClient of(final ClientDetails source) {
+    return new RegisteredClient(source.getClientId(), source);
+  }
+
+  /**
+   * @return a copy of this client registered under another client id. The copy shares every precomputed value.
+   */
+  public RegisteredClient withClientId(final String clientId) {
+    return new RegisteredClient(clientId, this);
+  }
+
+  @Override
+  public String getClientId() {
+    return clientId;
+  }
+
+  @Override
+  public Set<String> getResourceIds() {
+    return resourceIds;
+  }
+
+  @Override
+  public boolean isSecretRequired() {
+    return secretRequired;
+  }
+
+  @Override
+  public String getClientSecret() {
+    return clientSecret;
+  }
+
+  @Override
+  public boolean isScoped() {
+    return scoped;
+  }
+
+  @Override
+  public Set<String> getScope() {
+    return scope;
+  }
+
+  @Override
+  public Set<String> getAuthorizedGrantTypes() {
+    return authorizedGrantTypes;
+  }
+
+  @Override
+  public Set<String> getRegisteredRedirectUri() {
+    return registeredRedirectUri;
+  }
+
+  @Override
+  public Collection<GrantedAuthority> getAuthorities() {
+    return authorities;
+  }
+
+  @Override
+  public Integer getAccessTokenValiditySeconds() {
+    return accessTokenValiditySeconds;
+  }
+
+  @Override
+  public Integer getRefreshTokenValiditySeconds() {
+    return refreshTokenValiditySeconds;
+  }
+
+  @Override
+  public boolean isAutoApprove(final String scope) {
+    if (autoApproveAll || autoApprovedScopes.contains(scope)) {
+      return true;
+    }
+    for (Pattern auto : autoApprovePatterns) {
+      if (auto.matcher(scope).matches()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Map<String, Object> getAdditionalInformation() {
+    return additionalInformation;
+  }
+
+  @Override
+  public String toString() {
+    return "RegisteredClient{clientId='" + clientId + "', scope=" + scope
+        + ", authorizedGrantTypes=" + authorizedGrantTypes + '}';
+  }
+
+  private static Set<String> copyOf(final Set<String> source) {
+    if (source == null || source.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(new LinkedHashSet<>(source));
+  }
+}
@@ -1,13 +1,16 @@
 package com.example.service.auth.domain;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import javax.persistence.*;
@@ -57,6 +60,21 @@ public class User implements Serializable, UserDetails {
   @Column
   private String roles;
 
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private transient volatile Collection<GrantedAuthority> grantedAuthorities;
+
+  public void setRoles(String roles) {
+    this.roles = roles;
+    this.grantedAuthorities = null;
+  }
+
+  @PostLoad
+  void parseRoles() {
+    this.grantedAuthorities = GrantedAuthorities.fromCsv(roles);
+  }
+
   @Override
   @Transient
   public boolean isAccountNonExpired() {
@@ -81,16 +99,18 @@ public class User implements Serializable, UserDetails {
     return active;
   }
 
+  /**
+   * Roles are parsed once per entity load into interned authorities; the same collection is returned until
+   * {@link #setRoles(String)} is called.
+   */
   @Override
   @Transient
   public Collection<GrantedAuthority> getAuthorities() {
-    if (null != roles && !roles.isEmpty()) {
-      Set<GrantedAuthority> grantedAuthorityList = new HashSet<>();
-      for (String role : roles.split(",")) {
-        grantedAuthorityList.add(new SimpleGrantedAuthority(role));
-      }
-      return grantedAuthorityList;
+    Collection<GrantedAuthority> authorities = grantedAuthorities;
+    if (authorities == null) {
+      authorities = GrantedAuthorities.fromCsv(roles);
+      grantedAuthorities = authorities;
     }
-    return Collections.emptyList();
+    return authorities;
   }
 }
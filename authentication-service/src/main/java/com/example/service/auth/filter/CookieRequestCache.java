@@ -0,0 +1,115 @@
+package com.example.service.auth.filter;
+
+import org.springframework.security.web.savedrequest.RequestCache;
+import org.springframework.security.web.savedrequest.SavedRequest;
+import org.springframework.security.web.util.UrlUtils;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Remembers the request that was interrupted by the login form, typically <code>/oauth/authorize</code>, in a
+ * {@link SealedCookies} cookie instead of the HttpSession. Only GET requests are saved, and only their URL: after
+ * the login the browser is sent back to it and the original request is simply repeated.
+ */
+public class CookieRequestCache implements RequestCache {
+
+  public static final String COOKIE_NAME = "AUTH_REQUEST";
+
+  private final SealedCookies cookies;
+
+  public CookieRequestCache(final SealedCookies cookies) {
+    this.cookies = cookies;
+  }
+
+  @Override
+  public void saveRequest(final HttpServletRequest request, final HttpServletResponse response) {
+    if ("GET".equals(request.getMethod())) {
+      cookies.write(request, response, COOKIE_NAME, UrlUtils.buildFullRequestUrl(request));
+    }
+  }
+
+  @Override
+  public SavedRequest getRequest(final HttpServletRequest request, final HttpServletResponse response) {
+    String redirectUrl = cookies.read(request, COOKIE_NAME);
+    return StringUtils.hasText(redirectUrl) ? new RedirectOnlySavedRequest(redirectUrl) : null;
+  }
+
+  /**
+   * The saved request is forgotten once the browser has been sent back to it; the request itself needs no
+   * restoring because it is a repeat of the original GET.
+   */
+  @Override
+  public HttpServletRequest getMatchingRequest(final HttpServletRequest request, final HttpServletResponse response) {
+    String redirectUrl = cookies.read(request, COOKIE_NAME);
+    if (redirectUrl != null && redirectUrl.equals(UrlUtils.buildFullRequestUrl(request))) {
+      removeRequest(request, response);
+    }
+    return null;
+  }
+
+  @Override
+  public void removeRequest(final HttpServletRequest request, final HttpServletResponse response) {
+    if (cookies.isPresent(request, COOKIE_NAME)) {
+      cookies.clear(request, response, COOKIE_NAME);
+    }
+  }
+
+  private static final class RedirectOnlySavedRequest implements SavedRequest {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String redirectUrl;
+
+    RedirectOnlySavedRequest(final String redirectUrl) {
+      this.redirectUrl = redirectUrl;
+    }
+
+    @Override
+    public String getRedirectUrl() {
+      return redirectUrl;
+    }
+
+    @Override
+    public List<Cookie> getCookies() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String getMethod() {
+      return "GET";
+    }
+
+    @Override
+    public List<String> getHeaderValues(final String name) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public List<Locale> getLocales() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String[] getParameterValues(final String name) {
+      return new String[0];
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+      return Collections.emptyMap();
+    }
+  }
+}
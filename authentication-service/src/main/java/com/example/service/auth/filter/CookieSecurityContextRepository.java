@@ -0,0 +1,103 @@
+package com.example.service.auth.filter;
+
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SaveContextOnUpdateOrErrorResponseWrapper;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Keeps the logged-in user between the login form and the authorize request in a {@link SealedCookies} cookie
+ * instead of the HttpSession. Only the username is stored; the user is reloaded on each request, so a user who is
+ * disabled or removed meanwhile is logged out.
+ * <p>
+ * Like <code>HttpSessionSecurityContextRepository</code>, the response is wrapped so the cookie is written before
+ * a redirect or error commits the response.
+ */
+public class CookieSecurityContextRepository implements SecurityContextRepository {
+
+  public static final String COOKIE_NAME = "AUTH_CONTEXT";
+
+  private final SealedCookies cookies;
+  private final UserDetailsService userDetailsService;
+  private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+  public CookieSecurityContextRepository(final SealedCookies cookies, final UserDetailsService userDetailsService) {
+    this.cookies = cookies;
+    this.userDetailsService = userDetailsService;
+  }
+
+  @Override
+  public SecurityContext loadContext(final HttpRequestResponseHolder holder) {
+    HttpServletRequest request = holder.getRequest();
+    String username = cookies.read(request, COOKIE_NAME);
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    if (username != null) {
+      try {
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        if (user.isEnabled() && user.isAccountNonLocked()) {
+          context.setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        }
+      } catch (UsernameNotFoundException e) {
+        // Removed since the cookie was issued.
+      }
+    }
+    holder.setResponse(new SaveToCookieResponseWrapper(holder.getResponse(), request,
+        context.getAuthentication() == null ? null : username));
+    return context;
+  }
+
+  @Override
+  public void saveContext(final SecurityContext context, final HttpServletRequest request,
+      final HttpServletResponse response) {
+    SaveToCookieResponseWrapper wrapper = WebUtils.getNativeResponse(response, SaveToCookieResponseWrapper.class);
+    if (wrapper == null) {
+      throw new IllegalStateException("Cannot save the security context: the response was not wrapped by "
+          + "loadContext, so the filter chain is misconfigured");
+    }
+    if (!wrapper.isContextSaved()) {
+      wrapper.saveContext(context);
+    }
+  }
+
+  @Override
+  public boolean containsContext(final HttpServletRequest request) {
+    return cookies.read(request, COOKIE_NAME) != null;
+  }
+
+  private final class SaveToCookieResponseWrapper extends SaveContextOnUpdateOrErrorResponseWrapper {
+
+    private final HttpServletRequest request;
+    private final String loadedUsername;
+
+    SaveToCookieResponseWrapper(final HttpServletResponse response, final HttpServletRequest request,
+        final String loadedUsername) {
+      super(response, true);
+      this.request = request;
+      this.loadedUsername = loadedUsername;
+    }
+
+    @Override
+    protected void saveContext(final SecurityContext context) {
+      Authentication authentication = context.getAuthentication();
+      if (authentication == null || trustResolver.isAnonymous(authentication)) {
+        if (cookies.isPresent(request, COOKIE_NAME)) {
+          cookies.clear(request, this, COOKIE_NAME);
+        }
+      } else if (!authentication.getName().equals(loadedUsername)) {
+        cookies.write(request, this, COOKIE_NAME, authentication.getName());
+      }
+    }
+  }
+}
@@ -1,9 +1,8 @@
 package com.example.service.auth.filter;
 
 import com.example.service.auth.constants.SecurityConstants;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import lombok.var;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,62 +10,92 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * Exchanges a username and password posted to <code>/api/authenticate</code> for a signed token. Each attempt is
+ * timed as <code>auth.authenticate</code>, tagged with its outcome, from the start of authentication until the
+ * token is issued or the failure handled.
+ */
 @Slf4j
 public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
-  private final AuthenticationManager authenticationManager;
-  private final String privateKey;
+  private static final String STARTED_AT = JwtAuthenticationFilter.class.getName() + ".STARTED_AT";
 
-  public JwtAuthenticationFilter(final String privateKey, AuthenticationManager authenticationManager) {
-    this.authenticationManager = authenticationManager;
-    this.privateKey = privateKey;
+  private final JwtCodec jwtCodec;
+  private final Timer successTimer;
+  private final Timer failureTimer;
+
+  public JwtAuthenticationFilter(final JwtCodec jwtCodec, AuthenticationManager authenticationManager,
+      final MeterRegistry meterRegistry) {
+    this.jwtCodec = jwtCodec;
+    this.successTimer = timer(meterRegistry, "success");
+    this.failureTimer = timer(meterRegistry, "failure");
+    setAuthenticationManager(authenticationManager);
     setFilterProcessesUrl("/api/authenticate");
   }
 
   @Override
   public Authentication attemptAuthentication(HttpServletRequest request,
       HttpServletResponse response) throws AuthenticationException {
+    request.setAttribute(STARTED_AT, System.nanoTime());
     var username = request.getParameter("username");
     log.debug("attemptAuthentication() <--- " + username);
     var password = request.getParameter("password");
     var authenticationToken = new UsernamePasswordAuthenticationToken(username, password);
 
-    return authenticationManager.authenticate(authenticationToken);
+    return getAuthenticationManager().authenticate(authenticationToken);
   }
 
   @Override
   protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response,
       FilterChain filterChain, Authentication authentication) {
     log.debug("successfulAuthentication <--- " + authentication.getPrincipal());
-    var user = ((User) authentication.getPrincipal());
+    var user = ((UserDetails) authentication.getPrincipal());
 
     var roles = user.getAuthorities()
         .stream()
         .map(GrantedAuthority::getAuthority)
         .collect(Collectors.toList());
 
-    var signingKey = privateKey.getBytes();
-
-    var token = Jwts.builder()
-        .signWith(Keys.hmacShaKeyFor(signingKey), SignatureAlgorithm.NONE)
-        .setHeaderParam("typ", SecurityConstants.TOKEN_TYPE)
-        .setIssuer(SecurityConstants.TOKEN_ISSUER)
-        .setAudience(SecurityConstants.TOKEN_AUDIENCE)
-        .setSubject(user.getUsername())
-        .setExpiration(new Date(System.currentTimeMillis() + 864000000))
-        .claim("roles", roles)
-        .compact();
+    var token = jwtCodec.encode(user.getUsername(), roles, new Date(System.currentTimeMillis() + 864000000));
     log.debug("successfulAuthentication ---> " + token);
 
     response.addHeader(SecurityConstants.TOKEN_HEADER, SecurityConstants.TOKEN_PREFIX + token);
+    record(request, successTimer);
+  }
+
+  @Override
+  protected void unsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response,
+      AuthenticationException failed) throws IOException, ServletException {
+    try {
+      super.unsuccessfulAuthentication(request, response, failed);
+    } finally {
+      record(request, failureTimer);
+    }
+  }
+
+  private static void record(final HttpServletRequest request, final Timer timer) {
+    Object startedAt = request.getAttribute(STARTED_AT);
+    if (startedAt instanceof Long) {
+      timer.record(System.nanoTime() - (Long) startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static Timer timer(final MeterRegistry meterRegistry, final String outcome) {
+    return Timer.builder("auth.authenticate")
+        .description("Username and password exchanges for a token on /api/authenticate")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
   }
 }
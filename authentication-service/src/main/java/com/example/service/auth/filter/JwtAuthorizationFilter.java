@@ -1,17 +1,19 @@
 package com.example.service.auth.filter;
 
 import com.example.service.auth.constants.SecurityConstants;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.service.auth.service.TokenRevocationList;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import lombok.var;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
@@ -21,75 +23,156 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Authenticates requests carrying a bearer token from {@link JwtAuthenticationFilter}. Each verification is timed
+ * as <code>auth.jwt.verification</code>, tagged with its status and whether it was answered from the
+ * {@link VerifiedTokenCache}; the timers are created up front so the hot path never looks them up.
+ */
 @Slf4j
 public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
 
-  private final String privateKey;
+  private final JwtCodec jwtCodec;
+  private final VerifiedTokenCache verifiedTokenCache;
+  private final TokenRevocationList revocationList;
+  private final Map<JwtVerificationResult.Status, Timer> cachedTimers;
+  private final Map<JwtVerificationResult.Status, Timer> parsedTimers;
 
-  public JwtAuthorizationFilter(final String privateKey, AuthenticationManager authenticationManager) {
+  public JwtAuthorizationFilter(final JwtCodec jwtCodec, final VerifiedTokenCache verifiedTokenCache,
+      final TokenRevocationList revocationList, AuthenticationManager authenticationManager,
+      final MeterRegistry meterRegistry) {
     super(authenticationManager);
-    this.privateKey = privateKey;
+    this.jwtCodec = jwtCodec;
+    this.verifiedTokenCache = verifiedTokenCache;
+    this.revocationList = revocationList;
+    this.cachedTimers = timers(meterRegistry, true);
+    this.parsedTimers = timers(meterRegistry, false);
   }
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
       FilterChain filterChain) throws IOException, ServletException {
-    log.debug("doFilterInternal()");
-    var authentication = getAuthentication(request);
     var header = request.getHeader(SecurityConstants.TOKEN_HEADER);
 
-    if (StringUtils.isEmpty(header) || !header.startsWith(SecurityConstants.TOKEN_PREFIX)) {
+    // Anonymous and Basic requests never reach the JWT parser.
+    if (header == null || !header.startsWith(SecurityConstants.TOKEN_PREFIX)) {
       filterChain.doFilter(request, response);
       return;
     }
 
-    SecurityContextHolder.getContext().setAuthentication(authentication);
+    var result = verify(header.substring(SecurityConstants.TOKEN_PREFIX.length()));
+    if (result.isValid()) {
+      SecurityContextHolder.getContext().setAuthentication(result.getAuthentication());
+    } else {
+      log.debug("Ignoring bearer token: {}", result.getStatus());
+    }
     filterChain.doFilter(request, response);
   }
 
-  private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest request) {
-    log.debug("UsernamePasswordAuthenticationToken()");
-    var token = request.getHeader(SecurityConstants.TOKEN_HEADER);
-    if (StringUtils.isNotEmpty(token)) {
-      try {
-        var signingKey = privateKey.getBytes();
+  /**
+   * Verify a compact JWS. Structurally invalid tokens are rejected before any parsing, and tokens that were
+   * verified before are answered from the {@link VerifiedTokenCache}. Cached or not, the token's
+   * <code>jti</code> is checked against the {@link TokenRevocationList} on every request.
+   */
+  public JwtVerificationResult verify(final String token) {
+    long startedAt = System.nanoTime();
+    if (!isCompactJws(token)) {
+      return timed(parsedTimers, JwtVerificationResult.malformed(), startedAt);
+    }
+    var cached = verifiedTokenCache.get(token);
+    if (cached != null) {
+      return timed(cachedTimers, revocationList.isRevoked(cached.getTokenId())
+          ? JwtVerificationResult.revoked()
+          : JwtVerificationResult.valid(cached.getAuthentication()), startedAt);
+    }
+    return timed(parsedTimers, parse(token), startedAt);
+  }
+
+  private JwtVerificationResult parse(final String token) {
+    Claims claims;
+    try {
+      claims = jwtCodec.parse(token);
+    } catch (ExpiredJwtException exception) {
+      return JwtVerificationResult.expired();
+    } catch (SignatureException exception) {
+      return JwtVerificationResult.badSignature();
+    } catch (JwtException | IllegalArgumentException exception) {
+      return JwtVerificationResult.malformed();
+    }
+
+    var username = claims.getSubject();
+    if (StringUtils.isEmpty(username)) {
+      return JwtVerificationResult.malformed();
+    }
+    if (revocationList.isRevoked(claims.getId())) {
+      return JwtVerificationResult.revoked();
+    }
+    var authentication = new UsernamePasswordAuthenticationToken(username, null, toAuthorities(claims.get("roles")));
+    verifiedTokenCache.put(token, claims.getId(), authentication, claims.getExpiration());
+    return JwtVerificationResult.valid(authentication);
+  }
 
-        var parsedToken = Jwts.parser()
-            .setSigningKey(signingKey)
-            .parseClaimsJws(token.replace("Bearer ", ""));
+  private static JwtVerificationResult timed(final Map<JwtVerificationResult.Status, Timer> timers,
+      final JwtVerificationResult result, final long startedAt) {
+    timers.get(result.getStatus()).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    return result;
+  }
 
-        var username = parsedToken
-            .getBody()
-            .getSubject();
+  private static Map<JwtVerificationResult.Status, Timer> timers(final MeterRegistry meterRegistry,
+      final boolean cached) {
+    Map<JwtVerificationResult.Status, Timer> timers = new EnumMap<>(JwtVerificationResult.Status.class);
+    for (JwtVerificationResult.Status status : JwtVerificationResult.Status.values()) {
+      timers.put(status, Timer.builder("auth.jwt.verification")
+          .description("Bearer token verifications")
+          .tag("status", status.name().toLowerCase())
+          .tag("cached", String.valueOf(cached))
+          .register(meterRegistry));
+    }
+    return timers;
+  }
 
-        var authorities = ((List<?>) parsedToken.getBody()
-            .get("roles")).stream()
-            .map(authority -> new SimpleGrantedAuthority((String) authority))
-            .collect(Collectors.toList());
+  private static List<GrantedAuthority> toAuthorities(final Object roles) {
+    if (!(roles instanceof List)) {
+      return Collections.emptyList();
+    }
+    List<?> names = (List<?>) roles;
+    List<GrantedAuthority> authorities = new ArrayList<>(names.size());
+    for (Object name : names) {
+      authorities.add(new SimpleGrantedAuthority(String.valueOf(name)));
+    }
+    return authorities;
+  }
 
-        if (StringUtils.isNotEmpty(username)) {
-          UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(username, null, authorities);
-          log.debug("UsernamePasswordAuthenticationToken() ----> " + new ObjectMapper().writeValueAsString(usernamePasswordAuthenticationToken));
-          return usernamePasswordAuthenticationToken;
+  /**
+   * @return true if the token has the header.payload.signature shape of a compact JWS, using only base64url
+   * characters.
+   */
+  public static boolean isCompactJws(final String token) {
+    int length = token.length();
+    if (length == 0) {
+      return false;
+    }
+    int separators = 0;
+    int segmentLength = 0;
+    for (int i = 0; i < length; i++) {
+      char c = token.charAt(i);
+      if (c == '.') {
+        if (segmentLength == 0 || ++separators > 2) {
+          return false;
         }
-      } catch (ExpiredJwtException exception) {
-        log.warn("Request to parse expired JWT : {} failed : {}", token, exception.getMessage());
-      } catch (UnsupportedJwtException exception) {
-        log.warn("Request to parse unsupported JWT : {} failed : {}", token, exception.getMessage());
-      } catch (MalformedJwtException exception) {
-        log.warn("Request to parse invalid JWT : {} failed : {}", token, exception.getMessage());
-      } catch (SignatureException exception) {
-        log.warn("Request to parse JWT with invalid signature : {} failed : {}", token, exception.getMessage());
-      } catch (IllegalArgumentException exception) {
-        log.warn("Request to parse empty or null JWT : {} failed : {}", token, exception.getMessage());
-      }catch (Exception exception) {
-        log.error(exception.getMessage(), exception);
+        segmentLength = 0;
+      } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+        segmentLength++;
+      } else {
+        return false;
       }
     }
-
-    return null;
+    return separators == 2 && segmentLength > 0;
   }
 }
@@ -0,0 +1,127 @@
+package com.example.service.auth.filter;
+
+import com.example.service.auth.constants.SecurityConstants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shared, thread-safe reader and writer for the HMAC-signed tokens issued by {@link JwtAuthenticationFilter} and
+ * accepted by {@link JwtAuthorizationFilter}. The signing key and the parser are derived once from
+ * <code>keyPair.private-key</code> when the component is created and are never reconfigured afterwards.
+ */
+@Component
+public class JwtCodec {
+
+  private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+  private static final JsonFactory JSON = new JsonFactory();
+
+  private final Key signingKey;
+  private final SignatureAlgorithm algorithm;
+  private final JwtParser parser;
+  private final String encodedHeader;
+  private final ThreadLocal<Mac> macs;
+  private final ThreadLocal<ByteArrayOutputStream> buffers = ThreadLocal.withInitial(() -> new ByteArrayOutputStream(256));
+
+  @Autowired
+  public JwtCodec(@Value("${keyPair.private-key}") final String privateKey) {
+    this.signingKey = Keys.hmacShaKeyFor(privateKey.getBytes(StandardCharsets.UTF_8));
+    this.algorithm = SignatureAlgorithm.forSigningKey(signingKey);
+    this.parser = Jwts.parser().setSigningKey(signingKey);
+    this.encodedHeader = BASE64URL.encodeToString(("{\"typ\":\"" + SecurityConstants.TOKEN_TYPE
+        + "\",\"alg\":\"" + algorithm.getValue() + "\"}").getBytes(StandardCharsets.UTF_8));
+    this.macs = ThreadLocal.withInitial(this::newMac);
+  }
+
+  /**
+   * Verify the signature and expiration of a compact JWS.
+   *
+   * @throws JwtException if the token is expired, malformed or not signed with this codec's key.
+   */
+  public Claims parse(final String token) {
+    return parser.parseClaimsJws(token).getBody();
+  }
+
+  /**
+   * Write a signed compact token without going through the general purpose JWT builder. The header is
+   * precomputed and the payload is streamed into a per-thread buffer. Every token gets a random
+   * <code>jti</code>, by which it can be revoked.
+   */
+  public String encode(final String subject, final Collection<String> roles, final Date expiration) {
+    StringBuilder token = new StringBuilder(384)
+        .append(encodedHeader)
+        .append('.')
+        .append(BASE64URL.encodeToString(payload(subject, roles, expiration)));
+    byte[] signature = macs.get().doFinal(token.toString().getBytes(StandardCharsets.US_ASCII));
+    return token.append('.').append(BASE64URL.encodeToString(signature)).toString();
+  }
+
+  public Key getSigningKey() {
+    return signingKey;
+  }
+
+  public SignatureAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  private byte[] payload(final String subject, final Collection<String> roles, final Date expiration) {
+    ByteArrayOutputStream buffer = buffers.get();
+    buffer.reset();
+    try (JsonGenerator json = JSON.createGenerator(buffer)) {
+      json.writeStartObject();
+      json.writeStringField(Claims.ISSUER, SecurityConstants.TOKEN_ISSUER);
+      json.writeStringField(Claims.AUDIENCE, SecurityConstants.TOKEN_AUDIENCE);
+      json.writeStringField(Claims.SUBJECT, subject);
+      json.writeStringField(Claims.ID, newTokenId());
+      json.writeNumberField(Claims.EXPIRATION, expiration.getTime() / 1000L);
+      json.writeArrayFieldStart("roles");
+      for (String role : roles) {
+        json.writeString(role);
+      }
+      json.writeEndArray();
+      json.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * 128 random bits. The id only has to be unique, not unpredictable, so this does not need SecureRandom.
+   */
+  private static String newTokenId() {
+    byte[] id = new byte[16];
+    ThreadLocalRandom.current().nextBytes(id);
+    return BASE64URL.encodeToString(id);
+  }
+
+  private Mac newMac() {
+    try {
+      Mac mac = Mac.getInstance(algorithm.getJcaName());
+      mac.init(signingKey);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to initialize " + algorithm.getJcaName(), e);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.example.service.auth.filter;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Outcome of verifying a bearer token in {@link JwtAuthorizationFilter}. Only a {@link Status#VALID} result
+ * carries an authentication; every other status is a rejection that the filter treats as anonymous.
+ */
+public final class JwtVerificationResult {
+
+  public enum Status {
+    VALID,
+    EXPIRED,
+    MALFORMED,
+    BAD_SIGNATURE,
+    REVOKED
+  }
+
+  private static final JwtVerificationResult EXPIRED = new JwtVerificationResult(Status.EXPIRED, null);
+  private static final JwtVerificationResult MALFORMED = new JwtVerificationResult(Status.MALFORMED, null);
+  private static final JwtVerificationResult BAD_SIGNATURE = new JwtVerificationResult(Status.BAD_SIGNATURE, null);
+  private static final JwtVerificationResult REVOKED = new JwtVerificationResult(Status.REVOKED, null);
+
+  private final Status status;
+  private final UsernamePasswordAuthenticationToken authentication;
+
+  private JwtVerificationResult(final Status status, final UsernamePasswordAuthenticationToken authentication) {
+    this.status = status;
+    this.authentication = authentication;
+  }
+
+  public static JwtVerificationResult valid(final UsernamePasswordAuthenticationToken authentication) {
+    return new JwtVerificationResult(Status.VALID, authentication);
+  }
+
+  public static JwtVerificationResult expired() {
+    return EXPIRED;
+  }
+
+  public static JwtVerificationResult malformed() {
+    return MALFORMED;
+  }
+
+  public static JwtVerificationResult badSignature() {
+    return BAD_SIGNATURE;
+  }
+
+  public static JwtVerificationResult revoked() {
+    return REVOKED;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public boolean isValid() {
+    return status == Status.VALID;
+  }
+
+  public UsernamePasswordAuthenticationToken getAuthentication() {
+    return authentication;
+  }
+
+  @Override
+  public String toString() {
+    return "JwtVerificationResult{status=" + status + '}';
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.service.auth.filter;
+
+import com.example.service.auth.service.PasswordHashingRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Answers 503 when a {@link PasswordHashingRejectedException} escapes the filter chain, e.g. from the client or
+ * form-login authentication inside Spring Security, which does not translate it.
+ */
+@Slf4j
+public class PasswordHashingRejectionFilter extends OncePerRequestFilter {
+
+  static final String RETRY_AFTER_SECONDS = "1";
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    try {
+      filterChain.doFilter(request, response);
+    } catch (ServletException | RuntimeException e) {
+      if (!isRejection(e) || response.isCommitted()) {
+        throw e;
+      }
+      log.debug("Password hashing rejected {} {}", request.getMethod(), request.getRequestURI());
+      response.reset();
+      response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Password hashing capacity exhausted");
+    }
+  }
+
+  private static boolean isRejection(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof PasswordHashingRejectedException) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,132 @@
+package com.example.service.auth.filter;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes short-lived cookies whose values are encrypted and authenticated with AES-GCM under a key
+ * shared by every node, so whatever one node stores in a cookie, any other node can read back and nobody else can
+ * read or forge. The expiry is sealed into the value together with the cookie's name, so neither extending a
+ * cookie's max-age nor copying its value into another cookie is accepted.
+ */
+public class SealedCookies {
+
+  private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+  private static final int IV_BYTES = 12;
+  private static final int TAG_BITS = 128;
+  private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+
+  private final SecretKeySpec key;
+  private final long maxAgeMillis;
+  private final SecureRandom random = new SecureRandom();
+
+  /**
+   * @param key a 16, 24 or 32 byte AES key.
+   */
+  public SealedCookies(final byte[] key, final long maxAgeMillis) {
+    if (key.length != 16 && key.length != 24 && key.length != 32) {
+      throw new IllegalArgumentException("Cookie key must be 16, 24 or 32 bytes, not " + key.length);
+    }
+    this.key = new SecretKeySpec(key, "AES");
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  /**
+   * @return the cookie's value, or null if it is absent, expired or was not sealed with this key under this name.
+   */
+  public String read(final HttpServletRequest request, final String name) {
+    Cookie cookie = find(request, name);
+    return cookie == null ? null : open(name, cookie.getValue());
+  }
+
+  public void write(final HttpServletRequest request, final HttpServletResponse response, final String name,
+      final String value) {
+    response.addCookie(cookie(request, name, seal(name, value), (int) TimeUnit.MILLISECONDS.toSeconds(maxAgeMillis)));
+  }
+
+  public void clear(final HttpServletRequest request, final HttpServletResponse response, final String name) {
+    response.addCookie(cookie(request, name, "", 0));
+  }
+
+  public boolean isPresent(final HttpServletRequest request, final String name) {
+    return find(request, name) != null;
+  }
+
+  private String seal(final String name, final String value) {
+    byte[] plaintext = value.getBytes(StandardCharsets.UTF_8);
+    byte[] iv = new byte[IV_BYTES];
+    random.nextBytes(iv);
+    try {
+      Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+      cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+      cipher.updateAAD(name.getBytes(StandardCharsets.UTF_8));
+      ByteBuffer sealed = ByteBuffer.allocate(IV_BYTES + cipher.getOutputSize(Long.BYTES + plaintext.length));
+      sealed.put(iv);
+      cipher.update(ByteBuffer.allocate(Long.BYTES).putLong(0, System.currentTimeMillis() + maxAgeMillis), sealed);
+      cipher.doFinal(ByteBuffer.wrap(plaintext), sealed);
+      return BASE64URL.encodeToString(sealed.array());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot seal cookie " + name, e);
+    }
+  }
+
+  private String open(final String name, final String value) {
+    byte[] sealed;
+    try {
+      sealed = BASE64URL_DECODER.decode(value);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    if (sealed.length < IV_BYTES + Long.BYTES + TAG_BITS / 8) {
+      return null;
+    }
+    byte[] plaintext;
+    try {
+      Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+      cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_BYTES));
+      cipher.updateAAD(name.getBytes(StandardCharsets.UTF_8));
+      plaintext = cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+    } catch (GeneralSecurityException e) {
+      // Tampered with, sealed under another key or name, or truncated.
+      return null;
+    }
+    if (ByteBuffer.wrap(plaintext).getLong() <= System.currentTimeMillis()) {
+      return null;
+    }
+    return new String(plaintext, Long.BYTES, plaintext.length - Long.BYTES, StandardCharsets.UTF_8);
+  }
+
+  private static Cookie find(final HttpServletRequest request, final String name) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies != null) {
+      for (Cookie cookie : cookies) {
+        if (name.equals(cookie.getName())) {
+          return cookie;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Cookie cookie(final HttpServletRequest request, final String name, final String value,
+      final int maxAgeSeconds) {
+    Cookie cookie = new Cookie(name, value);
+    String contextPath = request.getContextPath();
+    cookie.setPath(contextPath.isEmpty() ? "/" : contextPath);
+    cookie.setHttpOnly(true);
+    cookie.setSecure(request.isSecure());
+    cookie.setMaxAge(maxAgeSeconds);
+    return cookie;
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.service.auth.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every <code>/oauth/token</code> request as <code>auth.token.requests</code>, client authentication
+ * included, tagged with its grant type, response status and escaped exception. Unknown grant types are tagged
+ * <code>other</code> so callers cannot create new time series at will. Each tag combination's timer is registered
+ * once and then reused, so requests do not go through the registry.
+ */
+public class TokenEndpointMetricsFilter extends OncePerRequestFilter {
+
+  public static final String TIMER_NAME = "auth.token.requests";
+
+  private static final Set<String> GRANT_TYPES = new HashSet<>(Arrays.asList(
+      "password", "refresh_token", "authorization_code", "client_credentials", "implicit"));
+
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+  public TokenEndpointMetricsFilter(final MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    long startedAt = System.nanoTime();
+    String exception = "None";
+    try {
+      filterChain.doFilter(request, response);
+    } catch (ServletException | IOException | RuntimeException e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      // Read after the chain, which has already parsed the form with the right character encoding.
+      String grantType = request.getParameter("grant_type");
+      timer(grantType != null && GRANT_TYPES.contains(grantType) ? grantType : "other", response.getStatus(),
+          exception).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Timer timer(final String grantType, final int status, final String exception) {
+    String key = grantType + ' ' + status + ' ' + exception;
+    Timer timer = timers.get(key);
+    if (timer == null) {
+      timer = timers.computeIfAbsent(key, ignored -> Timer.builder(TIMER_NAME)
+          .description("Token endpoint requests by grant type")
+          .tag("grant_type", grantType)
+          .tag("status", String.valueOf(status))
+          .tag("exception", exception)
+          .register(meterRegistry));
+    }
+    return timer;
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.service.auth.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of bearer tokens that have already passed signature verification. Entries are keyed by a
+ * SHA-256 hash of the raw token, so the tokens themselves are never retained, and each entry expires at the
+ * token's own <code>exp</code> claim (capped at <code>auth.token-cache.max-ttl-seconds</code>).
+ */
+@Component
+public class VerifiedTokenCache {
+
+  public static final String CACHE_NAME = "verifiedTokens";
+
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  });
+
+  private final Cache<String, CachedToken> cache;
+  private final long maxTtlMillis;
+
+  @Autowired
+  public VerifiedTokenCache(
+      @Value("${auth.token-cache.maximum-size:10000}") final long maximumSize,
+      @Value("${auth.token-cache.max-ttl-seconds:600}") final long maxTtlSeconds,
+      final MeterRegistry meterRegistry) {
+    this.maxTtlMillis = TimeUnit.SECONDS.toMillis(maxTtlSeconds);
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new Expiry<String, CachedToken>() {
+          @Override
+          public long expireAfterCreate(String key, CachedToken entry, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, entry.expiresAt - System.currentTimeMillis()));
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, CachedToken entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, CachedToken entry, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  /**
+   * @return the token as it was first verified, or null if it is not cached.
+   */
+  public CachedToken get(final String token) {
+    return cache.getIfPresent(keyFor(token));
+  }
+
+  /**
+   * Remember a verified token until its expiration. Tokens that are already expired are not cached.
+   */
+  public void put(final String token, final String tokenId,
+      final UsernamePasswordAuthenticationToken authentication, final Date expiration) {
+    long now = System.currentTimeMillis();
+    long expiresAt = now + maxTtlMillis;
+    if (expiration != null) {
+      expiresAt = Math.min(expiresAt, expiration.getTime());
+    }
+    if (expiresAt > now) {
+      cache.put(keyFor(token), new CachedToken(tokenId, authentication, expiresAt));
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long hitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long missCount() {
+    return cache.stats().missCount();
+  }
+
+  public long evictionCount() {
+    return cache.stats().evictionCount();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private static String keyFor(final String token) {
+    byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+  }
+
+  public static final class CachedToken {
+    private final String tokenId;
+    private final UsernamePasswordAuthenticationToken authentication;
+    private final long expiresAt;
+
+    private CachedToken(final String tokenId, final UsernamePasswordAuthenticationToken authentication,
+        final long expiresAt) {
+      this.tokenId = tokenId;
+      this.authentication = authentication;
+      this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return the <code>jti</code> claim, or null for tokens issued without one.
+     */
+    public String getTokenId() {
+      return tokenId;
+    }
+
+    public UsernamePasswordAuthenticationToken getAuthentication() {
+      return authentication;
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.service.auth.repository;
+
+import com.example.service.auth.domain.AuthorizationCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface AuthorizationCodeRepository extends JpaRepository<AuthorizationCode, String> {
+
+  /**
+   * @return 1 if this call consumed the code, 0 if it was already consumed or has expired.
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from AuthorizationCode c where c.code = :code and c.expiresAt > :now")
+  int deleteIfLive(@Param("code") String code, @Param("now") long now);
+
+  @Transactional
+  @Modifying
+  @Query("delete from AuthorizationCode c where c.expiresAt <= :now")
+  int deleteExpired(@Param("now") long now);
+
+}
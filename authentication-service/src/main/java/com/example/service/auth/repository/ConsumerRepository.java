@@ -0,0 +1,10 @@
+package com.example.service.auth.repository;
+
+import com.example.service.auth.domain.Consumer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConsumerRepository extends JpaRepository<Consumer, String> {
+
+}
@@ -0,0 +1,91 @@
+package com.example.service.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt with a work factor chosen per node. {@link #calibrate(long, int, int)} times a hash on this machine and
+ * picks the highest cost that stays under a target latency, so hash cost can be tuned per node like any other
+ * performance knob. Hashes stored at a lower cost still verify, and {@link #upgradeEncoding(String)} reports them
+ * so that Spring Security re-hashes the password the next time its owner logs in.
+ */
+@Slf4j
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+  public static final int MIN_STRENGTH = 4;
+  public static final int MAX_STRENGTH = 31;
+
+  private static final String CALIBRATION_PASSWORD = "calibration-password";
+  private static final int CALIBRATION_ROUNDS = 3;
+
+  private final int strength;
+  private final BCryptPasswordEncoder delegate;
+
+  public AdaptiveBCryptPasswordEncoder(final int strength) {
+    this.strength = strength;
+    this.delegate = new BCryptPasswordEncoder(strength);
+  }
+
+  /**
+   * @return the highest cost between <code>minStrength</code> and <code>maxStrength</code> whose hash takes at
+   * most <code>targetMillis</code> on this machine. Each extra cost doubles the time, so only the minimum cost is
+   * measured and the rest is extrapolated.
+   */
+  public static int calibrate(final long targetMillis, final int minStrength, final int maxStrength) {
+    BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+      long start = System.nanoTime();
+      probe.encode(CALIBRATION_PASSWORD);
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+    double headroom = (double) TimeUnit.MILLISECONDS.toNanos(targetMillis) / Math.max(1L, fastest);
+    int doublings = headroom < 1.0 ? 0 : (int) Math.floor(Math.log(headroom) / Math.log(2));
+    int strength = Math.max(minStrength, Math.min(maxStrength, minStrength + doublings));
+    log.info("BCrypt cost {} takes {} ms on this node; using cost {} for a {} ms target", minStrength,
+        TimeUnit.NANOSECONDS.toMillis(fastest), strength, targetMillis);
+    return strength;
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return delegate.encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return delegate.matches(rawPassword, encodedPassword);
+  }
+
+  /**
+   * @return true if the hash was computed with a lower cost than this encoder's.
+   */
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    int cost = costOf(encodedPassword);
+    return cost > 0 && cost < strength;
+  }
+
+  /**
+   * @return the cost of a <code>$2a$NN$...</code> hash, or -1 if the value is not a BCrypt hash.
+   */
+  public static int costOf(String encodedPassword) {
+    if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+        || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+      return -1;
+    }
+    char tens = encodedPassword.charAt(4);
+    char units = encodedPassword.charAt(5);
+    if (tens < '0' || tens > '9' || units < '0' || units > '9') {
+      return -1;
+    }
+    return (tens - '0') * 10 + (units - '0');
+  }
+}
@@ -0,0 +1,120 @@
+package com.example.service.auth.service;
+
+import com.example.service.auth.domain.Credential;
+import com.example.service.auth.domain.User;
+import com.example.service.auth.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Verifies many username and password pairs at once. All users are loaded with one query and the BCrypt checks run
+ * in parallel on the {@link PasswordHashingExecutor}.
+ * <p>
+ * At most <code>auth.password.batch.max-in-flight</code> checks of one batch are queued on the pool at a time, so
+ * a large batch cannot fill the pool's queue and starve interactive logins. Each check is waited for no longer than
+ * the pool's <code>auth.password-hashing.timeout-millis</code>.
+ */
+@Slf4j
+@Service
+public class BatchPasswordVerificationService {
+
+  private final UserRepository userRepository;
+  private final PasswordEncoder passwordEncoder;
+  private final PasswordHashingExecutor passwordHashingExecutor;
+  private final int maxInFlight;
+  private final int maxBatchSize;
+
+  @Autowired
+  public BatchPasswordVerificationService(
+      final UserRepository userRepository,
+      final PasswordEncoder passwordEncoder,
+      final PasswordHashingExecutor passwordHashingExecutor,
+      @Value("${auth.password.batch.max-in-flight:0}") final int maxInFlight,
+      @Value("${auth.password.batch.max-size:1000}") final int maxBatchSize) {
+    this.userRepository = userRepository;
+    this.passwordEncoder = passwordEncoder;
+    this.passwordHashingExecutor = passwordHashingExecutor;
+    // By default keep every hashing thread busy with one check queued behind it.
+    this.maxInFlight = maxInFlight > 0 ? maxInFlight : passwordHashingExecutor.getPoolSize() * 2;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Verify every credential. Unknown usernames do not match. Nothing is returned until every check is done, so a
+   * caller that writes the results never has to abandon a response half way through.
+   *
+   * @return whether each credential matches, in the order of the credentials.
+   * @throws PasswordHashingRejectedException if the hashing pool stays saturated even with none of this batch's
+   * checks queued on it, or a check is not done within the pool's timeout.
+   */
+  public boolean[] verify(final List<Credential> credentials) {
+    Map<String, String> passwords = loadPasswords(credentials);
+    boolean[] matches = new boolean[credentials.size()];
+    Deque<CompletableFuture<Boolean>> inFlight = new ArrayDeque<>(Math.min(maxInFlight, credentials.size()));
+    int next = 0;
+    try {
+      for (Credential credential : credentials) {
+        if (inFlight.size() == maxInFlight) {
+          matches[next++] = passwordHashingExecutor.await(inFlight.removeFirst());
+        }
+        String encodedPassword = passwords.get(credential.getUsername());
+        if (encodedPassword == null) {
+          inFlight.addLast(CompletableFuture.completedFuture(Boolean.FALSE));
+          continue;
+        }
+        while (true) {
+          try {
+            inFlight.addLast(BoundedPasswordEncoder.matchesAsync(passwordEncoder, credential.getPassword(),
+                encodedPassword));
+            break;
+          } catch (PasswordHashingRejectedException e) {
+            if (inFlight.isEmpty()) {
+              throw e;
+            }
+            // Other callers filled the queue; make room by waiting for this batch's oldest check.
+            matches[next++] = passwordHashingExecutor.await(inFlight.removeFirst());
+          }
+        }
+      }
+      while (!inFlight.isEmpty()) {
+        matches[next++] = passwordHashingExecutor.await(inFlight.removeFirst());
+      }
+    } finally {
+      // After a rejection, checks still queued for this batch are skipped by the pool.
+      for (CompletableFuture<Boolean> check : inFlight) {
+        check.cancel(false);
+      }
+    }
+    return matches;
+  }
+
+  private Map<String, String> loadPasswords(final List<Credential> credentials) {
+    Set<String> usernames = new HashSet<>();
+    for (Credential credential : credentials) {
+      usernames.add(credential.getUsername());
+    }
+    Map<String, String> passwords = new HashMap<>();
+    for (User user : userRepository.findByUsernameIn(usernames)) {
+      passwords.put(user.getUsername(), user.getPassword());
+    }
+    log.debug("Verifying {} credentials for {} of {} usernames", credentials.size(), passwords.size(),
+        usernames.size());
+    return passwords;
+  }
+}
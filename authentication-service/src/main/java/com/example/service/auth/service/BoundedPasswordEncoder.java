@@ -0,0 +1,55 @@
+package com.example.service.auth.service;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs another {@link PasswordEncoder} on the {@link PasswordHashingExecutor}, so every caller shares the same
+ * bounded hashing pool.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final PasswordHashingExecutor executor;
+
+  public BoundedPasswordEncoder(final PasswordEncoder delegate, final PasswordHashingExecutor executor) {
+    this.delegate = delegate;
+    this.executor = executor;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return executor.call(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return executor.call(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Queue a verification on the pool without waiting for it, for callers that check many passwords at once.
+   *
+   * @throws PasswordHashingRejectedException if the pool's queue is full.
+   */
+  public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+    return executor.submit(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Verify on the hashing pool if the encoder is bounded, or on the calling thread otherwise.
+   */
+  public static CompletableFuture<Boolean> matchesAsync(PasswordEncoder passwordEncoder, CharSequence rawPassword,
+      String encodedPassword) {
+    if (passwordEncoder instanceof BoundedPasswordEncoder) {
+      return ((BoundedPasswordEncoder) passwordEncoder).matchesAsync(rawPassword, encodedPassword);
+    }
+    return CompletableFuture.completedFuture(passwordEncoder.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.service.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps recently loaded users in memory so password grants, form logins and refresh-token exchanges do not each
+ * go back to the {@link UserService}. Entries expire after <code>auth.user-cache.ttl-seconds</code> and the cache
+ * holds at most <code>auth.user-cache.maximum-size</code> users. Anything that changes a stored user must call
+ * {@link #invalidate(String)}.
+ * <p>
+ * As a {@link UserDetailsPasswordService} it also receives the re-hashed password when Spring Security upgrades a
+ * hash computed at a lower BCrypt cost after a successful login.
+ */
+@Primary
+@Service
+public class CachingUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+  public static final String CACHE_NAME = "users";
+
+  private final UserService userService;
+  private final Cache<String, UserDetails> cache;
+
+  @Autowired
+  public CachingUserDetailsService(
+      final UserService userService,
+      @Value("${auth.user-cache.ttl-seconds:300}") final long ttlSeconds,
+      @Value("${auth.user-cache.maximum-size:10000}") final long maximumSize,
+      final MeterRegistry meterRegistry) {
+    this.userService = userService;
+    this.cache = Caffeine.newBuilder()
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  /**
+   * Unknown usernames are not cached, so a user created after a failed lookup is found on the next attempt.
+   */
+  @Override
+  public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    return cache.get(username, userService::loadUserByUsername);
+  }
+
+  @Override
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    UserDetails updated = userService.updatePassword(user.getUsername(), newPassword)
+        .map(UserDetails.class::cast)
+        .orElse(user);
+    invalidate(user.getUsername());
+    return updated;
+  }
+
+  public void invalidate(String username) {
+    cache.invalidate(username);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
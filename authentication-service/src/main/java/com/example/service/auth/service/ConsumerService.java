@@ -1,31 +1,129 @@
 package com.example.service.auth.service;
 
 import com.example.service.auth.domain.Consumer;
+import com.example.service.auth.domain.RegisteredClient;
+import com.example.service.auth.repository.ConsumerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.ClientDetails;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * Client registry for the authorization server. Every {@link Consumer} row is loaded once into an immutable
+ * {@link RegisteredClient}, so the token and authorize endpoints never touch JPA or BCrypt on the request path.
+ * The registry is reloaded whenever the configuration is refreshed, or explicitly through {@link #refresh()}.
+ */
+@Slf4j
 @Service
 public class ConsumerService implements ClientDetailsService {
 
+  private static final String PROXY_CLIENT_ID = "proxy-client";
+
+  private final ConsumerRepository consumerRepository;
+
+  private final PasswordEncoder passwordEncoder;
+
+  private final Map<String, RegisteredClient> clients = new ConcurrentHashMap<>();
+
+  private final Timer registeredTimer;
+
+  private final Timer defaultTimer;
+
+  private volatile RegisteredClient defaultClient;
+
+  @Autowired
+  public ConsumerService(final ConsumerRepository consumerRepository, final PasswordEncoder passwordEncoder,
+      final MeterRegistry meterRegistry) {
+    this.consumerRepository = consumerRepository;
+    this.passwordEncoder = passwordEncoder;
+    this.registeredTimer = loadTimer(meterRegistry, "true");
+    this.defaultTimer = loadTimer(meterRegistry, "false");
+  }
+
+  @PostConstruct
+  public void postConstruct() {
+    if (!consumerRepository.existsById(PROXY_CLIENT_ID)) {
+      // Add the proxy's client, the only one allowed to return to the gateway's OAuth2 login
+      consumerRepository.save(proxyConsumer());
+    }
+    refresh();
+  }
+
+  /**
+   * Timed as <code>auth.client.load</code>, tagged with whether the client has its own registration.
+   */
   @Override
-  @Transactional
   public ClientDetails loadClientByClientId(String clientId) {
-    // Return this no matter what clientId is passed in.
+    long startedAt = System.nanoTime();
+    RegisteredClient client = clients.get(clientId);
+    if (client != null) {
+      registeredTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+      return client;
+    }
+    // Clients without a Consumer row keep the original behavior of sharing one default registration.
+    ClientDetails details = defaultClient.withClientId(clientId);
+    defaultTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    return details;
+  }
+
+  @EventListener(EnvironmentChangeEvent.class)
+  public void onConfigurationChange() {
+    refresh();
+  }
+
+  /**
+   * Reload every client from the database and rebuild the default registration.
+   */
+  public synchronized void refresh() {
+    defaultClient = RegisteredClient.of(defaultConsumer());
+    Map<String, RegisteredClient> loaded = consumerRepository.findAll().stream()
+        .map(RegisteredClient::of)
+        .collect(Collectors.toMap(RegisteredClient::getClientId, client -> client));
+    clients.putAll(loaded);
+    Set<String> removed = clients.keySet().stream()
+        .filter(clientId -> !loaded.containsKey(clientId))
+        .collect(Collectors.toSet());
+    clients.keySet().removeAll(removed);
+    log.debug("Loaded {} OAuth2 clients", loaded.size());
+  }
+
+  private static Timer loadTimer(final MeterRegistry meterRegistry, final String registered) {
+    return Timer.builder("auth.client.load")
+        .description("OAuth2 client lookups in the registry")
+        .tag("registered", registered)
+        .register(meterRegistry);
+  }
+
+  private Consumer defaultConsumer() {
     Consumer consumer = new Consumer();
     consumer.setScopeCsv("read,write,trust");
     consumer.setAutoApproveCsv("true");
     consumer.setAuthorizedGrantTypesCsv("password,refresh_token,authorization_code");
     consumer.setAccessTokenValiditySeconds(100);
     consumer.setRefreshTokenValiditySeconds(100);
-    consumer.setClientId(clientId);
-    consumer.setRegisteredRedirectUrisCsv("http://localhost:9000/login,");
-    consumer.setClientSecret(new BCryptPasswordEncoder().encode("client-secret"));
-    return  consumer;
+    consumer.setRegisteredRedirectUrisCsv("http://localhost:9000/login");
+    consumer.setClientSecret(passwordEncoder.encode("client-secret"));
+    return consumer;
+  }
+
+  private Consumer proxyConsumer() {
+    Consumer consumer = defaultConsumer();
+    consumer.setClientId(PROXY_CLIENT_ID);
+    consumer.setRegisteredRedirectUrisCsv("http://localhost:9000/login,http://localhost:9000/login/oauth2/code/"
+        + PROXY_CLIENT_ID);
+    return consumer;
   }
 }
@@ -0,0 +1,101 @@
+package com.example.service.auth.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting bloom filter over 64-bit hashes. Each block is one <code>long</code> of sixteen 4-bit counters, and
+ * all {@value #HASHES} counters of a hash are in the same block, so a membership test is a single memory read.
+ * Counters saturate at 15 and then never decrease, which keeps the filter free of false negatives at the cost
+ * of a few sticky positives.
+ * <p>
+ * With one block per expected entry, about 2% of checks for absent hashes fall through to the caller's exact
+ * check once the filter is full. Reads are lock-free; concurrent updates are resolved with compare-and-set.
+ */
+public final class CountingBloomFilter {
+
+  private static final int HASHES = 3;
+  private static final int COUNTER_BITS = 4;
+  private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+  private final AtomicLongArray blocks;
+  private final int blockMask;
+
+  public CountingBloomFilter(final int expectedEntries) {
+    int size = Integer.highestOneBit(Math.max(64, expectedEntries - 1) << 1);
+    this.blocks = new AtomicLongArray(size);
+    this.blockMask = size - 1;
+  }
+
+  /**
+   * @return false if the hash was certainly never added, true if it may have been.
+   */
+  public boolean mightContain(final long hash) {
+    long block = blocks.get(blockIndex(hash));
+    for (int i = 0; i < HASHES; i++) {
+      if (((block >>> shift(hash, i)) & COUNTER_MASK) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public void add(final long hash) {
+    int index = blockIndex(hash);
+    long block;
+    long updated;
+    do {
+      block = blocks.get(index);
+      updated = block;
+      for (int i = 0; i < HASHES; i++) {
+        int shift = shift(hash, i);
+        if (((updated >>> shift) & COUNTER_MASK) != COUNTER_MASK) {
+          updated += 1L << shift;
+        }
+      }
+    } while (!blocks.compareAndSet(index, block, updated));
+  }
+
+  /**
+   * Undo one {@link #add(long)} of the same hash.
+   */
+  public void remove(final long hash) {
+    int index = blockIndex(hash);
+    long block;
+    long updated;
+    do {
+      block = blocks.get(index);
+      updated = block;
+      for (int i = 0; i < HASHES; i++) {
+        int shift = shift(hash, i);
+        long counter = (updated >>> shift) & COUNTER_MASK;
+        if (counter != 0 && counter != COUNTER_MASK) {
+          updated -= 1L << shift;
+        }
+      }
+    } while (!blocks.compareAndSet(index, block, updated));
+  }
+
+  /**
+   * 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer so every bit of the result depends on
+   * every character.
+   */
+  public static long hash(final String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  private int blockIndex(final long hash) {
+    return (int) (hash >>> 32) & blockMask;
+  }
+
+  private static int shift(final long hash, final int i) {
+    return (int) ((hash >>> (i * COUNTER_BITS)) & COUNTER_MASK) * COUNTER_BITS;
+  }
+}
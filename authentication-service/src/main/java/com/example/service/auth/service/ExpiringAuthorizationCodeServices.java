@@ -0,0 +1,60 @@
+package com.example.service.auth.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.code.RandomValueAuthorizationCodeServices;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization codes held in memory until they are exchanged or expire. Unlike
+ * <code>InMemoryAuthorizationCodeServices</code>, codes that are never exchanged do not stay around forever: each
+ * one is scheduled on a {@link TimingWheel} at issue time and evicted when its validity runs out, so memory stays
+ * flat however many authorize requests are abandoned.
+ * <p>
+ * Codes live on the node that issued them; use <code>auth.authorization-code.store: jpa</code> to share them.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.authorization-code.store", havingValue = "memory", matchIfMissing = true)
+public class ExpiringAuthorizationCodeServices extends RandomValueAuthorizationCodeServices {
+
+  private final ShardedExpiringMap<String, OAuth2Authentication> codes;
+  private final long validityMillis;
+
+  @Autowired
+  public ExpiringAuthorizationCodeServices(
+      @Value("${auth.authorization-code.validity-seconds:300}") final long validitySeconds,
+      @Value("${auth.authorization-code.shards:16}") final int shards,
+      @Value("${auth.authorization-code.tick-millis:1000}") final long tickMillis,
+      final MeterRegistry meterRegistry) {
+    this.codes = new ShardedExpiringMap<>(shards, tickMillis);
+    this.validityMillis = TimeUnit.SECONDS.toMillis(validitySeconds);
+    Gauge.builder("auth.authorization-code.store.size", codes, ShardedExpiringMap::size)
+        .description("Authorization codes issued and not yet exchanged or evicted")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected void store(final String code, final OAuth2Authentication authentication) {
+    codes.put(code, authentication, System.currentTimeMillis() + validityMillis);
+  }
+
+  @Override
+  protected OAuth2Authentication remove(final String code) {
+    return codes.remove(code);
+  }
+
+  /**
+   * Evict expired codes.
+   */
+  @Scheduled(fixedDelayString = "${auth.authorization-code.tick-millis:1000}")
+  public void expire() {
+    codes.expire(System.currentTimeMillis());
+  }
+}
@@ -0,0 +1,172 @@
+package com.example.service.auth.service;
+
+import com.example.service.auth.domain.AuthorizationCode;
+import com.example.service.auth.repository.AuthorizationCodeRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.common.util.SerializationUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.code.RandomValueAuthorizationCodeServices;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Authorization codes kept in the JPA datasource, so they survive a restart and any node can exchange a code
+ * another node issued.
+ * <p>
+ * Writes are group-committed: {@link #store(String, OAuth2Authentication)} hands its row to a single writer
+ * thread and waits, and the writer inserts everything that queued up meanwhile, up to
+ * <code>auth.authorization-code.batch-size</code> rows, in one transaction and one JDBC batch. A lone request
+ * pays for one insert as before; under load, concurrent requests share a commit.
+ * <p>
+ * A code is consumed by a single delete that only succeeds while the code is live, so of two concurrent
+ * exchanges of the same code exactly one wins. Expired codes are purged in bulk every
+ * <code>auth.authorization-code.purge-interval-millis</code>.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.authorization-code.store", havingValue = "jpa")
+public class JpaAuthorizationCodeServices extends RandomValueAuthorizationCodeServices {
+
+  private final AuthorizationCodeRepository repository;
+  private final TransactionTemplate transactionTemplate;
+  private final long validityMillis;
+  private final int batchSize;
+  private final long writeTimeoutMillis;
+  private final BlockingQueue<PendingWrite> pendingWrites;
+  private final DistributionSummary batchSizes;
+  private final Thread writer;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  public JpaAuthorizationCodeServices(
+      final AuthorizationCodeRepository repository,
+      final PlatformTransactionManager transactionManager,
+      @Value("${auth.authorization-code.validity-seconds:300}") final long validitySeconds,
+      @Value("${auth.authorization-code.batch-size:64}") final int batchSize,
+      @Value("${auth.authorization-code.write-timeout-millis:5000}") final long writeTimeoutMillis,
+      final MeterRegistry meterRegistry) {
+    this.repository = repository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.validityMillis = TimeUnit.SECONDS.toMillis(validitySeconds);
+    this.batchSize = batchSize;
+    this.writeTimeoutMillis = writeTimeoutMillis;
+    this.pendingWrites = new ArrayBlockingQueue<>(batchSize * 16);
+    this.batchSizes = DistributionSummary.builder("auth.authorization-code.batch.size")
+        .description("Authorization codes inserted per transaction")
+        .register(meterRegistry);
+    Gauge.builder("auth.authorization-code.pending-writes", pendingWrites, BlockingQueue::size)
+        .description("Authorization codes waiting for the writer")
+        .register(meterRegistry);
+    this.writer = new Thread(this::writeBatches, "authorization-code-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  protected void store(final String code, final OAuth2Authentication authentication) {
+    PendingWrite write = new PendingWrite(new AuthorizationCode(code, SerializationUtils.serialize(authentication),
+        System.currentTimeMillis() + validityMillis));
+    try {
+      if (!pendingWrites.offer(write, writeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        throw new IllegalStateException("Authorization code writer is saturated");
+      }
+      // The code must be committed before the client can see, and exchange, it.
+      write.committed.get(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while storing authorization code", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Cannot store authorization code", e.getCause());
+    } catch (TimeoutException e) {
+      throw new IllegalStateException("Timed out storing authorization code", e);
+    }
+  }
+
+  @Override
+  protected OAuth2Authentication remove(final String code) {
+    Optional<AuthorizationCode> stored = repository.findById(code);
+    if (!stored.isPresent() || repository.deleteIfLive(code, System.currentTimeMillis()) != 1) {
+      return null;
+    }
+    return SerializationUtils.deserialize(stored.get().getAuthentication());
+  }
+
+  /**
+   * Delete the codes that expired without being exchanged.
+   */
+  @Scheduled(fixedDelayString = "${auth.authorization-code.purge-interval-millis:60000}")
+  public void purge() {
+    int purged = repository.deleteExpired(System.currentTimeMillis());
+    if (purged > 0) {
+      log.debug("Purged {} expired authorization codes", purged);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    writer.interrupt();
+  }
+
+  private void writeBatches() {
+    List<PendingWrite> batch = new ArrayList<>(batchSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(pendingWrites.take());
+      } catch (InterruptedException e) {
+        return;
+      }
+      pendingWrites.drainTo(batch, batchSize - 1);
+      try {
+        transactionTemplate.execute(status -> {
+          for (PendingWrite write : batch) {
+            entityManager.persist(write.code);
+          }
+          return null;
+        });
+        batchSizes.record(batch.size());
+        for (PendingWrite write : batch) {
+          write.committed.complete(null);
+        }
+      } catch (RuntimeException e) {
+        log.warn("Cannot insert {} authorization codes", batch.size(), e);
+        for (PendingWrite write : batch) {
+          write.committed.completeExceptionally(e);
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  private static final class PendingWrite {
+
+    private final AuthorizationCode code;
+    private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+    PendingWrite(final AuthorizationCode code) {
+      this.code = code;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.example.service.auth.service;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPrivateCrtKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The few DER and PEM conversions the key ring needs, kept here so it depends on nothing beyond the JDK.
+ */
+public final class KeyEncodings {
+
+  private static final int SEQUENCE = 0x30;
+  private static final int INTEGER = 0x02;
+
+  private KeyEncodings() {
+  }
+
+  /**
+   * Parse a <code>PUBLIC KEY</code> PEM (X.509 SubjectPublicKeyInfo).
+   */
+  public static PublicKey parsePublicKey(final String pem, final String keyAlgorithm)
+      throws GeneralSecurityException {
+    return KeyFactory.getInstance(keyAlgorithm).generatePublic(new X509EncodedKeySpec(pemBody(pem)));
+  }
+
+  /**
+   * Parse a PKCS#8 <code>PRIVATE KEY</code> PEM, as written by <code>openssl genpkey</code> for any key type.
+   */
+  public static PrivateKey parsePrivateKey(final String pem, final String keyAlgorithm)
+      throws GeneralSecurityException {
+    return KeyFactory.getInstance(keyAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(pemBody(pem)));
+  }
+
+  /**
+   * Parse an RSA private key from either a PKCS#1 <code>RSA PRIVATE KEY</code> or a PKCS#8
+   * <code>PRIVATE KEY</code> PEM.
+   */
+  public static PrivateKey parseRsaPrivateKey(final String pem) throws GeneralSecurityException {
+    byte[] der = pemBody(pem);
+    KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+    if (!pem.contains("RSA PRIVATE KEY")) {
+      return keyFactory.generatePrivate(new PKCS8EncodedKeySpec(der));
+    }
+    // RSAPrivateKey ::= SEQUENCE { version, modulus, publicExponent, privateExponent, prime1, prime2,
+    //                              exponent1, exponent2, coefficient }
+    int[] position = {0};
+    expect(der, position, SEQUENCE);
+    readLength(der, position);
+    BigInteger[] values = new BigInteger[9];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = readInteger(der, position);
+    }
+    return keyFactory.generatePrivate(new RSAPrivateCrtKeySpec(values[1], values[2], values[3], values[4],
+        values[5], values[6], values[7], values[8]));
+  }
+
+  /**
+   * Convert a DER <code>SEQUENCE { r INTEGER, s INTEGER }</code> ECDSA signature, as produced by the JCA, to the
+   * fixed-length <code>r || s</code> form JWS requires.
+   */
+  public static byte[] derToConcatenated(final byte[] der, final int componentLength)
+      throws GeneralSecurityException {
+    int[] position = {0};
+    expect(der, position, SEQUENCE);
+    readLength(der, position);
+    byte[] result = new byte[componentLength * 2];
+    writeUnsigned(readInteger(der, position), result, 0, componentLength);
+    writeUnsigned(readInteger(der, position), result, componentLength, componentLength);
+    return result;
+  }
+
+  /**
+   * The reverse of {@link #derToConcatenated(byte[], int)}, for verifying a JWS signature with the JCA.
+   */
+  public static byte[] concatenatedToDer(final byte[] concatenated) {
+    int half = concatenated.length / 2;
+    byte[] r = new BigInteger(1, Arrays.copyOfRange(concatenated, 0, half)).toByteArray();
+    byte[] s = new BigInteger(1, Arrays.copyOfRange(concatenated, half, concatenated.length)).toByteArray();
+    ByteArrayOutputStream body = new ByteArrayOutputStream(r.length + s.length + 4);
+    writeTlv(body, INTEGER, r);
+    writeTlv(body, INTEGER, s);
+    ByteArrayOutputStream der = new ByteArrayOutputStream(body.size() + 3);
+    writeTlv(der, SEQUENCE, body.toByteArray());
+    return der.toByteArray();
+  }
+
+  /**
+   * @return the value as an unsigned big-endian integer of exactly <code>length</code> bytes.
+   */
+  public static byte[] toUnsigned(final BigInteger value, final int length) {
+    byte[] result = new byte[length];
+    writeUnsigned(value, result, 0, length);
+    return result;
+  }
+
+  /**
+   * @return the value as an unsigned big-endian integer without leading zero bytes.
+   */
+  public static byte[] toUnsigned(final BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    return bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+  }
+
+  private static byte[] pemBody(final String pem) {
+    String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+    return Base64.getDecoder().decode(base64);
+  }
+
+  private static void writeUnsigned(final BigInteger value, final byte[] target, final int offset,
+      final int length) {
+    byte[] bytes = toUnsigned(value);
+    if (bytes.length > length) {
+      throw new IllegalArgumentException("Integer does not fit in " + length + " bytes");
+    }
+    System.arraycopy(bytes, 0, target, offset + length - bytes.length, bytes.length);
+  }
+
+  private static BigInteger readInteger(final byte[] der, final int[] position) throws GeneralSecurityException {
+    expect(der, position, INTEGER);
+    int length = readLength(der, position);
+    if (position[0] + length > der.length) {
+      throw new GeneralSecurityException("Truncated DER integer");
+    }
+    BigInteger value = new BigInteger(Arrays.copyOfRange(der, position[0], position[0] + length));
+    position[0] += length;
+    return value;
+  }
+
+  private static void expect(final byte[] der, final int[] position, final int tag) throws GeneralSecurityException {
+    if (position[0] >= der.length || (der[position[0]] & 0xff) != tag) {
+      throw new GeneralSecurityException("Expected DER tag " + tag + " at offset " + position[0]);
+    }
+    position[0]++;
+  }
+
+  private static int readLength(final byte[] der, final int[] position) throws GeneralSecurityException {
+    if (position[0] >= der.length) {
+      throw new GeneralSecurityException("Truncated DER length");
+    }
+    int first = der[position[0]++] & 0xff;
+    if (first < 0x80) {
+      return first;
+    }
+    int octets = first & 0x7f;
+    if (octets == 0 || octets > 3 || position[0] + octets > der.length) {
+      throw new GeneralSecurityException("Unsupported DER length");
+    }
+    int length = 0;
+    for (int i = 0; i < octets; i++) {
+      length = (length << 8) | (der[position[0]++] & 0xff);
+    }
+    return length;
+  }
+
+  private static void writeTlv(final ByteArrayOutputStream out, final int tag, final byte[] value) {
+    out.write(tag);
+    if (value.length < 0x80) {
+      out.write(value.length);
+    } else if (value.length < 0x100) {
+      out.write(0x81);
+      out.write(value.length);
+    } else {
+      out.write(0x82);
+      out.write(value.length >> 8);
+      out.write(value.length & 0xff);
+    }
+    out.write(value, 0, value.length);
+  }
+}
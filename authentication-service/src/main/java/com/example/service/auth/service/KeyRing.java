@@ -0,0 +1,236 @@
+package com.example.service.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.jwt.crypto.sign.InvalidSignatureException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The keys tokens are signed and verified with. Exactly one key is active and signs new tokens; every key in
+ * the ring verifies tokens carrying its <code>kid</code>, and all of them are published as a JWK set.
+ * <p>
+ * New keys use <code>auth.key-ring.algorithm</code>: RS256, ES256 or EdDSA. The ring starts with the configured
+ * RSA <code>keyPair</code>, which signs if the algorithm is RS256 and otherwise only verifies tokens issued before
+ * the switch, until its retention passes. For ES256 and EdDSA, the key that signs first is configured as
+ * <code>auth.key-ring.private-key</code> (PKCS#8) and <code>auth.key-ring.public-key</code> PEMs, so that it
+ * survives restarts and every node signs with it; without them the ring only starts if rotation is enabled, and
+ * then generates that key too. With <code>auth.key-ring.rotation.enabled</code>, a
+ * new key is generated every <code>auth.key-ring.rotation-interval-millis</code>. It is published one interval
+ * before it becomes active, so resource servers that cache the JWK set for less than an interval already know it
+ * when the first token signed with it arrives. A key that is no longer active keeps verifying for
+ * <code>auth.key-ring.retention-seconds</code>, which must exceed the longest token validity.
+ * <p>
+ * Generated keys live only in this node's memory. Only enable rotation on a single node, or behind sticky
+ * routing, until the keys are kept in a shared store.
+ */
+@Slf4j
+@Component
+public class KeyRing {
+
+  private final SigningAlgorithm algorithm;
+  private final int rsaKeySize;
+  private final boolean rotationEnabled;
+  private final Duration retention;
+  private final Clock clock;
+  private final String configuredKeyId;
+
+  private volatile State state;
+
+  @Autowired
+  public KeyRing(
+      @Value("${keyPair.private-key}") final String privateKey,
+      @Value("${keyPair.public-key}") final String publicKey,
+      @Value("${auth.key-ring.rotation.enabled:false}") final boolean rotationEnabled,
+      @Value("${auth.key-ring.retention-seconds:2592000}") final long retentionSeconds,
+      @Value("${auth.key-ring.key-size:2048}") final int rsaKeySize,
+      @Value("${auth.key-ring.algorithm:RS256}") final String algorithm,
+      @Value("${auth.key-ring.private-key:}") final String algorithmPrivateKey,
+      @Value("${auth.key-ring.public-key:}") final String algorithmPublicKey) throws GeneralSecurityException {
+    this.algorithm = SigningAlgorithm.fromName(algorithm);
+    if (!this.algorithm.isAvailable()) {
+      throw new IllegalStateException(algorithm + " signing is not supported by this JDK");
+    }
+    this.rsaKeySize = rsaKeySize;
+    this.rotationEnabled = rotationEnabled;
+    this.retention = Duration.ofSeconds(retentionSeconds);
+    this.clock = Clock.systemUTC();
+
+    SigningKey configured = new SigningKey(SigningAlgorithm.RS256,
+        KeyEncodings.parsePublicKey(publicKey, SigningAlgorithm.RS256.getKeyAlgorithm()),
+        KeyEncodings.parseRsaPrivateKey(privateKey), clock.instant());
+    this.configuredKeyId = configured.getKeyId();
+    SigningKey next = rotationEnabled ? generate() : null;
+    if (this.algorithm == SigningAlgorithm.RS256) {
+      this.state = new State(configured, next, Collections.emptyMap(), Collections.emptyMap());
+    } else {
+      this.state = new State(firstKey(algorithmPrivateKey, algorithmPublicKey), next,
+          Collections.singletonMap(configuredKeyId, clock.instant()),
+          Collections.singletonMap(configuredKeyId, configured));
+    }
+    log.info("Key ring started with {} key {}{}", this.algorithm.getJwsName(), state.active.getKeyId(),
+        next != null ? ", next key " + next.getKeyId() : "");
+  }
+
+  /**
+   * @return the key that signs new tokens.
+   */
+  public SigningKey active() {
+    return state.active;
+  }
+
+  /**
+   * @return the key with this id, or null if the ring does not hold it (any more).
+   */
+  public SigningKey find(final String keyId) {
+    return state.keys.get(keyId);
+  }
+
+  /**
+   * @return the key configured under <code>keyPair</code>, which signed every token issued before key ids.
+   */
+  public String getConfiguredKeyId() {
+    return configuredKeyId;
+  }
+
+  /**
+   * @return the JWK set of every key in the ring, prebuilt whenever the ring changes.
+   */
+  public String getJwks() {
+    return state.jwks;
+  }
+
+  /**
+   * @return a strong ETag of {@link #getJwks()}.
+   */
+  public String getJwksETag() {
+    return state.jwksETag;
+  }
+
+  @Scheduled(fixedDelayString = "${auth.key-ring.rotation-interval-millis:86400000}",
+      initialDelayString = "${auth.key-ring.rotation-interval-millis:86400000}")
+  public void scheduledRotation() {
+    if (rotationEnabled) {
+      rotate();
+    }
+  }
+
+  /**
+   * Activate the published next key, publish a new next key and drop keys past their retention.
+   */
+  public synchronized void rotate() {
+    State current = state;
+    Instant now = clock.instant();
+    Map<String, Instant> retired = new LinkedHashMap<>();
+    for (Map.Entry<String, Instant> entry : current.retiredAt.entrySet()) {
+      if (entry.getValue().plus(retention).isAfter(now)) {
+        retired.put(entry.getKey(), entry.getValue());
+      }
+    }
+    retired.put(current.active.getKeyId(), now);
+
+    SigningKey active = current.next != null ? current.next : generate();
+    Map<String, SigningKey> retiredKeys = new LinkedHashMap<>();
+    for (String keyId : retired.keySet()) {
+      retiredKeys.put(keyId, current.keys.get(keyId));
+    }
+    state = new State(active, generate(), retired, retiredKeys);
+    log.info("Rotated signing key from {} to {}; {} retired keys still verify", current.active.getKeyId(),
+        active.getKeyId(), retired.size());
+  }
+
+  /**
+   * @return the algorithm new keys are generated for.
+   */
+  public SigningAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * The ES256 or EdDSA key that signs until the first rotation. A key generated here would change on every restart,
+   * invalidating every token issued before it, and differ on every node, so without configured key material the
+   * ring refuses to start unless rotation, which generates per-node keys anyway, is enabled.
+   */
+  private SigningKey firstKey(final String privateKey, final String publicKey) throws GeneralSecurityException {
+    if (StringUtils.hasText(privateKey) || StringUtils.hasText(publicKey)) {
+      SigningKey key = new SigningKey(algorithm,
+          KeyEncodings.parsePublicKey(publicKey, algorithm.getKeyAlgorithm()),
+          KeyEncodings.parsePrivateKey(privateKey, algorithm.getKeyAlgorithm()), clock.instant());
+      try {
+        key.decode(key.encode("{}"));
+      } catch (InvalidSignatureException e) {
+        throw new IllegalStateException("auth.key-ring.private-key and auth.key-ring.public-key are not one key pair",
+            e);
+      }
+      return key;
+    }
+    if (!rotationEnabled) {
+      throw new IllegalStateException("Signing with " + algorithm.getJwsName() + " needs auth.key-ring.private-key "
+          + "and auth.key-ring.public-key, or auth.key-ring.rotation.enabled");
+    }
+    log.warn("auth.key-ring.private-key is not set; signing with a generated {} key that only this node knows",
+        algorithm.getJwsName());
+    return generate();
+  }
+
+  private SigningKey generate() {
+    try {
+      KeyPair keyPair = algorithm.generateKeyPair(rsaKeySize);
+      return new SigningKey(algorithm, keyPair.getPublic(), keyPair.getPrivate(), clock.instant());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot generate " + algorithm.getJwsName() + " key", e);
+    }
+  }
+
+  /**
+   * An immutable snapshot of the ring, replaced as a whole on rotation so readers never need a lock.
+   */
+  private static final class State {
+
+    private final SigningKey active;
+    private final SigningKey next;
+    private final Map<String, Instant> retiredAt;
+    private final Map<String, SigningKey> keys;
+    private final String jwks;
+    private final String jwksETag;
+
+    State(final SigningKey active, final SigningKey next, final Map<String, Instant> retiredAt,
+        final Map<String, SigningKey> retiredKeys) {
+      this.active = active;
+      this.next = next;
+      this.retiredAt = Collections.unmodifiableMap(retiredAt);
+
+      List<SigningKey> ordered = new ArrayList<>();
+      ordered.add(active);
+      if (next != null) {
+        ordered.add(next);
+      }
+      ordered.addAll(retiredKeys.values());
+      Map<String, SigningKey> keys = new LinkedHashMap<>();
+      StringBuilder jwks = new StringBuilder("{\"keys\":[");
+      for (SigningKey key : ordered) {
+        if (keys.putIfAbsent(key.getKeyId(), key) == null) {
+          jwks.append(keys.size() > 1 ? "," : "").append(key.toJwk());
+        }
+      }
+      this.keys = Collections.unmodifiableMap(keys);
+      this.jwks = jwks.append("]}").toString();
+      this.jwksETag = "\"" + DigestUtils.md5DigestAsHex(this.jwks.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+  }
+}
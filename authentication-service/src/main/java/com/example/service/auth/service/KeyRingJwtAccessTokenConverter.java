@@ -0,0 +1,122 @@
+package com.example.service.auth.service;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtClaimsSetVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Signs tokens with the {@link KeyRing}'s active key and a <code>kid</code> header, and verifies each token with
+ * the key its <code>kid</code> names; the token's own <code>alg</code> header is never trusted. Tokens without a
+ * <code>kid</code> were issued before the key ring and are verified with the configured key for as long as the
+ * ring retains it.
+ * Tokens, access or refresh, whose <code>jti</code> is on the {@link TokenRevocationList} are rejected.
+ * <p>
+ * The JWS encoding is done by {@link SigningKey} rather than <code>JwtHelper</code>, which does not know EdDSA.
+ */
+public class KeyRingJwtAccessTokenConverter extends JwtAccessTokenConverter {
+
+  private static final String KEY_ID = "kid";
+
+  private final KeyRing keyRing;
+  private final TokenRevocationList revocationList;
+  private final JsonParser jsonParser = JsonParserFactory.create();
+  private JwtClaimsSetVerifier claimsSetVerifier;
+
+  public KeyRingJwtAccessTokenConverter(final KeyRing keyRing, final TokenRevocationList revocationList) {
+    this.keyRing = keyRing;
+    this.revocationList = revocationList;
+  }
+
+  @Override
+  public void setJwtClaimsSetVerifier(JwtClaimsSetVerifier jwtClaimsSetVerifier) {
+    super.setJwtClaimsSetVerifier(jwtClaimsSetVerifier);
+    this.claimsSetVerifier = jwtClaimsSetVerifier;
+  }
+
+  /**
+   * @return the active public key, for <code>/oauth/token_key</code>.
+   */
+  @Override
+  public Map<String, String> getKey() {
+    SigningKey key = keyRing.active();
+    Map<String, String> result = new LinkedHashMap<>();
+    result.put("alg", key.getAlgorithm().getSignatureAlgorithm());
+    result.put("value", key.toPem());
+    result.put(KEY_ID, key.getKeyId());
+    return result;
+  }
+
+  @Override
+  protected String encode(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+    String content;
+    try {
+      content = jsonParser.formatMap(getAccessTokenConverter().convertAccessToken(accessToken, authentication));
+    } catch (Exception e) {
+      throw new IllegalStateException("Cannot convert access token to JSON", e);
+    }
+    return keyRing.active().encode(content);
+  }
+
+  @Override
+  protected Map<String, Object> decode(String token) {
+    String content;
+    try {
+      Object keyId = header(token).get(KEY_ID);
+      SigningKey key = keyRing.find(keyId instanceof String ? (String) keyId : keyRing.getConfiguredKeyId());
+      if (key == null) {
+        throw new InvalidTokenException("Token is signed with unknown key " + keyId);
+      }
+      content = key.decode(token);
+    } catch (InvalidTokenException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new InvalidTokenException("Cannot verify access token", e);
+    }
+
+    Map<String, Object> claims;
+    try {
+      claims = jsonParser.parseMap(content);
+    } catch (Exception e) {
+      throw new InvalidTokenException("Cannot convert access token to JSON", e);
+    }
+    if (claims.get(EXP) instanceof Integer) {
+      claims.put(EXP, Long.valueOf((Integer) claims.get(EXP)));
+    }
+    if (claimsSetVerifier != null) {
+      claimsSetVerifier.verify(claims);
+    }
+    Object tokenId = claims.get(JTI);
+    if (tokenId instanceof String && revocationList.isRevoked((String) tokenId)) {
+      throw new InvalidTokenException("Token has been revoked");
+    }
+    return claims;
+  }
+
+  /**
+   * Verify a token signed by the key ring, access or refresh, and check it has not been revoked.
+   *
+   * @return its claims.
+   * @throws InvalidTokenException if it does not verify or has been revoked.
+   */
+  public Map<String, Object> readClaims(String token) {
+    return decode(token);
+  }
+
+  private Map<String, Object> header(String token) {
+    int dot = token.indexOf('.');
+    if (dot < 0) {
+      throw new IllegalArgumentException("Token is not a compact JWS");
+    }
+    return jsonParser.parseMap(new String(Base64.getUrlDecoder().decode(token.substring(0, dot)),
+        StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.service.auth.service;
+
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenEnhancer;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Replaces the UUIDs <code>DefaultTokenServices</code> issues with 128 random bits in 22 base64url characters.
+ * A refresh token already in the store is being reused by a refresh grant and keeps its value.
+ */
+public class OpaqueTokenEnhancer implements TokenEnhancer {
+
+  private static final int TOKEN_BYTES = 16;
+  private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+  private final SecureRandom random = new SecureRandom();
+  private final TokenStore tokenStore;
+
+  public OpaqueTokenEnhancer(final TokenStore tokenStore) {
+    this.tokenStore = tokenStore;
+  }
+
+  @Override
+  public OAuth2AccessToken enhance(final OAuth2AccessToken accessToken,
+      final OAuth2Authentication authentication) {
+    DefaultOAuth2AccessToken result = new DefaultOAuth2AccessToken(accessToken);
+    result.setValue(nextValue());
+    OAuth2RefreshToken refreshToken = accessToken.getRefreshToken();
+    if (refreshToken != null && tokenStore.readRefreshToken(refreshToken.getValue()) == null) {
+      result.setRefreshToken(refreshToken instanceof ExpiringOAuth2RefreshToken
+          ? new DefaultExpiringOAuth2RefreshToken(nextValue(),
+              ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration())
+          : new DefaultOAuth2RefreshToken(nextValue()));
+    }
+    return result;
+  }
+
+  private String nextValue() {
+    byte[] bytes = new byte[TOKEN_BYTES];
+    random.nextBytes(bytes);
+    return BASE64_URL.encodeToString(bytes);
+  }
+}
@@ -0,0 +1,198 @@
+package com.example.service.auth.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Keeps opaque access and refresh tokens in {@link ShardedExpiringMap}s, so that reading, storing and revoking a
+ * token is a hash lookup on one shard and expired tokens are evicted by the timing wheel rather than by scanning.
+ * Resource servers introspect these tokens with <code>/oauth/check_token</code>; nothing is persisted, so tokens
+ * do not survive a restart and are only known to the node that issued them.
+ * <p>
+ * The lookups by client id and user name scan every entry; they are only used by token administration.
+ */
+public class OpaqueTokenStore implements TokenStore {
+
+  private final ShardedExpiringMap<String, AccessTokenEntry> accessTokens;
+  private final ShardedExpiringMap<String, RefreshTokenEntry> refreshTokens;
+  private final ShardedExpiringMap<String, String> accessTokenByAuthentication;
+  private final ShardedExpiringMap<String, String> accessTokenByRefreshToken;
+  private final AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+
+  public OpaqueTokenStore(final int shards, final long tickMillis, final MeterRegistry meterRegistry) {
+    this.accessTokens = new ShardedExpiringMap<>(shards, tickMillis);
+    this.refreshTokens = new ShardedExpiringMap<>(shards, tickMillis);
+    this.accessTokenByAuthentication = new ShardedExpiringMap<>(shards, tickMillis);
+    this.accessTokenByRefreshToken = new ShardedExpiringMap<>(shards, tickMillis);
+    Gauge.builder("auth.token.store.size", accessTokens, ShardedExpiringMap::size)
+        .tag("type", "access")
+        .description("Access tokens held by the opaque token store, including expired ones not evicted yet")
+        .register(meterRegistry);
+    Gauge.builder("auth.token.store.size", refreshTokens, ShardedExpiringMap::size)
+        .tag("type", "refresh")
+        .description("Refresh tokens held by the opaque token store, including expired ones not evicted yet")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public OAuth2Authentication readAuthentication(final OAuth2AccessToken token) {
+    return readAuthentication(token.getValue());
+  }
+
+  @Override
+  public OAuth2Authentication readAuthentication(final String token) {
+    AccessTokenEntry entry = accessTokens.get(token);
+    return entry == null ? null : entry.authentication;
+  }
+
+  @Override
+  public void storeAccessToken(final OAuth2AccessToken token, final OAuth2Authentication authentication) {
+    long expiresAt = expiresAt(token.getExpiration());
+    String authenticationKey = authenticationKeyGenerator.extractKey(authentication);
+    accessTokens.put(token.getValue(), new AccessTokenEntry(token, authentication, authenticationKey), expiresAt);
+    accessTokenByAuthentication.put(authenticationKey, token.getValue(), expiresAt);
+    if (token.getRefreshToken() != null) {
+      accessTokenByRefreshToken.put(token.getRefreshToken().getValue(), token.getValue(), expiresAt);
+    }
+  }
+
+  @Override
+  public OAuth2AccessToken readAccessToken(final String tokenValue) {
+    AccessTokenEntry entry = accessTokens.get(tokenValue);
+    return entry == null ? null : entry.token;
+  }
+
+  @Override
+  public void removeAccessToken(final OAuth2AccessToken token) {
+    removeAccessToken(token.getValue());
+  }
+
+  @Override
+  public void storeRefreshToken(final OAuth2RefreshToken refreshToken, final OAuth2Authentication authentication) {
+    long expiresAt = refreshToken instanceof ExpiringOAuth2RefreshToken
+        ? expiresAt(((ExpiringOAuth2RefreshToken) refreshToken).getExpiration())
+        : ShardedExpiringMap.NEVER;
+    refreshTokens.put(refreshToken.getValue(), new RefreshTokenEntry(refreshToken, authentication), expiresAt);
+  }
+
+  @Override
+  public OAuth2RefreshToken readRefreshToken(final String tokenValue) {
+    RefreshTokenEntry entry = refreshTokens.get(tokenValue);
+    return entry == null ? null : entry.token;
+  }
+
+  @Override
+  public OAuth2Authentication readAuthenticationForRefreshToken(final OAuth2RefreshToken token) {
+    RefreshTokenEntry entry = refreshTokens.get(token.getValue());
+    return entry == null ? null : entry.authentication;
+  }
+
+  @Override
+  public void removeRefreshToken(final OAuth2RefreshToken token) {
+    refreshTokens.remove(token.getValue());
+    accessTokenByRefreshToken.remove(token.getValue());
+  }
+
+  @Override
+  public void removeAccessTokenUsingRefreshToken(final OAuth2RefreshToken refreshToken) {
+    String accessToken = accessTokenByRefreshToken.remove(refreshToken.getValue());
+    if (accessToken != null) {
+      removeAccessToken(accessToken);
+    }
+  }
+
+  @Override
+  public OAuth2AccessToken getAccessToken(final OAuth2Authentication authentication) {
+    String accessToken = accessTokenByAuthentication.get(authenticationKeyGenerator.extractKey(authentication));
+    return accessToken == null ? null : readAccessToken(accessToken);
+  }
+
+  @Override
+  public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(final String clientId,
+      final String userName) {
+    List<OAuth2AccessToken> result = new ArrayList<>();
+    accessTokens.forEach((value, entry) -> {
+      if (clientId.equals(entry.authentication.getOAuth2Request().getClientId())
+          && !entry.authentication.isClientOnly()
+          && userName.equals(entry.authentication.getName())) {
+        result.add(entry.token);
+      }
+    });
+    return result;
+  }
+
+  @Override
+  public Collection<OAuth2AccessToken> findTokensByClientId(final String clientId) {
+    List<OAuth2AccessToken> result = new ArrayList<>();
+    accessTokens.forEach((value, entry) -> {
+      if (clientId.equals(entry.authentication.getOAuth2Request().getClientId())) {
+        result.add(entry.token);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Evict expired tokens.
+   */
+  @Scheduled(fixedDelayString = "${auth.token-store.tick-millis:1000}")
+  public void expire() {
+    long now = System.currentTimeMillis();
+    accessTokens.expire(now);
+    refreshTokens.expire(now);
+    accessTokenByAuthentication.expire(now);
+    accessTokenByRefreshToken.expire(now);
+  }
+
+  private void removeAccessToken(final String tokenValue) {
+    AccessTokenEntry entry = accessTokens.remove(tokenValue);
+    if (entry != null) {
+      accessTokenByAuthentication.remove(entry.authenticationKey, tokenValue);
+      if (entry.token.getRefreshToken() != null) {
+        accessTokenByRefreshToken.remove(entry.token.getRefreshToken().getValue(), tokenValue);
+      }
+    }
+  }
+
+  private static long expiresAt(final Date expiration) {
+    return expiration == null ? ShardedExpiringMap.NEVER : expiration.getTime();
+  }
+
+  private static final class AccessTokenEntry {
+
+    private final OAuth2AccessToken token;
+    private final OAuth2Authentication authentication;
+    private final String authenticationKey;
+
+    AccessTokenEntry(final OAuth2AccessToken token, final OAuth2Authentication authentication,
+        final String authenticationKey) {
+      this.token = token;
+      this.authentication = authentication;
+      this.authenticationKey = authenticationKey;
+    }
+  }
+
+  private static final class RefreshTokenEntry {
+
+    private final OAuth2RefreshToken token;
+    private final OAuth2Authentication authentication;
+
+    RefreshTokenEntry(final OAuth2RefreshToken token, final OAuth2Authentication authentication) {
+      this.token = token;
+      this.authentication = authentication;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package com.example.service.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size pool that runs every BCrypt hash and verification, so that a login burst competes for
+ * <code>auth.password-hashing.threads</code> CPUs instead of for every Tomcat request thread. At most
+ * <code>auth.password-hashing.queue-capacity</code> hashes wait for a thread; beyond that, and for callers that
+ * wait longer than <code>auth.password-hashing.timeout-millis</code>, a {@link PasswordHashingRejectedException}
+ * is thrown.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+  private final ThreadPoolExecutor executor;
+  private final long timeoutMillis;
+  private final Timer waitTimer;
+  private final Timer hashTimer;
+  private final Counter rejections;
+
+  @Autowired
+  public PasswordHashingExecutor(
+      @Value("${auth.password-hashing.threads:0}") final int threads,
+      @Value("${auth.password-hashing.queue-capacity:64}") final int queueCapacity,
+      @Value("${auth.password-hashing.timeout-millis:5000}") final long timeoutMillis,
+      final MeterRegistry meterRegistry) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    this.timeoutMillis = timeoutMillis;
+
+    Gauge.builder("auth.password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+        .description("Password hashes waiting for a hashing thread")
+        .register(meterRegistry);
+    Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Hashing threads currently running a hash")
+        .register(meterRegistry);
+    this.waitTimer = Timer.builder("auth.password.hashing.wait")
+        .description("Time a password hash spent queued before a hashing thread picked it up")
+        .register(meterRegistry);
+    this.hashTimer = Timer.builder("auth.password.hashing.duration")
+        .description("Time spent computing a password hash or verification")
+        .register(meterRegistry);
+    this.rejections = Counter.builder("auth.password.hashing.rejected")
+        .description("Password hashes rejected because the hashing pool was saturated or too slow")
+        .register(meterRegistry);
+    log.info("Password hashing pool: {} threads, queue capacity {}", poolSize, queueCapacity);
+  }
+
+  /**
+   * Run the hash on the pool and wait for its result.
+   *
+   * @throws PasswordHashingRejectedException if the pool is saturated or the result takes longer than the timeout.
+   */
+  public <T> T call(final Supplier<T> hash) {
+    return await(submit(hash));
+  }
+
+  /**
+   * Wait for a hash queued with {@link #submit(Supplier)}, for no longer than the timeout.
+   *
+   * @throws PasswordHashingRejectedException if the result takes longer than the timeout.
+   */
+  public <T> T await(final Future<T> future) {
+    try {
+      return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(false);
+      rejections.increment();
+      throw new PasswordHashingRejectedException("Password hashing timed out after " + timeoutMillis + " ms", e);
+    } catch (InterruptedException e) {
+      future.cancel(false);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Queue the hash on the pool without waiting for it.
+   *
+   * @throws PasswordHashingRejectedException if the pool's queue is full.
+   */
+  public <T> CompletableFuture<T> submit(final Supplier<T> hash) {
+    long queuedAt = System.nanoTime();
+    CompletableFuture<T> result = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        if (result.isDone()) {
+          return;
+        }
+        long startedAt = System.nanoTime();
+        waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+        try {
+          result.complete(hash.get());
+        } catch (Throwable t) {
+          result.completeExceptionally(t);
+        } finally {
+          hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejections.increment();
+      throw new PasswordHashingRejectedException("Password hashing pool is saturated", e);
+    }
+    return result;
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getPoolSize() {
+    return executor.getMaximumPoolSize();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.service.auth.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the {@link PasswordHashingExecutor} is saturated or does not get to a hash in time. Callers answer
+ * with 503 so that a login burst is shed quickly instead of queueing behind request threads.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingRejectedException extends RuntimeException {
+
+  public PasswordHashingRejectedException(String message) {
+    super(message);
+  }
+
+  public PasswordHashingRejectedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,167 @@
+package com.example.service.auth.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory map whose entries expire at a per-entry deadline. Keys are spread over a power-of-two number of
+ * shards; lookups are lock-free, and writes, removals and expiry lock only the key's shard.
+ * <p>
+ * Each shard schedules its entries on a {@link TimingWheel}, so removing an entry unlinks it in O(1) and
+ * {@link #expire(long)} only touches the entries that come due instead of scanning the whole map.
+ */
+public class ShardedExpiringMap<K, V> {
+
+  public static final long NEVER = Long.MAX_VALUE;
+
+  private final Shard<K, V>[] shards;
+  private final int shardMask;
+
+  @SuppressWarnings("unchecked")
+  public ShardedExpiringMap(final int shardCount, final long tickMillis) {
+    int shardsPowerOfTwo = Integer.highestOneBit(Math.max(1, shardCount - 1) << 1);
+    this.shards = new Shard[shardsPowerOfTwo];
+    this.shardMask = shardsPowerOfTwo - 1;
+    long now = System.currentTimeMillis();
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard<>(new TimingWheel<>(tickMillis, TimingWheel.DEFAULT_LEVELS, now));
+    }
+  }
+
+  /**
+   * @return the value, or null if there is none or it has expired.
+   */
+  public V get(final K key) {
+    Node<K, V> node = shard(key).nodes.get(key);
+    return node == null || node.getDeadline() <= System.currentTimeMillis() ? null : node.value;
+  }
+
+  /**
+   * @param expiresAt the deadline in epoch milliseconds, or {@link #NEVER}.
+   */
+  public void put(final K key, final V value, final long expiresAt) {
+    Shard<K, V> shard = shard(key);
+    Node<K, V> node = new Node<>(key, value, expiresAt);
+    synchronized (shard) {
+      Node<K, V> previous = shard.nodes.put(key, node);
+      if (previous != null) {
+        shard.wheel.cancel(previous);
+      }
+      if (expiresAt != NEVER) {
+        shard.wheel.schedule(node);
+      }
+    }
+  }
+
+  /**
+   * @return the removed value, or null if there was none or it had expired.
+   */
+  public V remove(final K key) {
+    Shard<K, V> shard = shard(key);
+    Node<K, V> node;
+    synchronized (shard) {
+      node = shard.nodes.remove(key);
+      if (node == null) {
+        return null;
+      }
+      shard.wheel.cancel(node);
+    }
+    return node.getDeadline() <= System.currentTimeMillis() ? null : node.value;
+  }
+
+  /**
+   * Remove the entry only if it still maps to this value.
+   */
+  public boolean remove(final K key, final V value) {
+    Shard<K, V> shard = shard(key);
+    synchronized (shard) {
+      Node<K, V> node = shard.nodes.get(key);
+      if (node == null || !node.value.equals(value)) {
+        return false;
+      }
+      shard.nodes.remove(key);
+      shard.wheel.cancel(node);
+      return true;
+    }
+  }
+
+  /**
+   * Evict every entry whose deadline is at or before <code>now</code>.
+   *
+   * @return the number of evicted entries.
+   */
+  public int expire(final long now) {
+    return expire(now, null);
+  }
+
+  /**
+   * Like {@link #expire(long)}, handing each evicted entry to <code>evicted</code> under its shard's lock.
+   */
+  public int expire(final long now, final BiConsumer<K, V> evicted) {
+    int count = 0;
+    for (Shard<K, V> shard : shards) {
+      synchronized (shard) {
+        count += shard.wheel.advance(now, node -> {
+          shard.nodes.remove(node.key, node);
+          if (evicted != null) {
+            evicted.accept(node.key, node.value);
+          }
+        });
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of entries, including expired ones not evicted yet.
+   */
+  public int size() {
+    int size = 0;
+    for (Shard<K, V> shard : shards) {
+      size += shard.nodes.size();
+    }
+    return size;
+  }
+
+  /**
+   * Visit every live entry. Weakly consistent, like iterating a {@link ConcurrentHashMap}.
+   */
+  public void forEach(final BiConsumer<K, V> action) {
+    long now = System.currentTimeMillis();
+    for (Shard<K, V> shard : shards) {
+      for (Map.Entry<K, Node<K, V>> entry : shard.nodes.entrySet()) {
+        if (entry.getValue().getDeadline() > now) {
+          action.accept(entry.getKey(), entry.getValue().value);
+        }
+      }
+    }
+  }
+
+  private Shard<K, V> shard(final K key) {
+    int hash = key.hashCode();
+    return shards[(hash ^ (hash >>> 16)) & shardMask];
+  }
+
+  private static final class Shard<K, V> {
+
+    private final Map<K, Node<K, V>> nodes = new ConcurrentHashMap<>();
+    private final TimingWheel<Node<K, V>> wheel;
+
+    Shard(final TimingWheel<Node<K, V>> wheel) {
+      this.wheel = wheel;
+    }
+  }
+
+  private static final class Node<K, V> extends TimingWheel.Timeout {
+
+    private final K key;
+    private final V value;
+
+    Node(final K key, final V value, final long expiresAt) {
+      super(expiresAt);
+      this.key = key;
+      this.value = value;
+    }
+  }
+}
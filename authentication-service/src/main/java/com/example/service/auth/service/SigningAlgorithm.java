@@ -0,0 +1,84 @@
+package com.example.service.auth.service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * The JWS algorithms the key ring can sign with, chosen by <code>auth.key-ring.algorithm</code>. ES256 and EdDSA
+ * sign far faster than RS256 and produce much shorter signatures; EdDSA (Ed25519) needs a JDK 15 or newer.
+ */
+public enum SigningAlgorithm {
+
+  RS256("RS256", "RSA", "SHA256withRSA"),
+  ES256("ES256", "EC", "SHA256withECDSA"),
+  EDDSA("EdDSA", "Ed25519", "Ed25519");
+
+  private final String jwsName;
+  private final String keyAlgorithm;
+  private final String signatureAlgorithm;
+
+  SigningAlgorithm(final String jwsName, final String keyAlgorithm, final String signatureAlgorithm) {
+    this.jwsName = jwsName;
+    this.keyAlgorithm = keyAlgorithm;
+    this.signatureAlgorithm = signatureAlgorithm;
+  }
+
+  /**
+   * @return the <code>alg</code> header value.
+   */
+  public String getJwsName() {
+    return jwsName;
+  }
+
+  public String getKeyAlgorithm() {
+    return keyAlgorithm;
+  }
+
+  /**
+   * @return the JCA {@link Signature} algorithm.
+   */
+  public String getSignatureAlgorithm() {
+    return signatureAlgorithm;
+  }
+
+  /**
+   * @param rsaKeySize the modulus size, used for RS256 only.
+   */
+  public KeyPair generateKeyPair(final int rsaKeySize) throws GeneralSecurityException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm);
+    if (this == RS256) {
+      generator.initialize(rsaKeySize);
+    } else if (this == ES256) {
+      generator.initialize(new ECGenParameterSpec("secp256r1"));
+    }
+    return generator.generateKeyPair();
+  }
+
+  /**
+   * @return whether this JDK can generate keys for and sign with this algorithm.
+   */
+  public boolean isAvailable() {
+    try {
+      KeyPairGenerator.getInstance(keyAlgorithm);
+      Signature.getInstance(signatureAlgorithm);
+      return true;
+    } catch (GeneralSecurityException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the algorithm with this <code>alg</code> header value or constant name, ignoring case.
+   */
+  public static SigningAlgorithm fromName(final String name) {
+    for (SigningAlgorithm algorithm : values()) {
+      if (algorithm.jwsName.equalsIgnoreCase(name) || algorithm.name().equalsIgnoreCase(name)) {
+        return algorithm;
+      }
+    }
+    throw new IllegalArgumentException("Unsupported signing algorithm " + name);
+  }
+}
@@ -0,0 +1,204 @@
+package com.example.service.auth.service;
+
+import org.springframework.security.jwt.crypto.sign.InvalidSignatureException;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * One key of the key ring, which signs and verifies compact JWS tokens. The key id is the RFC 7638 (RFC 8037 for
+ * Ed25519) thumbprint of the public key, so every node derives the same <code>kid</code> for the same key without
+ * coordination. The JWS header is encoded once per key, and each thread keeps its own initialized
+ * {@link Signature}s, so signing a token only encodes the claims and computes the signature.
+ * <p>
+ * A key without a private key only verifies.
+ */
+public final class SigningKey {
+
+  private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+  private static final int P256_COMPONENT_LENGTH = 32;
+  private static final int ED25519_KEY_LENGTH = 32;
+  private static final int ED25519_SIGNATURE_LENGTH = 64;
+
+  private final SigningAlgorithm algorithm;
+  private final PublicKey publicKey;
+  private final PrivateKey privateKey;
+  private final Instant createdAt;
+  private final String keyId;
+  private final String jwk;
+  private final String encodedHeader;
+  private final ThreadLocal<Signature> signers;
+  private final ThreadLocal<Signature> verifiers;
+
+  public SigningKey(final SigningAlgorithm algorithm, final PublicKey publicKey, final PrivateKey privateKey,
+      final Instant createdAt) {
+    this.algorithm = algorithm;
+    this.publicKey = publicKey;
+    this.privateKey = privateKey;
+    this.createdAt = createdAt;
+
+    // Members in lexicographic order, as the thumbprint requires; the JWK itself reuses them.
+    String members;
+    if (algorithm == SigningAlgorithm.RS256) {
+      RSAPublicKey rsa = (RSAPublicKey) publicKey;
+      members = "\"e\":\"" + base64Url(KeyEncodings.toUnsigned(rsa.getPublicExponent()))
+          + "\",\"kty\":\"RSA\",\"n\":\"" + base64Url(KeyEncodings.toUnsigned(rsa.getModulus())) + "\"";
+    } else if (algorithm == SigningAlgorithm.ES256) {
+      ECPublicKey ec = (ECPublicKey) publicKey;
+      members = "\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + coordinate(ec.getW().getAffineX())
+          + "\",\"y\":\"" + coordinate(ec.getW().getAffineY()) + "\"";
+    } else {
+      byte[] encoded = publicKey.getEncoded();
+      byte[] x = Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_LENGTH, encoded.length);
+      members = "\"crv\":\"Ed25519\",\"kty\":\"OKP\",\"x\":\"" + base64Url(x) + "\"";
+    }
+    this.keyId = base64Url(sha256("{" + members + "}"));
+    this.jwk = "{" + members + ",\"use\":\"sig\",\"alg\":\"" + algorithm.getJwsName() + "\",\"kid\":\"" + keyId
+        + "\"}";
+    this.encodedHeader = base64Url(("{\"alg\":\"" + algorithm.getJwsName() + "\",\"typ\":\"JWT\",\"kid\":\""
+        + keyId + "\"}").getBytes(StandardCharsets.UTF_8));
+    this.signers = ThreadLocal.withInitial(() -> {
+      try {
+        Signature signature = Signature.getInstance(algorithm.getSignatureAlgorithm());
+        signature.initSign(privateKey);
+        return signature;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException("Cannot sign with " + algorithm.getJwsName(), e);
+      }
+    });
+    this.verifiers = ThreadLocal.withInitial(() -> {
+      try {
+        Signature signature = Signature.getInstance(algorithm.getSignatureAlgorithm());
+        signature.initVerify(publicKey);
+        return signature;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException("Cannot verify with " + algorithm.getJwsName(), e);
+      }
+    });
+  }
+
+  public String getKeyId() {
+    return keyId;
+  }
+
+  public SigningAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  public PublicKey getPublicKey() {
+    return publicKey;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public boolean canSign() {
+    return privateKey != null;
+  }
+
+  /**
+   * @return the claims signed as a compact JWS with this key's <code>alg</code> and <code>kid</code> headers.
+   */
+  public String encode(final String claims) {
+    if (privateKey == null) {
+      throw new IllegalStateException("Key " + keyId + " only verifies");
+    }
+    String signingInput = encodedHeader + "." + base64Url(claims.getBytes(StandardCharsets.UTF_8));
+    try {
+      Signature signer = signers.get();
+      signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+      byte[] signature = signer.sign();
+      if (algorithm == SigningAlgorithm.ES256) {
+        signature = KeyEncodings.derToConcatenated(signature, P256_COMPONENT_LENGTH);
+      }
+      return signingInput + "." + base64Url(signature);
+    } catch (GeneralSecurityException | RuntimeException e) {
+      signers.remove();
+      throw new IllegalStateException("Cannot sign token with key " + keyId, e);
+    }
+  }
+
+  /**
+   * Verify a compact JWS, without looking at its header.
+   *
+   * @return the JSON claims.
+   * @throws InvalidSignatureException if the signature was not made by this key.
+   * @throws IllegalArgumentException if the token is not a compact JWS.
+   */
+  public String decode(final String token) {
+    int firstDot = token.indexOf('.');
+    int lastDot = token.lastIndexOf('.');
+    if (firstDot < 0 || firstDot == lastDot) {
+      throw new IllegalArgumentException("Token is not a compact JWS");
+    }
+    byte[] signature = BASE64_URL_DECODER.decode(token.substring(lastDot + 1));
+    if (algorithm == SigningAlgorithm.ES256) {
+      if (signature.length != P256_COMPONENT_LENGTH * 2) {
+        throw new InvalidSignatureException("ES256 signature must be " + P256_COMPONENT_LENGTH * 2 + " bytes");
+      }
+      signature = KeyEncodings.concatenatedToDer(signature);
+    } else if (algorithm == SigningAlgorithm.EDDSA && signature.length != ED25519_SIGNATURE_LENGTH) {
+      throw new InvalidSignatureException("EdDSA signature must be " + ED25519_SIGNATURE_LENGTH + " bytes");
+    }
+    boolean valid;
+    try {
+      Signature verifier = verifiers.get();
+      verifier.update(token.substring(0, lastDot).getBytes(StandardCharsets.US_ASCII));
+      valid = verifier.verify(signature);
+    } catch (GeneralSecurityException | RuntimeException e) {
+      // A verifier that throws may keep the input it was given (Ed25519 does), which would then be prepended to
+      // the next token verified on this thread; start that one with a fresh verifier.
+      verifiers.remove();
+      throw new InvalidSignatureException("Cannot verify token with key " + keyId + ": " + e.getMessage());
+    }
+    if (!valid) {
+      throw new InvalidSignatureException("Token is not signed by key " + keyId);
+    }
+    return new String(BASE64_URL_DECODER.decode(token.substring(firstDot + 1, lastDot)), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the public key as a JWK.
+   */
+  public String toJwk() {
+    return jwk;
+  }
+
+  /**
+   * @return the public key in PEM format, as served by <code>/oauth/token_key</code>.
+   */
+  public String toPem() {
+    return "-----BEGIN PUBLIC KEY-----\n"
+        + Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(publicKey.getEncoded())
+        + "\n-----END PUBLIC KEY-----";
+  }
+
+  private static String coordinate(final BigInteger value) {
+    return base64Url(KeyEncodings.toUnsigned(value, P256_COMPONENT_LENGTH));
+  }
+
+  private static String base64Url(final byte[] bytes) {
+    return BASE64_URL.encodeToString(bytes);
+  }
+
+  private static byte[] sha256(final String value) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
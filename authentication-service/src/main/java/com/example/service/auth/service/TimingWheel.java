@@ -0,0 +1,186 @@
+package com.example.service.auth.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: <code>levels</code> wheels of 64 slots, where a slot of level <i>n</i> spans
+ * 64<sup><i>n</i></sup> ticks. A timeout sits in the lowest level whose slot is still ahead of the cursor; when the
+ * cursor enters a higher-level slot its timeouts are cascaded one level down, so each timeout is moved at most
+ * <code>levels - 1</code> times and a tick only touches the timeouts that come due or cascade in it. Scheduling
+ * and cancelling are O(1). Four levels of one-second ticks cover about 194 days; later deadlines wait in the
+ * farthest slot of the top level and are placed again each time it comes round.
+ * <p>
+ * Not thread-safe; callers guard the wheel with their own lock.
+ */
+public class TimingWheel<T extends TimingWheel.Timeout> {
+
+  public static final int DEFAULT_LEVELS = 4;
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+
+  private final long tickMillis;
+  private final Timeout[][] wheels;
+  private long currentTick;
+  private int size;
+
+  public TimingWheel(final long tickMillis, final int levels, final long nowMillis) {
+    if (levels < 1 || levels * SLOT_BITS > 60) {
+      throw new IllegalArgumentException("levels must be between 1 and " + 60 / SLOT_BITS);
+    }
+    this.tickMillis = tickMillis;
+    this.wheels = new Timeout[levels][SLOTS];
+    for (Timeout[] wheel : wheels) {
+      for (int slot = 0; slot < SLOTS; slot++) {
+        wheel[slot] = Timeout.sentinel();
+      }
+    }
+    this.currentTick = nowMillis / tickMillis;
+  }
+
+  /**
+   * Schedule a timeout at its deadline, rounded up to the next tick. A deadline that has passed fires on the
+   * next tick.
+   */
+  public void schedule(final T scheduled) {
+    Timeout timeout = scheduled;
+    if (timeout.isScheduled()) {
+      throw new IllegalStateException("Timeout is already scheduled");
+    }
+    long deadline = timeout.getDeadline();
+    timeout.tick = Math.max(deadline / tickMillis + (deadline % tickMillis == 0 ? 0 : 1), currentTick + 1);
+    place(timeout);
+    size++;
+  }
+
+  /**
+   * @return true if the timeout was scheduled and has not fired yet.
+   */
+  public boolean cancel(final T cancelled) {
+    Timeout timeout = cancelled;
+    if (!timeout.isScheduled()) {
+      return false;
+    }
+    timeout.unlink();
+    size--;
+    return true;
+  }
+
+  /**
+   * Move the cursor up to <code>nowMillis</code>, handing every timeout that comes due to <code>expired</code>
+   * after unscheduling it.
+   *
+   * @return the number of expired timeouts.
+   */
+  @SuppressWarnings("unchecked")
+  public int advance(final long nowMillis, final Consumer<? super T> expired) {
+    int count = 0;
+    long target = nowMillis / tickMillis;
+    while (currentTick < target) {
+      currentTick++;
+      // Cascade from the highest level whose slot boundary was crossed, so each cascade may feed the next.
+      int boundary = 0;
+      while (boundary + 1 < wheels.length && (currentTick & ((1L << (SLOT_BITS * (boundary + 1))) - 1)) == 0) {
+        boundary++;
+      }
+      for (int level = boundary; level > 0; level--) {
+        Timeout head = wheels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        Timeout timeout = head.next;
+        while (timeout != head) {
+          Timeout next = timeout.next;
+          timeout.unlink();
+          place(timeout);
+          timeout = next;
+        }
+      }
+
+      Timeout head = wheels[0][(int) (currentTick & SLOT_MASK)];
+      Timeout timeout = head.next;
+      while (timeout != head) {
+        Timeout next = timeout.next;
+        timeout.unlink();
+        if (timeout.tick > currentTick) {
+          // Only a single-level wheel parks deadlines beyond its span in level 0.
+          place(timeout);
+        } else {
+          size--;
+          count++;
+          expired.accept((T) timeout);
+        }
+        timeout = next;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of scheduled timeouts.
+   */
+  public int size() {
+    return size;
+  }
+
+  private void place(final Timeout timeout) {
+    // The highest bit in which the deadline and the cursor differ picks the level whose slot is still ahead.
+    long difference = Math.max(timeout.tick, currentTick) ^ currentTick;
+    int level = difference == 0 ? 0 : (63 - Long.numberOfLeadingZeros(difference)) / SLOT_BITS;
+    long slot;
+    if (level < wheels.length) {
+      slot = timeout.tick >>> (SLOT_BITS * level);
+    } else {
+      // Past the top level's current turn: its slot if it falls within the next turn, otherwise the farthest one.
+      level = wheels.length - 1;
+      long top = currentTick >>> (SLOT_BITS * level);
+      slot = Math.min(timeout.tick >>> (SLOT_BITS * level), top + SLOTS - 1);
+    }
+    timeout.linkBefore(wheels[level][(int) (slot & SLOT_MASK)]);
+  }
+
+  /**
+   * An entry of the wheel. Subclasses carry the payload; the links are intrusive so cancelling needs no lookup.
+   */
+  public static class Timeout {
+
+    private final long deadline;
+    private long tick;
+    private Timeout previous;
+    private Timeout next;
+
+    public Timeout(final long deadline) {
+      this.deadline = deadline;
+    }
+
+    static Timeout sentinel() {
+      Timeout sentinel = new Timeout(Long.MAX_VALUE);
+      sentinel.previous = sentinel;
+      sentinel.next = sentinel;
+      return sentinel;
+    }
+
+    /**
+     * @return the deadline in epoch milliseconds.
+     */
+    public long getDeadline() {
+      return deadline;
+    }
+
+    public boolean isScheduled() {
+      return previous != null;
+    }
+
+    private void linkBefore(final Timeout head) {
+      previous = head.previous;
+      next = head;
+      head.previous.next = this;
+      head.previous = this;
+    }
+
+    private void unlink() {
+      previous.next = next;
+      next.previous = previous;
+      previous = null;
+      next = null;
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package com.example.service.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token ids (<code>jti</code>) revoked before their token expires. A {@link CountingBloomFilter} sits in front of
+ * the exact set, so checking a token that was never revoked, which is nearly every token, costs one hash and one
+ * memory read. Each revocation is kept until the token would have expired anyway, then its timing wheel evicts it
+ * and takes it out of the filter again.
+ * <p>
+ * With <code>auth.revocation.log-path</code>, every revocation is appended to that file before it takes effect.
+ * At startup the log is replayed and rewritten without the revocations that have expired since.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+  private final CountingBloomFilter filter;
+  private final ShardedExpiringMap<String, Long> revoked;
+  private final Path logPath;
+  private final boolean syncLog;
+  private final Counter falsePositives;
+  private FileChannel logChannel;
+
+  @Autowired
+  public TokenRevocationList(
+      @Value("${auth.revocation.expected-entries:65536}") final int expectedEntries,
+      @Value("${auth.revocation.log-path:}") final String logPath,
+      @Value("${auth.revocation.log-sync:true}") final boolean syncLog,
+      @Value("${auth.revocation.tick-millis:1000}") final long tickMillis,
+      final MeterRegistry meterRegistry) throws IOException {
+    this.filter = new CountingBloomFilter(expectedEntries);
+    this.revoked = new ShardedExpiringMap<>(16, tickMillis);
+    this.logPath = StringUtils.hasText(logPath) ? Paths.get(logPath) : null;
+    this.syncLog = syncLog;
+    this.falsePositives = Counter.builder("auth.revocation.bloom.false-positives")
+        .description("Token checks that passed the bloom filter but were not revoked")
+        .register(meterRegistry);
+    Gauge.builder("auth.revocation.store.size", revoked, ShardedExpiringMap::size)
+        .description("Revoked tokens that have not expired yet")
+        .register(meterRegistry);
+    if (this.logPath != null) {
+      replay();
+    }
+  }
+
+  /**
+   * @param tokenId the token's <code>jti</code>; tokens without one cannot be revoked.
+   */
+  public boolean isRevoked(final String tokenId) {
+    if (tokenId == null || !filter.mightContain(CountingBloomFilter.hash(tokenId))) {
+      return false;
+    }
+    if (revoked.get(tokenId) != null) {
+      return true;
+    }
+    falsePositives.increment();
+    return false;
+  }
+
+  /**
+   * Revoke a token until its expiration. Revoking a token again, or one that has already expired, does nothing.
+   *
+   * @throws UncheckedIOException if the revocation cannot be logged; it is then not in effect either.
+   */
+  public synchronized void revoke(final String tokenId, final long expiresAt) {
+    if (expiresAt <= System.currentTimeMillis() || revoked.get(tokenId) != null) {
+      return;
+    }
+    if (logChannel != null) {
+      try {
+        ByteBuffer line = StandardCharsets.UTF_8.encode(expiresAt + " " + tokenId + "\n");
+        while (line.hasRemaining()) {
+          logChannel.write(line);
+        }
+        if (syncLog) {
+          logChannel.force(false);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot log revocation of " + tokenId, e);
+      }
+    }
+    add(tokenId, expiresAt);
+    log.debug("Revoked token {} until {}", tokenId, expiresAt);
+  }
+
+  /**
+   * Evict revocations whose tokens have expired.
+   */
+  @Scheduled(fixedDelayString = "${auth.revocation.tick-millis:1000}")
+  public synchronized void expire() {
+    revoked.expire(System.currentTimeMillis(), (tokenId, hash) -> filter.remove(hash));
+  }
+
+  @PreDestroy
+  public synchronized void close() throws IOException {
+    if (logChannel != null) {
+      logChannel.close();
+      logChannel = null;
+    }
+  }
+
+  private void add(final String tokenId, final long expiresAt) {
+    long hash = CountingBloomFilter.hash(tokenId);
+    // Into the filter first, so a concurrent check never misses an entry that is already in the set.
+    filter.add(hash);
+    revoked.put(tokenId, hash, expiresAt);
+  }
+
+  private void replay() throws IOException {
+    Map<String, Long> live = new LinkedHashMap<>();
+    long now = System.currentTimeMillis();
+    if (Files.exists(logPath)) {
+      try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          int space = line.indexOf(' ');
+          if (space <= 0 || space == line.length() - 1) {
+            // A line torn by a crash mid-write; that revocation was never acknowledged.
+            continue;
+          }
+          try {
+            long expiresAt = Long.parseLong(line.substring(0, space));
+            if (expiresAt > now) {
+              live.put(line.substring(space + 1), expiresAt);
+            }
+          } catch (NumberFormatException e) {
+            log.warn("Skipping malformed revocation log line in {}", logPath);
+          }
+        }
+      }
+    }
+
+    Path parent = logPath.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Path compacted = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+      for (Map.Entry<String, Long> entry : live.entrySet()) {
+        writer.write(entry.getValue() + " " + entry.getKey() + "\n");
+        add(entry.getKey(), entry.getValue());
+      }
+    }
+    Files.move(compacted, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    this.logChannel = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    log.info("Replayed {} live revocations from {}", live.size(), logPath);
+  }
+}
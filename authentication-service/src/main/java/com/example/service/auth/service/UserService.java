@@ -2,6 +2,8 @@ package com.example.service.auth.service;
 
 import com.example.service.auth.domain.User;
 import com.example.service.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +15,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @ComponentScan({"com.medzero.client"})
@@ -24,14 +27,26 @@ public class UserService implements UserDetailsService {
 
   private final UserRepository userRepository;
 
+  private final Timer foundTimer;
+
+  private final Timer notFoundTimer;
+
   @Autowired
-  public UserService(UserRepository userRepository) {
+  public UserService(UserRepository userRepository, MeterRegistry meterRegistry) {
     this.userRepository = userRepository;
+    this.foundTimer = loadTimer(meterRegistry, "found");
+    this.notFoundTimer = loadTimer(meterRegistry, "not_found");
   }
 
+  /**
+   * Timed as <code>auth.user.load</code>; this is the database lookup behind the user cache, so its count is the
+   * number of cache misses.
+   */
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    long startedAt = System.nanoTime();
     Optional<User> response = userRepository.findByUsername(username);
+    (response.isPresent() ? foundTimer : notFoundTimer).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
     if (response.isPresent()) {
       return response.get();
     }
@@ -39,4 +54,27 @@ public class UserService implements UserDetailsService {
     LOG.debug(msg);
     throw new UsernameNotFoundException(msg);
   }
+
+  /**
+   * Store a new password hash for the user.
+   *
+   * @return the saved user, or empty if there is no user with that username.
+   */
+  public Optional<User> updatePassword(String username, String encodedPassword) {
+    Optional<User> response = userRepository.findByUsername(username);
+    if (response.isPresent()) {
+      User user = response.get();
+      user.setPassword(encodedPassword);
+      return Optional.of(userRepository.save(user));
+    }
+    LOG.debug("Couldn't update the password of unknown username {}", username);
+    return Optional.empty();
+  }
+
+  private static Timer loadTimer(MeterRegistry meterRegistry, String outcome) {
+    return Timer.builder("auth.user.load")
+        .description("User lookups in the database")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
 }
@@ -0,0 +1,137 @@
+package com.example.service.auth.validation;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates the usernames and passwords the internal services send to the user endpoints. The checks are
+ * hand-written equivalents of {@link ValidationRegex#UUID_PATTERN} and {@link ValidationRegex#BCRYPT_PATTERN}, so
+ * a valid request is checked without compiling a pattern or allocating; only rejected requests build a list of
+ * {@link ValidationError}s.
+ */
+@Component
+public class CredentialValidator {
+
+  private static final int UUID_LENGTH = 36;
+  private static final int BCRYPT_LENGTH = 60;
+
+  /**
+   * Validate the credentials of a password verification.
+   *
+   * @throws ValidationException if the username is not a UUID or the password is empty.
+   */
+  public void validateVerification(final String usernameField, final String username,
+      final String passwordField, final String password) {
+    List<ValidationError> errors = checkUsername(usernameField, username);
+    if (!hasText(password)) {
+      errors = add(errors, new ValidationError(passwordField, ValidationError.MISSING,
+          passwordField + " must not be empty"));
+    }
+    throwIfAny(errors);
+  }
+
+  /**
+   * Validate the credentials of a password update, where the password is already BCrypt-encoded.
+   *
+   * @throws ValidationException if the username is not a UUID or the password is not a BCrypt hash.
+   */
+  public void validateUpdate(final String usernameField, final String username,
+      final String passwordField, final String encodedPassword) {
+    List<ValidationError> errors = checkUsername(usernameField, username);
+    if (!hasText(encodedPassword)) {
+      errors = add(errors, new ValidationError(passwordField, ValidationError.MISSING,
+          passwordField + " must not be empty"));
+    } else if (!isBCryptHash(encodedPassword)) {
+      // The value is a password hash, so it is deliberately left out of the message.
+      errors = add(errors, new ValidationError(passwordField, ValidationError.INVALID_FORMAT,
+          passwordField + " must be a BCrypt hash"));
+    }
+    throwIfAny(errors);
+  }
+
+  /**
+   * Same result as matching {@link ValidationRegex#UUID_PATTERN}.
+   */
+  public static boolean isUuid(final CharSequence value) {
+    if (value == null || value.length() != UUID_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < UUID_LENGTH; i++) {
+      char c = value.charAt(i);
+      if (i == 8 || i == 13 || i == 18 || i == 23) {
+        if (c != '-') {
+          return false;
+        }
+      } else if (!isHexDigit(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Same result as matching {@link ValidationRegex#BCRYPT_PATTERN}: <code>$2a$</code>, <code>$2b$</code> or
+   * <code>$2y$</code> followed by 56 characters that are not line terminators.
+   */
+  public static boolean isBCryptHash(final CharSequence value) {
+    if (value == null || value.length() != BCRYPT_LENGTH) {
+      return false;
+    }
+    char minor = value.charAt(2);
+    if (value.charAt(0) != '$' || value.charAt(1) != '2' || value.charAt(3) != '$'
+        || (minor != 'a' && minor != 'b' && minor != 'y')) {
+      return false;
+    }
+    for (int i = 4; i < BCRYPT_LENGTH; i++) {
+      if (isLineTerminator(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<ValidationError> checkUsername(final String field, final String username) {
+    if (!hasText(username)) {
+      return add(null, new ValidationError(field, ValidationError.MISSING, field + " must not be empty"));
+    }
+    if (!isUuid(username)) {
+      return add(null, new ValidationError(field, ValidationError.INVALID_FORMAT, field + " must be a UUID"));
+    }
+    return null;
+  }
+
+  private static List<ValidationError> add(final List<ValidationError> errors, final ValidationError error) {
+    List<ValidationError> result = errors != null ? errors : new ArrayList<>(2);
+    result.add(error);
+    return result;
+  }
+
+  private static void throwIfAny(final List<ValidationError> errors) {
+    if (errors != null) {
+      throw new ValidationException(errors);
+    }
+  }
+
+  private static boolean hasText(final String value) {
+    if (value == null) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (!Character.isWhitespace(value.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isHexDigit(final char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  // The characters that '.' does not match without DOTALL.
+  private static boolean isLineTerminator(final char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+}
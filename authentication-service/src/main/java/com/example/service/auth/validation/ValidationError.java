@@ -0,0 +1,19 @@
+package com.example.service.auth.validation;
+
+import lombok.Value;
+
+/**
+ * One rejected request value. <code>field</code> names the header or property as the client sent it, and
+ * <code>code</code> is a stable identifier clients can switch on.
+ */
+@Value
+public class ValidationError {
+
+  public static final String MISSING = "missing";
+  public static final String INVALID_FORMAT = "invalid_format";
+  public static final String TOO_LARGE = "too_large";
+
+  private final String field;
+  private final String code;
+  private final String message;
+}
@@ -0,0 +1,21 @@
+package com.example.service.auth.validation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when request values fail validation. Carries every error found, not just the first.
+ */
+public class ValidationException extends RuntimeException {
+
+  private final List<ValidationError> errors;
+
+  public ValidationException(final List<ValidationError> errors) {
+    super(errors.isEmpty() ? "Validation failed" : errors.get(0).getMessage());
+    this.errors = Collections.unmodifiableList(errors);
+  }
+
+  public List<ValidationError> getErrors() {
+    return errors;
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.domain.User;
+import com.example.service.auth.repository.UserRepository;
+import com.example.service.auth.service.AdaptiveBCryptPasswordEncoder;
+import com.example.service.auth.service.CachingUserDetailsService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs with a BCrypt cost of {@value #STRENGTH}, one above the cheapest, so that a user stored at the cheapest
+ * cost is upgraded on login.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "auth.password.strength=" + AdaptiveBCryptPasswordEncoderTests.STRENGTH)
+@AutoConfigureMockMvc
+public class AdaptiveBCryptPasswordEncoderTests {
+
+  static final int STRENGTH = AdaptiveBCryptPasswordEncoder.MIN_STRENGTH + 1;
+
+  private static final String USERNAME = "5e4d3c2b-1a09-4f8e-8d7c-6b5a4f3e2d1c";
+  private static final String SALT_AND_HASH = "abcdefghijklmnopqrstuvABCDEFGHIJKLMNOPQRSTUVWXYZ01234";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private CachingUserDetailsService userDetailsService;
+
+  @Test
+  public void costIsReadFromEveryBCryptVersion() {
+    assertEquals(4, AdaptiveBCryptPasswordEncoder.costOf("$2a$04$" + SALT_AND_HASH));
+    assertEquals(10, AdaptiveBCryptPasswordEncoder.costOf("$2b$10$" + SALT_AND_HASH));
+    assertEquals(31, AdaptiveBCryptPasswordEncoder.costOf("$2y$31$" + SALT_AND_HASH));
+    assertEquals(12, AdaptiveBCryptPasswordEncoder.costOf(new BCryptPasswordEncoder(12).encode("password")));
+  }
+
+  @Test
+  public void nonBCryptValuesHaveNoCost() {
+    for (String value : new String[] {null, "", "password", "$2a$", "$2a$1x$" + SALT_AND_HASH,
+        "{noop}password", "$2a04$" + SALT_AND_HASH, "x2a$04$" + SALT_AND_HASH}) {
+      assertEquals(String.valueOf(value), -1, AdaptiveBCryptPasswordEncoder.costOf(value));
+    }
+  }
+
+  @Test
+  public void onlyCheaperHashesNeedAnUpgrade() {
+    AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(10);
+
+    assertTrue(encoder.upgradeEncoding("$2a$04$" + SALT_AND_HASH));
+    assertFalse(encoder.upgradeEncoding("$2a$10$" + SALT_AND_HASH));
+    assertFalse(encoder.upgradeEncoding("$2a$12$" + SALT_AND_HASH));
+    assertFalse(encoder.upgradeEncoding("password"));
+  }
+
+  @Test
+  public void loginRehashesAPasswordStoredAtALowerCost() throws Exception {
+    User user = userRepository.findByUsername(USERNAME).orElseGet(User::new);
+    user.setUsername(USERNAME);
+    user.setPassword(new BCryptPasswordEncoder(AdaptiveBCryptPasswordEncoder.MIN_STRENGTH).encode("password"));
+    user.setActive(true);
+    user.setRoles("USER");
+    userRepository.save(user);
+    userDetailsService.invalidate(USERNAME);
+    UserDetails cached = userDetailsService.loadUserByUsername(USERNAME);
+    assertSame(cached, userDetailsService.loadUserByUsername(USERNAME));
+
+    passwordGrant().andExpect(status().isOk());
+
+    String stored = userRepository.findByUsername(USERNAME).get().getPassword();
+    assertEquals(STRENGTH, AdaptiveBCryptPasswordEncoder.costOf(stored));
+    UserDetails reloaded = userDetailsService.loadUserByUsername(USERNAME);
+    assertNotSame(cached, reloaded);
+    assertEquals(stored, reloaded.getPassword());
+    passwordGrant().andExpect(status().isOk());
+  }
+
+  private ResultActions passwordGrant() throws Exception {
+    return mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "password")
+        .param("username", USERNAME)
+        .param("password", "password"));
+  }
+}
@@ -0,0 +1,150 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.domain.User;
+import com.example.service.auth.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares the throughput of the blocking and the async password verification endpoints with Tomcat limited to
+ * {@value #TOMCAT_THREADS} threads and the hashing pool to {@value #HASHING_THREADS}. The blocking endpoint can
+ * only hash as many passwords at once as there are Tomcat threads; the async one releases them and keeps the whole
+ * hashing pool busy.
+ * <p>
+ * Takes about half a minute, so it only runs with <code>-Dauth.load-tests=true</code>.
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "server.tomcat.max-threads=" + AsyncPasswordEndpointLoadTests.TOMCAT_THREADS,
+    "auth.password-hashing.threads=" + AsyncPasswordEndpointLoadTests.HASHING_THREADS,
+    "auth.password-hashing.queue-capacity=256",
+    "auth.password.strength=10"
+})
+public class AsyncPasswordEndpointLoadTests {
+
+  static final int TOMCAT_THREADS = 2;
+  static final int HASHING_THREADS = 8;
+
+  private static final int CLIENTS = 32;
+  private static final long WARMUP_MILLIS = 3_000;
+  private static final long MEASURE_MILLIS = 10_000;
+  private static final String USERNAME = "3c9e2f4a-7b1d-4e6f-9a8b-5c4d3e2f1a00";
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  private String accessToken;
+
+  @Before
+  public void before() {
+    assumeTrue("Set -Dauth.load-tests=true to run load tests", Boolean.getBoolean("auth.load-tests"));
+    assumeTrue("Needs at least " + HASHING_THREADS / 2 + " processors",
+        Runtime.getRuntime().availableProcessors() >= HASHING_THREADS / 2);
+    if (!userRepository.findByUsername(USERNAME).isPresent()) {
+      User user = new User();
+      user.setUsername(USERNAME);
+      user.setPassword(passwordEncoder.encode("password"));
+      user.setActive(true);
+      user.setRoles("USER");
+      userRepository.save(user);
+    }
+    accessToken = accessToken();
+  }
+
+  @Test
+  public void asyncEndpointServesMoreRequestsPerSecond() throws Exception {
+    double blocking = throughput("/users/verifyUserPassword");
+    double async = throughput("/users/verifyUserPasswordAsync");
+
+    log.info("verifyUserPassword: {} req/s, verifyUserPasswordAsync: {} req/s ({} Tomcat threads)",
+        String.format("%.1f", blocking), String.format("%.1f", async), TOMCAT_THREADS);
+    assertTrue("async " + async + " req/s should beat blocking " + blocking + " req/s", async > blocking);
+  }
+
+  private double throughput(String path) throws Exception {
+    run(path, WARMUP_MILLIS);
+    return run(path, MEASURE_MILLIS) * 1000.0 / MEASURE_MILLIS;
+  }
+
+  private long run(String path, long millis) throws Exception {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(accessToken);
+    headers.set("USER_ID", USERNAME);
+    headers.set("PASSWORD", "password");
+    HttpEntity<Void> request = new HttpEntity<>(headers);
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+
+    ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+    try {
+      List<Future<Long>> results = new ArrayList<>();
+      for (int i = 0; i < CLIENTS; i++) {
+        results.add(clients.submit(() -> {
+          long completed = 0;
+          while (System.nanoTime() < deadline) {
+            ResponseEntity<Boolean> response = restTemplate.exchange(path, HttpMethod.GET, request, Boolean.class);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(Boolean.TRUE, response.getBody());
+            completed++;
+          }
+          return completed;
+        }));
+      }
+      long completed = 0;
+      for (Future<Long> result : results) {
+        completed += result.get();
+      }
+      return completed;
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private String accessToken() {
+    MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+    params.add("grant_type", "password");
+    params.add("username", "user");
+    params.add("password", "password");
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+    ResponseEntity<Map> response = restTemplate.withBasicAuth("proxy-client", "client-secret")
+        .postForEntity("/oauth/token", new HttpEntity<>(params, headers), Map.class);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    return (String) ((Map<String, Object>) response.getBody()).get("access_token");
+  }
+}
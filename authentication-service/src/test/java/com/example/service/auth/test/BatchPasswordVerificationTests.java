@@ -0,0 +1,174 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.domain.Credential;
+import com.example.service.auth.domain.User;
+import com.example.service.auth.repository.UserRepository;
+import com.example.service.auth.service.BatchPasswordVerificationService;
+import com.example.service.auth.service.BoundedPasswordEncoder;
+import com.example.service.auth.service.PasswordHashingExecutor;
+import com.example.service.auth.service.PasswordHashingRejectedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.fail;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BatchPasswordVerificationTests {
+
+  private static final String FIRST = "0b3f6c1e-6c0a-4d8e-9a51-2f0c7d9b1a11";
+  private static final String SECOND = "5d2e7a90-1b4c-4f3e-8c6d-7e8f9a0b1c22";
+  private static final String UNKNOWN = "9e8d7c6b-5a4f-4e3d-2c1b-0a9f8e7d6c33";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @Before
+  public void before() {
+    save(FIRST, "first-password");
+    save(SECOND, "second-password");
+  }
+
+  @Test
+  public void resultsFollowRequestOrder() throws Exception {
+    String body = "["
+        + credential(SECOND, "second-password") + ","
+        + credential(UNKNOWN, "password") + ","
+        + credential(FIRST, "wrong-password") + ","
+        + credential(FIRST, "first-password")
+        + "]";
+
+    MvcResult result = mockMvc.perform(post("/users/verifyUserPasswords")
+        .header("Authorization", "Bearer " + accessToken())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().json("["
+            + "{\"username\":\"" + SECOND + "\",\"matches\":true},"
+            + "{\"username\":\"" + UNKNOWN + "\",\"matches\":false},"
+            + "{\"username\":\"" + FIRST + "\",\"matches\":false},"
+            + "{\"username\":\"" + FIRST + "\",\"matches\":true}"
+            + "]", true));
+  }
+
+  @Test
+  public void invalidCredentialsAreReportedByIndex() throws Exception {
+    mockMvc.perform(post("/users/verifyUserPasswords")
+        .header("Authorization", "Bearer " + accessToken())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[" + credential(FIRST, "first-password") + "," + credential("user", "") + "]"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errors.length()").value(2))
+        .andExpect(jsonPath("$.errors[0].field").value("[1].username"))
+        .andExpect(jsonPath("$.errors[1].field").value("[1].password"));
+  }
+
+  @Test
+  public void bodyMustBeAnArray() throws Exception {
+    mockMvc.perform(post("/users/verifyUserPasswords")
+        .header("Authorization", "Bearer " + accessToken())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(credential(FIRST, "first-password")))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errors[0].field").value("body"));
+  }
+
+  /**
+   * A check that never finishes fails the batch after the pool's timeout instead of holding the response open.
+   */
+  @Test
+  public void stuckCheckIsRejectedAfterTheTimeout() {
+    CountDownLatch release = new CountDownLatch(1);
+    PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 100, new SimpleMeterRegistry());
+    PasswordEncoder stuck = new PasswordEncoder() {
+      @Override
+      public String encode(CharSequence rawPassword) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try {
+          return release.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+    };
+    BatchPasswordVerificationService service = new BatchPasswordVerificationService(userRepository,
+        new BoundedPasswordEncoder(stuck, executor), executor, 0, 10);
+    try {
+      service.verify(Collections.singletonList(new Credential(FIRST, "first-password")));
+      fail("A stuck check was waited for without a timeout");
+    } catch (PasswordHashingRejectedException expected) {
+      // answered with 503 before any result is written
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * /users/** is served by the resource server chain, which only accepts an OAuth2 access token.
+   */
+  private String accessToken() throws Exception {
+    MvcResult result = mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "password")
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().isOk())
+        .andReturn();
+    return new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("access_token").asText();
+  }
+
+  private void save(String username, String password) {
+    if (userRepository.findByUsername(username).isPresent()) {
+      return;
+    }
+    User user = new User();
+    user.setUsername(username);
+    user.setPassword(passwordEncoder.encode(password));
+    user.setActive(true);
+    user.setRoles("USER");
+    userRepository.save(user);
+  }
+
+  private static String credential(String username, String password) {
+    return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+  }
+}
@@ -0,0 +1,31 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.service.ConsumerService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ConsumerServiceTests {
+
+  private static final String PROXY_LOGIN_CALLBACK = "http://localhost:9000/login/oauth2/code/proxy-client";
+
+  @Autowired
+  private ConsumerService consumerService;
+
+  @Test
+  public void onlyTheProxyClientReturnsToTheProxyLoginCallback() {
+    assertTrue(consumerService.loadClientByClientId("proxy-client").getRegisteredRedirectUri()
+        .contains(PROXY_LOGIN_CALLBACK));
+    assertFalse(consumerService.loadClientByClientId("other-client").getRegisteredRedirectUri()
+        .contains(PROXY_LOGIN_CALLBACK));
+    assertTrue(consumerService.loadClientByClientId("other-client").getRegisteredRedirectUri()
+        .contains("http://localhost:9000/login"));
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.validation.CredentialValidator;
+import com.example.service.auth.validation.ValidationRegex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CredentialValidatorTests {
+
+  private static final String USERNAME = "8f14e45f-ceea-467f-a0e6-7c2b3f1d9a4e";
+  private static final String HASH = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  public void handWrittenChecksAgreeWithPatterns() {
+    Pattern uuid = Pattern.compile(ValidationRegex.UUID_PATTERN);
+    Pattern bcrypt = Pattern.compile(ValidationRegex.BCRYPT_PATTERN);
+    List<String> samples = Arrays.asList(USERNAME, HASH, "", "user", USERNAME.toUpperCase(),
+        USERNAME.replace('-', '_'), USERNAME + "0", USERNAME.substring(1), USERNAME.replace('f', 'g'),
+        HASH.replace("$2a$", "$2b$"), HASH.replace("$2a$", "$2y$"), HASH.replace("$2a$", "$2x$"),
+        HASH.substring(1), HASH + "x", HASH.substring(0, 30) + "\n" + HASH.substring(31),
+        HASH.substring(0, 30) + " " + HASH.substring(31), HASH.substring(0, 30) + "\t" + HASH.substring(31));
+
+    for (String sample : samples) {
+      assertEquals(sample, uuid.matcher(sample).matches(), CredentialValidator.isUuid(sample));
+      assertEquals(sample, bcrypt.matcher(sample).matches(), CredentialValidator.isBCryptHash(sample));
+    }
+  }
+
+  @Test
+  public void invalidUpdateListsEveryError() throws Exception {
+    mockMvc.perform(post("/users/updateUserPassword")
+        .header("Authorization", "Bearer " + accessToken())
+        .header("USER_ID", "user")
+        .header("PASSWORD", "password"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("invalid_request"))
+        .andExpect(jsonPath("$.errors.length()").value(2))
+        .andExpect(jsonPath("$.errors[0].field").value("USER_ID"))
+        .andExpect(jsonPath("$.errors[0].code").value("invalid_format"))
+        .andExpect(jsonPath("$.errors[1].field").value("PASSWORD"))
+        .andExpect(jsonPath("$.errors[1].code").value("invalid_format"));
+  }
+
+  @Test
+  public void missingHeaderIsReported() throws Exception {
+    mockMvc.perform(get("/users/verifyUserPassword")
+        .header("Authorization", "Bearer " + accessToken())
+        .header("USER_ID", USERNAME))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errors[0].field").value("PASSWORD"))
+        .andExpect(jsonPath("$.errors[0].code").value("missing"));
+  }
+
+  @Test
+  public void validVerificationOfUnknownUserIsFalse() throws Exception {
+    mockMvc.perform(get("/users/verifyUserPassword")
+        .header("Authorization", "Bearer " + accessToken())
+        .header("USER_ID", USERNAME)
+        .header("PASSWORD", "password"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$").value(false));
+  }
+
+  /**
+   * /users/** is served by the resource server chain, which only accepts an OAuth2 access token.
+   */
+  private String accessToken() throws Exception {
+    MvcResult result = mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "password")
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().isOk())
+        .andReturn();
+    return new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("access_token").asText();
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.domain.AuthorizationCode;
+import com.example.service.auth.repository.AuthorizationCodeRepository;
+import com.example.service.auth.service.JpaAuthorizationCodeServices;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.util.SerializationUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "auth.authorization-code.store=jpa")
+public class JpaAuthorizationCodeServicesTests {
+
+  @Autowired
+  private JpaAuthorizationCodeServices authorizationCodeServices;
+
+  @Autowired
+  private AuthorizationCodeRepository repository;
+
+  @Test
+  public void codesCanBeConsumedOnce() {
+    String code = authorizationCodeServices.createAuthorizationCode(authentication("user"));
+
+    assertEquals("user", authorizationCodeServices.consumeAuthorizationCode(code).getName());
+    assertFalse(repository.existsById(code));
+    try {
+      authorizationCodeServices.consumeAuthorizationCode(code);
+      throw new AssertionError("A consumed code was accepted again");
+    } catch (InvalidGrantException expected) {
+      // the row is gone, so the guarded delete matches nothing
+    }
+  }
+
+  @Test
+  public void concurrentlyIssuedCodesAreAllStored() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<String>> codes = new ArrayList<>();
+      for (int i = 0; i < 256; i++) {
+        String username = "user" + i;
+        codes.add(executor.submit(() -> authorizationCodeServices.createAuthorizationCode(authentication(username))));
+      }
+      for (int i = 0; i < codes.size(); i++) {
+        assertEquals("user" + i, authorizationCodeServices.consumeAuthorizationCode(codes.get(i).get()).getName());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void expiredCodesArePurgedAndCannotBeConsumed() {
+    byte[] authentication = SerializationUtils.serialize(authentication("user"));
+    repository.save(new AuthorizationCode("expired", authentication, System.currentTimeMillis() - 1));
+    repository.save(new AuthorizationCode("live", authentication, System.currentTimeMillis() + 60_000));
+
+    try {
+      authorizationCodeServices.consumeAuthorizationCode("expired");
+      throw new AssertionError("An expired code was accepted");
+    } catch (InvalidGrantException expected) {
+      // the guarded delete refuses it even before the purge runs
+    }
+
+    authorizationCodeServices.purge();
+    assertFalse(repository.existsById("expired"));
+    assertTrue(repository.existsById("live"));
+    repository.deleteById("live");
+  }
+
+  private static OAuth2Authentication authentication(final String username) {
+    OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "proxy-client",
+        AuthorityUtils.createAuthorityList("ROLE_CLIENT"), true, Collections.singleton("read"),
+        Collections.emptySet(), "http://localhost:9000/login", Collections.emptySet(), Collections.emptyMap());
+    return new OAuth2Authentication(request,
+        new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+  }
+}
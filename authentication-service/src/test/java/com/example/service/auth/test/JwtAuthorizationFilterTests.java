@@ -0,0 +1,144 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.filter.JwtAuthorizationFilter;
+import com.example.service.auth.filter.JwtCodec;
+import com.example.service.auth.filter.JwtVerificationResult;
+import com.example.service.auth.filter.VerifiedTokenCache;
+import com.example.service.auth.service.TokenRevocationList;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JwtAuthorizationFilterTests {
+
+  private static final String KEY = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+  private final JwtCodec jwtCodec = new JwtCodec(KEY);
+
+  private MeterRegistry meterRegistry;
+  private VerifiedTokenCache verifiedTokenCache;
+  private TokenRevocationList revocationList;
+  private JwtAuthorizationFilter filter;
+
+  @Before
+  public void before() throws Exception {
+    meterRegistry = new SimpleMeterRegistry();
+    verifiedTokenCache = new VerifiedTokenCache(100, 600, meterRegistry);
+    revocationList = new TokenRevocationList(1024, "", false, 1000, meterRegistry);
+    filter = new JwtAuthorizationFilter(jwtCodec, verifiedTokenCache, revocationList,
+        authentication -> authentication, meterRegistry);
+  }
+
+  @After
+  public void after() throws Exception {
+    SecurityContextHolder.clearContext();
+    revocationList.close();
+  }
+
+  @Test
+  public void validTokenAuthenticatesTheRequest() throws Exception {
+    doFilter(jwtCodec.encode("user", Collections.singletonList("ROLE_USER"), inMillis(60_000)));
+
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    assertNotNull(authentication);
+    assertEquals("user", authentication.getName());
+    assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+  }
+
+  @Test
+  public void verifiedTokensComeFromTheCache() {
+    String token = jwtCodec.encode("user", Collections.singletonList("ROLE_USER"), inMillis(60_000));
+
+    assertEquals(JwtVerificationResult.Status.VALID, filter.verify(token).getStatus());
+    assertEquals(0, verifiedTokenCache.hitCount());
+    assertEquals(JwtVerificationResult.Status.VALID, filter.verify(token).getStatus());
+    assertEquals(1, verifiedTokenCache.hitCount());
+  }
+
+  @Test
+  public void malformedTokensAreRejectedBeforeParsing() {
+    for (String token : new String[] {"", "a.b", "a.b.c.d", "a..c", ".b.c", "a.b.", "a+b.cd.e", "a.b/c.d",
+        "a.b.c=", "a b.c.d"}) {
+      assertEquals(token, JwtVerificationResult.Status.MALFORMED, filter.verify(token).getStatus());
+      assertFalse(token, JwtAuthorizationFilter.isCompactJws(token));
+    }
+    assertTrue(JwtAuthorizationFilter.isCompactJws("aZ09-_.aZ09-_.aZ09-_"));
+  }
+
+  @Test
+  public void expiredTokenIsRejected() throws Exception {
+    String token = jwtCodec.encode("user", Collections.singletonList("ROLE_USER"), inMillis(-60_000));
+
+    assertEquals(JwtVerificationResult.Status.EXPIRED, filter.verify(token).getStatus());
+    doFilter(token);
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+  }
+
+  @Test
+  public void tokenSignedWithAnotherKeyIsRejected() throws Exception {
+    JwtCodec otherCodec = new JwtCodec(new StringBuilder(KEY).reverse().toString());
+    String token = otherCodec.encode("user", Collections.singletonList("ROLE_USER"), inMillis(60_000));
+
+    assertEquals(JwtVerificationResult.Status.BAD_SIGNATURE, filter.verify(token).getStatus());
+    doFilter(token);
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+  }
+
+  @Test
+  public void revokedTokenIsRejectedEvenWhenCached() {
+    String token = jwtCodec.encode("user", Collections.singletonList("ROLE_USER"), inMillis(60_000));
+    assertEquals(JwtVerificationResult.Status.VALID, filter.verify(token).getStatus());
+
+    revocationList.revoke(jwtCodec.parse(token).getId(), System.currentTimeMillis() + 60_000);
+
+    assertEquals(JwtVerificationResult.Status.REVOKED, filter.verify(token).getStatus());
+    assertEquals(1, verifiedTokenCache.hitCount());
+  }
+
+  @Test
+  public void verificationsAreTimedByStatusAndCache() {
+    String token = jwtCodec.encode("user", Collections.singletonList("ROLE_USER"), inMillis(60_000));
+    filter.verify(token);
+    filter.verify(token);
+    filter.verify("a.b");
+
+    assertEquals(1, timer(JwtVerificationResult.Status.VALID, false).count());
+    assertEquals(1, timer(JwtVerificationResult.Status.VALID, true).count());
+    assertEquals(1, timer(JwtVerificationResult.Status.MALFORMED, false).count());
+    assertEquals(0, timer(JwtVerificationResult.Status.EXPIRED, false).count());
+  }
+
+  private void doFilter(final String token) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/verifyUserPassword");
+    request.addHeader("Authorization", "Bearer " + token);
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+  }
+
+  private Timer timer(final JwtVerificationResult.Status status, final boolean cached) {
+    return meterRegistry.get("auth.jwt.verification")
+        .tag("status", status.name().toLowerCase())
+        .tag("cached", String.valueOf(cached))
+        .timer();
+  }
+
+  private static Date inMillis(final long millis) {
+    return new Date(System.currentTimeMillis() + millis);
+  }
+}
@@ -0,0 +1,95 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.constants.SecurityConstants;
+import com.example.service.auth.filter.JwtCodec;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+public class JwtCodecTests {
+
+  private static final String KEY = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+  private final JwtCodec jwtCodec = new JwtCodec(KEY);
+
+  @Test
+  public void encodedTokensParseBack() {
+    Date expiration = new Date(System.currentTimeMillis() + 60_000);
+    String token = jwtCodec.encode("user", Arrays.asList("ROLE_USER", "ROLE_ADMIN"), expiration);
+
+    String header = new String(Base64.getUrlDecoder().decode(token.split("\\.")[0]), StandardCharsets.UTF_8);
+    assertEquals("{\"typ\":\"JWT\",\"alg\":\"" + jwtCodec.getAlgorithm().getValue() + "\"}", header);
+
+    Claims claims = jwtCodec.parse(token);
+    assertEquals("user", claims.getSubject());
+    assertEquals(SecurityConstants.TOKEN_ISSUER, claims.getIssuer());
+    assertEquals(SecurityConstants.TOKEN_AUDIENCE, claims.getAudience());
+    assertEquals(expiration.getTime() / 1000, claims.getExpiration().getTime() / 1000);
+    assertEquals(Arrays.asList("ROLE_USER", "ROLE_ADMIN"), claims.get("roles", List.class));
+    assertNotNull(claims.getId());
+    assertNotEquals(claims.getId(), jwtCodec.parse(jwtCodec.encode("user", Arrays.asList("ROLE_USER"), expiration))
+        .getId());
+  }
+
+  @Test
+  public void tokensFromTheJwtBuilderStillVerify() {
+    String token = Jwts.builder()
+        .signWith(jwtCodec.getSigningKey(), jwtCodec.getAlgorithm())
+        .setHeaderParam("typ", SecurityConstants.TOKEN_TYPE)
+        .setIssuer(SecurityConstants.TOKEN_ISSUER)
+        .setAudience(SecurityConstants.TOKEN_AUDIENCE)
+        .setSubject("user")
+        .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+        .claim("roles", Arrays.asList("ROLE_USER"))
+        .compact();
+
+    Claims claims = jwtCodec.parse(token);
+    assertEquals("user", claims.getSubject());
+    assertEquals(Arrays.asList("ROLE_USER"), claims.get("roles", List.class));
+  }
+
+  @Test
+  public void alteredPayloadIsRejected() {
+    String[] parts = jwtCodec.encode("user", Arrays.asList("ROLE_USER"), new Date(System.currentTimeMillis() + 60_000))
+        .split("\\.");
+    byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+    String json = new String(payload, StandardCharsets.UTF_8);
+    payload[json.indexOf("\"user\"") + 1] ^= 0x20;
+
+    assertRejected(parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + "." + parts[2]);
+  }
+
+  @Test
+  public void alteredSignatureIsRejected() {
+    String[] parts = jwtCodec.encode("user", Arrays.asList("ROLE_USER"), new Date(System.currentTimeMillis() + 60_000))
+        .split("\\.");
+    byte[] signature = Base64.getUrlDecoder().decode(parts[2]);
+    signature[0] ^= 0x01;
+
+    assertRejected(parts[0] + "." + parts[1] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature));
+  }
+
+  private void assertRejected(final String token) {
+    try {
+      jwtCodec.parse(token);
+      fail("Altered token was accepted");
+    } catch (SignatureException expected) {
+      // the signature no longer matches
+    } catch (JwtException e) {
+      fail("Expected a signature failure, got " + e);
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.service.KeyEncodings;
+import com.example.service.auth.service.SigningAlgorithm;
+import com.example.service.auth.service.SigningKey;
+import org.junit.Test;
+import org.springframework.security.jwt.crypto.sign.InvalidSignatureException;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class KeyEncodingsTests {
+
+  private static final String CLAIMS = "{\"user_name\":\"user\",\"exp\":4102444800}";
+
+  /**
+   * RFC 7638, section 3.1.
+   */
+  private static final String RFC7638_N = "0vx7agoebGcQSuuPiLJXZptN9nndrQmbXEps2aiAFbWhM78LhWx4cbbfAAtVT86zwu1RK7aPFF"
+      + "xuhDR1L6tSoc_BJECPebWKRXjBZCiFV4n3oknjhMstn64tZ_2W-5JsGY4Hc5n9yBXArwl93lqt7_RN5w6Cf0h4QyQ5v-65YGjQR0_FDW2Qv"
+      + "zqY368QQMicAtaSqzs8KJZgnYb9c7d0zgdAZHzu6qMQvRL5hajrn1n91CbOpbISD08qNLyrdkt-bFTWhAI4vMQFh6WeZu0fM4lFd2NcRwr3X"
+      + "PksINHaQ-G_xBniIqbw0Ls1jF44-csFCur-kEgU8awapJzKnqDKgw";
+  private static final String RFC7638_THUMBPRINT = "NzbLsXh8uDCcd-6MNwXF4W_7noWXFZAfHkxZsRGC9Xs";
+
+  /**
+   * RFC 8037, appendix A.2 and A.3.
+   */
+  private static final String RFC8037_X = "11qYAYKxCrfVS_7TyWQHOg7hcvPapiMlrwIaaPcHURo";
+  private static final String RFC8037_THUMBPRINT = "kPrK_qmxVWaYVA9wwBF6Iuo3vVzz7TxHCTwXBygrS4k";
+
+  /**
+   * The fixed SubjectPublicKeyInfo prefix of an Ed25519 public key, before its 32 bytes.
+   */
+  private static final byte[] ED25519_SPKI_PREFIX = {0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03,
+      0x21, 0x00};
+
+  @Test
+  public void rs256TokensRoundTrip() throws Exception {
+    assertRoundTrip(SigningAlgorithm.RS256);
+  }
+
+  @Test
+  public void es256TokensRoundTrip() throws Exception {
+    assertRoundTrip(SigningAlgorithm.ES256);
+  }
+
+  @Test
+  public void eddsaTokensRoundTrip() throws Exception {
+    assumeTrue("Ed25519 needs JDK 15+", SigningAlgorithm.EDDSA.isAvailable());
+    assertRoundTrip(SigningAlgorithm.EDDSA);
+  }
+
+  /**
+   * A signature the verifier throws on must not leave anything behind for the next token verified on the thread.
+   */
+  @Test
+  public void rejectedSignaturesDoNotAffectTheNextToken() throws Exception {
+    for (SigningAlgorithm algorithm : SigningAlgorithm.values()) {
+      if (!algorithm.isAvailable()) {
+        continue;
+      }
+      KeyPair keyPair = algorithm.generateKeyPair(2048);
+      SigningKey key = new SigningKey(algorithm, keyPair.getPublic(), keyPair.getPrivate(), Instant.now());
+      String token = key.encode(CLAIMS);
+      String signingInput = token.substring(0, token.lastIndexOf('.'));
+
+      for (int length : new int[] {0, 3, 63, 65, 300}) {
+        assertRejected(key, signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(
+            new byte[length]));
+        assertEquals(algorithm + " after a " + length + " byte signature", CLAIMS, key.decode(token));
+      }
+    }
+  }
+
+  /**
+   * A component with its high bit set needs a leading zero in DER; one with leading zero bytes loses them.
+   */
+  @Test
+  public void es256ComponentsSurviveTheDerConversion() throws Exception {
+    byte[] highBit = component((byte) 0x80);
+    byte[] leadingZero = component((byte) 0x00);
+    leadingZero[1] = 0x7f;
+    byte[] leadingZeros = component((byte) 0x00);
+    leadingZeros[1] = 0x00;
+    leadingZeros[2] = 0x01;
+    byte[] ordinary = component((byte) 0x40);
+    byte[][] components = {highBit, leadingZero, leadingZeros, ordinary};
+    int[] derLengths = {33, 31, 30, 32};
+
+    for (int i = 0; i < components.length; i++) {
+      for (int j = 0; j < components.length; j++) {
+        byte[] concatenated = concat(components[i], components[j]);
+        byte[] der = KeyEncodings.concatenatedToDer(concatenated);
+
+        assertEquals(0x30, der[0]);
+        assertEquals(der.length - 2, der[1]);
+        assertEquals(0x02, der[2]);
+        assertEquals(derLengths[i], der[3]);
+        assertEquals(0x02, der[4 + der[3]]);
+        assertEquals(derLengths[j], der[5 + der[3]]);
+        assertArrayEquals(concatenated, KeyEncodings.derToConcatenated(der, 32));
+      }
+    }
+  }
+
+  @Test
+  public void rsaKeyIdIsTheRfc7638Thumbprint() throws Exception {
+    PublicKey publicKey = KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+        new BigInteger(1, Base64.getUrlDecoder().decode(RFC7638_N)), BigInteger.valueOf(65537)));
+
+    assertEquals(RFC7638_THUMBPRINT, new SigningKey(SigningAlgorithm.RS256, publicKey, null, Instant.now())
+        .getKeyId());
+  }
+
+  @Test
+  public void ed25519KeyIdIsTheRfc8037Thumbprint() throws Exception {
+    assumeTrue("Ed25519 needs JDK 15+", SigningAlgorithm.EDDSA.isAvailable());
+    PublicKey publicKey = KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(
+        concat(ED25519_SPKI_PREFIX, Base64.getUrlDecoder().decode(RFC8037_X))));
+
+    assertEquals(RFC8037_THUMBPRINT, new SigningKey(SigningAlgorithm.EDDSA, publicKey, null, Instant.now())
+        .getKeyId());
+  }
+
+  @Test
+  public void pkcs1AndPkcs8PrivateKeysParseToTheSameKey() throws Exception {
+    KeyPair keyPair = SigningAlgorithm.RS256.generateKeyPair(2048);
+    byte[] pkcs8 = keyPair.getPrivate().getEncoded();
+    // A 2048-bit PKCS#8 key is a 26 byte PrivateKeyInfo header followed by the PKCS#1 RSAPrivateKey
+    byte[] pkcs1 = Arrays.copyOfRange(pkcs8, 26, pkcs8.length);
+
+    PrivateKey fromPkcs1 = KeyEncodings.parseRsaPrivateKey(pem("RSA PRIVATE KEY", pkcs1));
+    PrivateKey fromPkcs8 = KeyEncodings.parseRsaPrivateKey(pem("PRIVATE KEY", pkcs8));
+    RSAPrivateCrtKey expected = (RSAPrivateCrtKey) keyPair.getPrivate();
+    for (PrivateKey parsed : new PrivateKey[] {fromPkcs1, fromPkcs8}) {
+      RSAPrivateCrtKey rsa = (RSAPrivateCrtKey) parsed;
+      assertEquals(expected.getModulus(), rsa.getModulus());
+      assertEquals(expected.getPrivateExponent(), rsa.getPrivateExponent());
+      assertEquals(expected.getCrtCoefficient(), rsa.getCrtCoefficient());
+    }
+
+    SigningKey signer = new SigningKey(SigningAlgorithm.RS256, keyPair.getPublic(), fromPkcs1, Instant.now());
+    assertEquals(CLAIMS, signer.decode(signer.encode(CLAIMS)));
+    PublicKey publicKey = KeyEncodings.parsePublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()), "RSA");
+    assertEquals(keyPair.getPublic(), publicKey);
+  }
+
+  private static void assertRoundTrip(final SigningAlgorithm algorithm) throws Exception {
+    KeyPair keyPair = algorithm.generateKeyPair(2048);
+    SigningKey key = new SigningKey(algorithm, keyPair.getPublic(), keyPair.getPrivate(), Instant.now());
+    SigningKey verifyOnly = new SigningKey(algorithm, keyPair.getPublic(), null, Instant.now());
+    SigningKey otherKey = new SigningKey(algorithm, algorithm.generateKeyPair(2048).getPublic(), null,
+        Instant.now());
+    assertEquals(key.getKeyId(), verifyOnly.getKeyId());
+
+    // Enough ES256 signatures that some r and s components have their high bit set
+    for (int i = 0; i < 32; i++) {
+      String token = key.encode(CLAIMS);
+      String[] parts = token.split("\\.");
+      if (algorithm == SigningAlgorithm.ES256) {
+        assertEquals(64, Base64.getUrlDecoder().decode(parts[2]).length);
+      }
+      assertEquals(CLAIMS, verifyOnly.decode(token));
+      assertRejected(otherKey, token);
+
+      byte[] signature = Base64.getUrlDecoder().decode(parts[2]);
+      signature[signature.length / 2] ^= 0x01;
+      assertRejected(verifyOnly, parts[0] + "." + parts[1] + "."
+          + Base64.getUrlEncoder().withoutPadding().encodeToString(signature));
+    }
+  }
+
+  private static void assertRejected(final SigningKey key, final String token) {
+    try {
+      key.decode(token);
+      fail("Token verified with key " + key.getKeyId());
+    } catch (InvalidSignatureException expected) {
+      // not signed by this key
+    }
+  }
+
+  private static byte[] component(final byte first) {
+    byte[] component = new byte[32];
+    Arrays.fill(component, (byte) 0x5a);
+    component[0] = first;
+    return component;
+  }
+
+  private static byte[] concat(final byte[] first, final byte[] second) {
+    byte[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  private static String pem(final String type, final byte[] der) {
+    return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(der)
+        + "\n-----END " + type + "-----\n";
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.service.KeyRing;
+import com.example.service.auth.service.SigningAlgorithm;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class KeyRingTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private KeyRing keyRing;
+
+  @Autowired
+  private TokenStore tokenStore;
+
+  @Test
+  public void jwksIsPublicAndCacheable() throws Exception {
+    MvcResult result = mockMvc.perform(get("/.well-known/jwks.json"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+        .andExpect(header().string(HttpHeaders.ETAG, keyRing.getJwksETag()))
+        .andExpect(jsonPath("$.keys[0].kid").value(keyRing.active().getKeyId()))
+        .andExpect(jsonPath("$.keys[0].kty").value("RSA"))
+        .andExpect(jsonPath("$.keys[0].alg").value("RS256"))
+        .andReturn();
+
+    mockMvc.perform(get("/.well-known/jwks.json")
+        .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+        .andExpect(status().isNotModified());
+  }
+
+  /**
+   * Rotates the shared key ring, so the context is discarded afterwards rather than leaking into other tests.
+   */
+  @Test
+  @DirtiesContext
+  public void tokensSignedBeforeRotationStillVerify() throws Exception {
+    String before = accessToken();
+    assertEquals(keyRing.active().getKeyId(), JwtHelper.headers(before).get("kid"));
+    String etag = keyRing.getJwksETag();
+
+    keyRing.rotate();
+
+    String after = accessToken();
+    assertEquals(keyRing.active().getKeyId(), JwtHelper.headers(after).get("kid"));
+    assertNotEquals(JwtHelper.headers(before).get("kid"), JwtHelper.headers(after).get("kid"));
+    assertNotEquals(etag, keyRing.getJwksETag());
+    assertNotNull(tokenStore.readAccessToken(before));
+    assertNotNull(tokenStore.readAccessToken(after));
+  }
+
+  /**
+   * A generated ES256 or EdDSA key would change on every restart and differ per node.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void es256WithoutAConfiguredKeyOrRotationDoesNotStart() throws Exception {
+    KeyPair rsa = SigningAlgorithm.RS256.generateKeyPair(2048);
+    new KeyRing(pem("PRIVATE KEY", rsa.getPrivate()), pem("PUBLIC KEY", rsa.getPublic()), false, 60, 2048, "ES256",
+        "", "");
+  }
+
+  @Test
+  public void configuredEs256KeySignsAndTheRsaKeyStillVerifies() throws Exception {
+    KeyPair rsa = SigningAlgorithm.RS256.generateKeyPair(2048);
+    KeyPair ec = SigningAlgorithm.ES256.generateKeyPair(2048);
+    KeyRing ring = new KeyRing(pem("PRIVATE KEY", rsa.getPrivate()), pem("PUBLIC KEY", rsa.getPublic()), false, 60,
+        2048, "ES256", pem("PRIVATE KEY", ec.getPrivate()), pem("PUBLIC KEY", ec.getPublic()));
+
+    assertEquals(SigningAlgorithm.ES256, ring.active().getAlgorithm());
+    assertEquals(ec.getPublic(), ring.active().getPublicKey());
+    assertEquals(rsa.getPublic(), ring.find(ring.getConfiguredKeyId()).getPublicKey());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void mismatchedEs256KeysDoNotStart() throws Exception {
+    KeyPair rsa = SigningAlgorithm.RS256.generateKeyPair(2048);
+    new KeyRing(pem("PRIVATE KEY", rsa.getPrivate()), pem("PUBLIC KEY", rsa.getPublic()), false, 60, 2048, "ES256",
+        pem("PRIVATE KEY", SigningAlgorithm.ES256.generateKeyPair(2048).getPrivate()),
+        pem("PUBLIC KEY", SigningAlgorithm.ES256.generateKeyPair(2048).getPublic()));
+  }
+
+  private static String pem(final String type, final Key key) {
+    return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(key.getEncoded())
+        + "\n-----END " + type + "-----\n";
+  }
+
+  private String accessToken() throws Exception {
+    MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+    params.add("grant_type", "password");
+    params.add("client_id", "proxy-client");
+    params.add("username", "user");
+    params.add("password", "password");
+
+    MvcResult result = mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .params(params))
+        .andExpect(status().is2xxSuccessful())
+        .andReturn();
+    return new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("access_token").asText();
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.service.auth.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "auth.token-store.mode=opaque")
+@AutoConfigureMockMvc
+public class OpaqueTokenStoreTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private TokenStore tokenStore;
+
+  @Test
+  public void issuesShortTokensThatCheckTokenResolves() throws Exception {
+    JsonNode token = passwordGrant();
+    String accessToken = token.get("access_token").asText();
+    assertEquals(22, accessToken.length());
+    assertEquals(22, token.get("refresh_token").asText().length());
+
+    mockMvc.perform(post("/oauth/check_token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("token", accessToken))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.user_name").value("user"))
+        .andExpect(jsonPath("$.client_id").value("proxy-client"));
+  }
+
+  @Test
+  public void refreshReplacesTheAccessToken() throws Exception {
+    JsonNode token = passwordGrant();
+    String refreshToken = token.get("refresh_token").asText();
+
+    MvcResult result = mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "refresh_token")
+        .param("refresh_token", refreshToken))
+        .andExpect(status().isOk())
+        .andReturn();
+    JsonNode refreshed = new ObjectMapper().readTree(result.getResponse().getContentAsString());
+
+    assertNotEquals(token.get("access_token").asText(), refreshed.get("access_token").asText());
+    assertNull(tokenStore.readAccessToken(token.get("access_token").asText()));
+    assertNotNull(tokenStore.readAccessToken(refreshed.get("access_token").asText()));
+  }
+
+  @Test
+  public void removedTokensAreRejected() throws Exception {
+    String accessToken = passwordGrant().get("access_token").asText();
+    OAuth2AccessToken stored = tokenStore.readAccessToken(accessToken);
+    assertNotNull(stored);
+
+    tokenStore.removeAccessToken(stored);
+
+    assertNull(tokenStore.readAccessToken(accessToken));
+    assertNull(tokenStore.readAuthentication(accessToken));
+    mockMvc.perform(post("/oauth/check_token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("token", accessToken))
+        .andExpect(status().isBadRequest());
+  }
+
+  private JsonNode passwordGrant() throws Exception {
+    MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+    params.add("grant_type", "password");
+    params.add("client_id", "proxy-client");
+    params.add("username", "user");
+    params.add("password", "password");
+
+    MvcResult result = mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .params(params))
+        .andExpect(status().is2xxSuccessful())
+        .andReturn();
+    return new ObjectMapper().readTree(result.getResponse().getContentAsString());
+  }
+}
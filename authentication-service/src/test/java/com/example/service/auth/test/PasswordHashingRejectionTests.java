@@ -0,0 +1,112 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.service.PasswordHashingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fills the one hashing thread and its one queue slot, so that every further hash is shed at once.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "auth.password-hashing.threads=1",
+    "auth.password-hashing.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+public class PasswordHashingRejectionTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private PasswordHashingExecutor passwordHashingExecutor;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Before
+  public void saturate() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    passwordHashingExecutor.submit(() -> {
+      started.countDown();
+      try {
+        return release.await(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    passwordHashingExecutor.submit(() -> true);
+    assertEquals(1, passwordHashingExecutor.getQueueDepth());
+  }
+
+  @After
+  public void release() {
+    release.countDown();
+  }
+
+  @Test
+  public void authenticateAnswers503() throws Exception {
+    mockMvc.perform(post("/api/authenticate")
+        .with(csrf())
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+  }
+
+  /**
+   * The client is already authenticated, so the only hash is the user's password.
+   */
+  @Test
+  public void passwordGrantIsTemporarilyUnavailable() throws Exception {
+    mockMvc.perform(post("/oauth/token")
+        .with(user("proxy-client"))
+        .param("grant_type", "password")
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+        .andExpect(jsonPath("$.error").value("temporarily_unavailable"));
+  }
+
+  @Test
+  public void saturationIsMeasured() throws Exception {
+    double rejectedBefore = meterRegistry.get("auth.password.hashing.rejected").counter().count();
+
+    mockMvc.perform(post("/api/authenticate")
+        .with(csrf())
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().isServiceUnavailable());
+
+    assertEquals(1, meterRegistry.get("auth.password.hashing.queue.depth").gauge().value(), 0);
+    assertEquals(1, meterRegistry.get("auth.password.hashing.active").gauge().value(), 0);
+    assertTrue(meterRegistry.get("auth.password.hashing.wait").timer().count() > 0);
+    assertEquals(rejectedBefore + 1, meterRegistry.get("auth.password.hashing.rejected").counter().count(), 0);
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.domain.User;
+import com.example.service.auth.repository.UserRepository;
+import com.example.service.auth.service.CachingUserDetailsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PasswordUpdateTests {
+
+  private static final String USERNAME = "8d2f6b1e-4c3a-4f5e-9b7d-1a2b3c4d5e6f";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @Autowired
+  private CachingUserDetailsService userDetailsService;
+
+  @Before
+  public void before() {
+    User user = userRepository.findByUsername(USERNAME).orElseGet(User::new);
+    user.setUsername(USERNAME);
+    user.setPassword(passwordEncoder.encode("old-password"));
+    user.setActive(true);
+    user.setRoles("USER");
+    userRepository.save(user);
+    userDetailsService.invalidate(USERNAME);
+  }
+
+  @Test
+  public void updatedPasswordReplacesTheCachedUser() throws Exception {
+    // Caches the user with the old password
+    passwordGrant("old-password").andExpect(status().isOk());
+
+    mockMvc.perform(post("/users/updateUserPassword")
+        .header("Authorization", "Bearer " + accessToken())
+        .header("USER_ID", USERNAME)
+        .header("PASSWORD", passwordEncoder.encode("new-password")))
+        .andExpect(status().isOk());
+
+    passwordGrant("old-password").andExpect(status().isBadRequest());
+    passwordGrant("new-password").andExpect(status().isOk());
+  }
+
+  /**
+   * /users/** is served by the resource server chain, which only accepts an OAuth2 access token.
+   */
+  private String accessToken() throws Exception {
+    MvcResult result = mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "password")
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().isOk())
+        .andReturn();
+    return new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("access_token").asText();
+  }
+
+  private ResultActions passwordGrant(final String password) throws Exception {
+    return mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "password")
+        .param("username", USERNAME)
+        .param("password", password));
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.domain.Consumer;
+import com.example.service.auth.domain.RegisteredClient;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RegisteredClientTests {
+
+  @Test
+  public void unscopedClientApprovingEverythingApprovesAnyScope() {
+    Consumer consumer = consumer(null, "true");
+    RegisteredClient client = RegisteredClient.of(consumer);
+
+    assertFalse(client.isScoped());
+    assertTrue(client.isAutoApprove("read"));
+    assertTrue(client.isAutoApprove("anything"));
+  }
+
+  @Test
+  public void patternsApproveScopesOutsideTheClientsScope() {
+    RegisteredClient client = RegisteredClient.of(consumer("read", "read,reports\\..*"));
+
+    assertTrue(client.isAutoApprove("read"));
+    assertTrue(client.isAutoApprove("reports.monthly"));
+    assertFalse(client.isAutoApprove("write"));
+  }
+
+  @Test
+  public void clientWithoutAutoApprovalApprovesNothing() {
+    RegisteredClient client = RegisteredClient.of(consumer("read,write", null));
+
+    assertFalse(client.isAutoApprove("read"));
+    assertFalse(client.isAutoApprove("other"));
+  }
+
+  @Test
+  public void snapshotAgreesWithItsConsumer() {
+    String[] scopes = {"read", "write", "trust", "reports.daily", "other"};
+    for (String autoApprove : new String[] {null, "true", "read", "read,reports\\..*", "[unclosed"}) {
+      Consumer consumer = consumer("read,write", autoApprove);
+      RegisteredClient client = RegisteredClient.of(consumer).withClientId("copy");
+      for (String scope : scopes) {
+        assertEquals(autoApprove + " / " + scope, consumer.isAutoApprove(scope), client.isAutoApprove(scope));
+      }
+    }
+  }
+
+  private static Consumer consumer(final String scopeCsv, final String autoApproveCsv) {
+    Consumer consumer = new Consumer();
+    consumer.setClientId("client");
+    consumer.setScopeCsv(scopeCsv);
+    consumer.setAutoApproveCsv(autoApproveCsv);
+    consumer.setAuthorizedGrantTypesCsv("authorization_code");
+    return consumer;
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.filter.CookieRequestCache;
+import com.example.service.auth.filter.CookieSecurityContextRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.http.Cookie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "auth.stateless.enabled=true",
+    "auth.stateless.cookie-key=MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY="})
+@AutoConfigureMockMvc
+public class StatelessAuthorizeFlowTests {
+
+  private static final String AUTHORIZE_URL =
+      "http://localhost/oauth/authorize?response_type=code&client_id=proxy-client"
+          + "&redirect_uri=http://localhost:9000/login";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  public void authorizeFlowCompletesWithoutASession() throws Exception {
+    MvcResult authorize = mockMvc.perform(get(AUTHORIZE_URL))
+        .andExpect(status().isFound())
+        .andExpect(redirectedUrl("http://localhost/login"))
+        .andReturn();
+    assertNull(authorize.getRequest().getSession(false));
+    Cookie savedRequest = authorize.getResponse().getCookie(CookieRequestCache.COOKIE_NAME);
+    assertNotNull(savedRequest);
+
+    MvcResult login = mockMvc.perform(post("/login")
+        .param("username", "user")
+        .param("password", "password")
+        .cookie(savedRequest)
+        .with(csrf()))
+        .andExpect(status().isFound())
+        .andExpect(redirectedUrl(AUTHORIZE_URL))
+        .andReturn();
+    assertNull(login.getRequest().getSession(false));
+    Cookie context = login.getResponse().getCookie(CookieSecurityContextRepository.COOKIE_NAME);
+    assertNotNull(context);
+
+    MvcResult callback = mockMvc.perform(get(AUTHORIZE_URL).cookie(savedRequest, context))
+        .andExpect(status().isFound())
+        .andReturn();
+    assertNull(callback.getRequest().getSession(false));
+    assertTrue(callback.getResponse().getRedirectedUrl().startsWith("http://localhost:9000/login?code="));
+    // The saved request and the login are both forgotten once the code is issued.
+    assertEquals(0, callback.getResponse().getCookie(CookieRequestCache.COOKIE_NAME).getMaxAge());
+    assertEquals(0, callback.getResponse().getCookie(CookieSecurityContextRepository.COOKIE_NAME).getMaxAge());
+  }
+
+  @Test
+  public void tamperedLoginCookiesAreIgnored() throws Exception {
+    mockMvc.perform(get(AUTHORIZE_URL)
+        .cookie(new Cookie(CookieSecurityContextRepository.COOKIE_NAME, "dXNlcg")))
+        .andExpect(status().isFound())
+        .andExpect(redirectedUrl("http://localhost/login"));
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.service.TimingWheel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTests {
+
+  private static final long START = 1_000_000L;
+
+  @Test
+  public void timeoutsFireOnTheirTickAcrossEveryLevel() {
+    TimingWheel<TimingWheel.Timeout> wheel = new TimingWheel<>(1, TimingWheel.DEFAULT_LEVELS, START);
+    long[] delays = {1, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 300_000};
+    for (long delay : delays) {
+      wheel.schedule(new TimingWheel.Timeout(START + delay));
+    }
+
+    List<Long> fired = new ArrayList<>();
+    for (long now = START; now <= START + 300_000; now++) {
+      long current = now;
+      wheel.advance(now, timeout -> {
+        assertEquals(timeout.getDeadline(), current);
+        fired.add(timeout.getDeadline() - START);
+      });
+    }
+
+    assertEquals(delays.length, fired.size());
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void deadlinesBeyondTheTopLevelWaitForTheirTurn() {
+    TimingWheel<TimingWheel.Timeout> wheel = new TimingWheel<>(1, 2, START);
+    TimingWheel.Timeout timeout = new TimingWheel.Timeout(START + 10_000);
+    wheel.schedule(timeout);
+
+    assertEquals(0, wheel.advance(START + 9_999, expired -> { }));
+    assertEquals(1, wheel.advance(START + 10_000, expired -> { }));
+  }
+
+  @Test
+  public void cancelledTimeoutsNeverFire() {
+    TimingWheel<TimingWheel.Timeout> wheel = new TimingWheel<>(1000, TimingWheel.DEFAULT_LEVELS, START);
+    TimingWheel.Timeout timeout = new TimingWheel.Timeout(START + 5_000);
+    wheel.schedule(timeout);
+
+    assertTrue(wheel.cancel(timeout));
+    assertFalse(wheel.cancel(timeout));
+    assertEquals(0, wheel.advance(START + 10_000, expired -> { }));
+    assertEquals(0, wheel.size());
+  }
+}
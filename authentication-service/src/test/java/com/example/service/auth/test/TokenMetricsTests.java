@@ -0,0 +1,71 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.filter.TokenEndpointMetricsFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "management.endpoints.web.exposure.include=prometheus",
+    "management.metrics.distribution.percentiles-histogram.auth=true"})
+@AutoConfigureMockMvc
+public class TokenMetricsTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  public void tokenRequestsAreTimedByGrantType() throws Exception {
+    String accessToken = accessToken();
+
+    Timer password = meterRegistry.find(TokenEndpointMetricsFilter.TIMER_NAME)
+        .tags("grant_type", "password", "status", "200")
+        .timer();
+    assertNotNull(password);
+    assertTrue(password.count() > 0);
+
+    mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "made-up"))
+        .andExpect(status().is4xxClientError());
+    assertNotNull(meterRegistry.find(TokenEndpointMetricsFilter.TIMER_NAME).tags("grant_type", "other").timer());
+
+    mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + accessToken))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("auth_token_requests_seconds_bucket{")))
+        .andExpect(content().string(containsString("grant_type=\"password\"")))
+        .andExpect(content().string(containsString("auth_client_load_seconds_count")));
+  }
+
+  private String accessToken() throws Exception {
+    MvcResult result = mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "password")
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().is2xxSuccessful())
+        .andReturn();
+    return new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("access_token").asText();
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.filter.VerifiedTokenCache;
+import com.example.service.auth.service.TokenRevocationList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TokenRevocationTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private VerifiedTokenCache verifiedTokenCache;
+
+  @Test
+  public void revokedAccessTokensAreRejected() throws Exception {
+    String accessToken = accessToken();
+    mockMvc.perform(post("/oauth/check_token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("token", accessToken))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(post("/api/revoke").param("token", accessToken))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(post("/oauth/check_token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("token", accessToken))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/users/verifyUserPassword").header("Authorization", "Bearer " + accessToken))
+        .andExpect(status().isUnauthorized());
+  }
+
+  /**
+   * The second request is answered from the verified token cache, which must still see the revocation.
+   */
+  @Test
+  public void revokedAuthenticateTokensAreRejectedFromTheCache() throws Exception {
+    String token = mockMvc.perform(post("/api/authenticate")
+        .with(csrf())
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("Authorization").substring("Bearer ".length());
+
+    long hits = verifiedTokenCache.hitCount();
+    mockMvc.perform(get("/").header("Authorization", "Bearer " + token))
+        .andExpect(authenticated().withUsername("user"));
+    mockMvc.perform(get("/").header("Authorization", "Bearer " + token))
+        .andExpect(authenticated().withUsername("user"));
+    assertEquals(hits + 1, verifiedTokenCache.hitCount());
+
+    mockMvc.perform(post("/api/revoke").param("token", token))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/").header("Authorization", "Bearer " + token))
+        .andExpect(status().isUnauthorized());
+    assertEquals(hits + 2, verifiedTokenCache.hitCount());
+  }
+
+  @Test
+  public void revokingAnInvalidTokenIsNotAnError() throws Exception {
+    mockMvc.perform(post("/api/revoke").param("token", "not-a-token"))
+        .andExpect(status().isOk());
+    mockMvc.perform(post("/api/revoke").param("token", "e30.e30.c2ln"))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  public void revocationsSurviveARestart() throws Exception {
+    Path log = Files.createTempDirectory("revocations").resolve("revocations.log");
+    long expiresAt = System.currentTimeMillis() + 60_000L;
+
+    TokenRevocationList revocationList = new TokenRevocationList(1024, log.toString(), true, 1000,
+        new SimpleMeterRegistry());
+    revocationList.revoke("revoked", expiresAt);
+    revocationList.revoke("expired", System.currentTimeMillis() - 1);
+    assertTrue(revocationList.isRevoked("revoked"));
+    assertFalse(revocationList.isRevoked("expired"));
+    assertFalse(revocationList.isRevoked("other"));
+    revocationList.close();
+
+    TokenRevocationList restarted = new TokenRevocationList(1024, log.toString(), true, 1000,
+        new SimpleMeterRegistry());
+    assertTrue(restarted.isRevoked("revoked"));
+    assertFalse(restarted.isRevoked("other"));
+    restarted.close();
+  }
+
+  private String accessToken() throws Exception {
+    MvcResult result = mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .param("grant_type", "password")
+        .param("username", "user")
+        .param("password", "password"))
+        .andExpect(status().is2xxSuccessful())
+        .andReturn();
+    return new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("access_token").asText();
+  }
+}
@@ -0,0 +1,149 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.domain.GrantedAuthorities;
+import com.example.service.auth.domain.User;
+import com.example.service.auth.service.CachingUserDetailsService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserAuthoritiesTests {
+
+  private static final int CALLS = 10_000;
+
+  // Generous enough for allocation-counter noise, far below one collection per call.
+  private static final long ALLOCATION_BUDGET_BYTES = 16 * 1024;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CachingUserDetailsService userDetailsService;
+
+  private com.sun.management.ThreadMXBean threadMXBean;
+
+  @Before
+  public void before() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    threadMXBean = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+    threadMXBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @Test
+  public void authoritiesAreParsedOnce() {
+    User user = user("ROLE_USER,ROLE_ADMIN");
+    Collection<GrantedAuthority> authorities = user.getAuthorities();
+
+    assertEquals(2, authorities.size());
+    assertSame(authorities, user.getAuthorities());
+
+    user.setRoles("ROLE_USER");
+    assertNotSame(authorities, user.getAuthorities());
+    assertEquals(1, user.getAuthorities().size());
+  }
+
+  @Test
+  public void identicalRolesShareOneInstance() {
+    GrantedAuthority first = user("ROLE_USER").getAuthorities().iterator().next();
+    GrantedAuthority second = user("ROLE_USER").getAuthorities().iterator().next();
+
+    assertSame(first, second);
+    assertSame(GrantedAuthorities.intern("ROLE_USER"), first);
+  }
+
+  @Test
+  public void repeatedGetAuthoritiesDoesNotAllocate() {
+    User user = user("ROLE_USER,ROLE_ADMIN,ROLE_AUDITOR");
+    user.getAuthorities();
+
+    long allocated = allocatedBytes(() -> {
+      for (int i = 0; i < CALLS; i++) {
+        user.getAuthorities();
+      }
+    });
+
+    assertTrue("getAuthorities allocated " + allocated + " bytes over " + CALLS + " calls",
+        allocated < ALLOCATION_BUDGET_BYTES);
+  }
+
+  /**
+   * The password grant loads the user through the caching UserDetailsService, authenticates it and enhances the
+   * token. Across grants the user's authorities must stay the same interned collection, and reading them as often
+   * as the grant does must not allocate.
+   */
+  @Test
+  public void passwordGrantReusesAuthorities() throws Exception {
+    passwordGrant();
+    UserDetails user = userDetailsService.loadUserByUsername("user");
+    Collection<? extends GrantedAuthority> authorities = user.getAuthorities();
+
+    passwordGrant();
+    assertSame(authorities, userDetailsService.loadUserByUsername("user").getAuthorities());
+    for (GrantedAuthority authority : authorities) {
+      assertSame(GrantedAuthorities.intern(authority.getAuthority()), authority);
+    }
+
+    long allocated = allocatedBytes(() -> {
+      for (int i = 0; i < CALLS; i++) {
+        user.getAuthorities();
+      }
+    });
+    assertTrue("getAuthorities allocated " + allocated + " bytes over " + CALLS + " calls",
+        allocated < ALLOCATION_BUDGET_BYTES);
+  }
+
+  private void passwordGrant() throws Exception {
+    MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+    params.add("grant_type", "password");
+    params.add("client_id", "proxy-client");
+    params.add("username", "user");
+    params.add("password", "password");
+
+    mockMvc.perform(post("/oauth/token")
+        .with(httpBasic("proxy-client", "client-secret"))
+        .params(params))
+        .andExpect(status().is2xxSuccessful());
+  }
+
+  private long allocatedBytes(Runnable work) {
+    long threadId = Thread.currentThread().getId();
+    long before = threadMXBean.getThreadAllocatedBytes(threadId);
+    work.run();
+    return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+  }
+
+  private static User user(String roles) {
+    User user = new User();
+    user.setUsername("test");
+    user.setPassword("password");
+    user.setActive(true);
+    user.setRoles(roles);
+    return user;
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.service.auth.test;
+
+import com.example.service.auth.filter.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class VerifiedTokenCacheTests {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+      "user", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+  @Test
+  public void hitReturnsTheCachedAuthentication() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(100, 600, meterRegistry);
+    cache.put("a.b.c", "jti", authentication, inMillis(60_000));
+
+    VerifiedTokenCache.CachedToken cached = cache.get("a.b.c");
+    assertNotNull(cached);
+    assertSame(authentication, cached.getAuthentication());
+    assertEquals("jti", cached.getTokenId());
+    assertNull(cache.get("a.b.d"));
+  }
+
+  @Test
+  public void expiredTokensAreNotCached() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(100, 600, meterRegistry);
+    cache.put("a.b.c", "jti", authentication, inMillis(-1));
+
+    assertNull(cache.get("a.b.c"));
+  }
+
+  @Test
+  public void entriesExpireWithTheirToken() throws InterruptedException {
+    VerifiedTokenCache cache = new VerifiedTokenCache(100, 600, meterRegistry);
+    cache.put("a.b.c", "jti", authentication, inMillis(300));
+    assertNotNull(cache.get("a.b.c"));
+
+    TimeUnit.MILLISECONDS.sleep(500);
+    assertNull(cache.get("a.b.c"));
+  }
+
+  @Test
+  public void entriesExpireAfterTheMaximumTtl() throws InterruptedException {
+    VerifiedTokenCache cache = new VerifiedTokenCache(100, 1, meterRegistry);
+    cache.put("a.b.c", "jti", authentication, inMillis(60_000));
+    cache.put("a.b.d", "jti", authentication, null);
+    assertNotNull(cache.get("a.b.c"));
+    assertNotNull(cache.get("a.b.d"));
+
+    TimeUnit.MILLISECONDS.sleep(1_200);
+    assertNull(cache.get("a.b.c"));
+    assertNull(cache.get("a.b.d"));
+  }
+
+  @Test
+  public void hitsAndMissesAreExported() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(100, 600, meterRegistry);
+    cache.put("a.b.c", "jti", authentication, inMillis(60_000));
+    cache.get("a.b.c");
+    cache.get("a.b.c");
+    cache.get("a.b.d");
+
+    assertEquals(2, cache.hitCount());
+    assertEquals(1, cache.missCount());
+    assertEquals(2, meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+        .tag("result", "hit").functionCounter().count(), 0);
+    assertEquals(1, meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+        .tag("result", "miss").functionCounter().count(), 0);
+  }
+
+  private static Date inMillis(final long millis) {
+    return new Date(System.currentTimeMillis() + millis);
+  }
+}
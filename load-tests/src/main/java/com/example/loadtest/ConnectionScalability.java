@@ -0,0 +1,77 @@
+package com.example.loadtest;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Side-by-side connection scalability of the Zuul proxy and the gateway. For each proxy in
+ * <code>load.proxy-modes</code> it starts the services, then runs the proxied stage at each concurrency in
+ * <code>load.connections</code> against a stub site that takes <code>load.stub-delay-millis</code>, 100 by
+ * default, to answer, so that every thread keeps a request open in the proxy.
+ * <p>
+ * A proxy that scales with connections keeps its throughput near <code>connections / delay</code> and its p99
+ * near the delay. A thread-per-request proxy levels off, and its latency climbs, once its request threads or its
+ * connections to the site are all waiting.
+ */
+public final class ConnectionScalability {
+
+  private ConnectionScalability() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> defaults = new HashMap<>();
+    defaults.put("stub-delay-millis", "100");
+    defaults.put("warmup-seconds", "5");
+    defaults.put("duration-seconds", "20");
+    Settings settings = Settings.fromSystemProperties(defaults);
+    System.out.printf("Connection scalability: proxies=%s, connections=%s, stub delay=%dms%n",
+        settings.proxyModes, settings.connections, settings.stubDelayMillis);
+
+    Map<String, List<StageResult>> results = new LinkedHashMap<>();
+    int maxConnections = Collections.max(settings.connections);
+    try (ProtectedSiteStub stub = ProtectedSiteStub.start(settings.stubPort, settings.stubDelayMillis)) {
+      for (String proxyMode : settings.proxyModes) {
+        // A new client per proxy, so no connection to the previous one is reused
+        try (ServiceLauncher launcher = new ServiceLauncher(settings);
+             CloseableHttpClient client = Http.client(maxConnections)) {
+          if (settings.launchServices) {
+            launcher.startServices(proxyMode);
+          }
+          StageRunner runner = new StageRunner(settings, client);
+          Scenario proxied = new ProxiedGetScenario(settings);
+          List<StageResult> byConnections = new ArrayList<>();
+          for (int connections : settings.connections) {
+            byConnections.add(runner.run(proxied, connections));
+          }
+          results.put(proxyMode, byConnections);
+        }
+      }
+    }
+    print(settings.connections, results, System.out);
+  }
+
+  private static void print(final List<Integer> connections, final Map<String, List<StageResult>> results,
+      final PrintStream out) {
+    out.printf("%n%12s", "connections");
+    for (String proxyMode : results.keySet()) {
+      out.printf(" | %-8s %10s %9s %9s %7s", proxyMode, "ops/s", "p50 ms", "p99 ms", "errors");
+    }
+    out.println();
+    for (int i = 0; i < connections.size(); i++) {
+      out.printf("%12d", connections.get(i));
+      for (List<StageResult> byConnections : results.values()) {
+        StageResult result = byConnections.get(i);
+        out.printf(" | %-8s %10.1f %9.2f %9.2f %7d", "", result.throughput(), result.percentileMillis(50),
+            result.percentileMillis(99), result.errors());
+      }
+      out.println();
+    }
+  }
+}
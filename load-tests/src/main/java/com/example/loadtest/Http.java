@@ -0,0 +1,63 @@
+package com.example.loadtest;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+
+/**
+ * Request helpers shared by the scenarios.
+ */
+final class Http {
+
+  private Http() {
+  }
+
+  /**
+   * One pooled client for all workers, with enough connections that the pool is never what they wait on. Cookies
+   * are kept per worker, in each request's context. Redirects are followed after POSTs too, as a browser does.
+   */
+  static CloseableHttpClient client(final int maxConcurrency) {
+    PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+    connections.setMaxTotal(maxConcurrency * 4);
+    connections.setDefaultMaxPerRoute(maxConcurrency * 2);
+    return HttpClients.custom()
+        .setConnectionManager(connections)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setCookieSpec(CookieSpecs.STANDARD)
+            .setConnectTimeout(5000)
+            .setSocketTimeout(30000)
+            .build())
+        .setRedirectStrategy(LaxRedirectStrategy.INSTANCE)
+        .disableAutomaticRetries()
+        .build();
+  }
+
+  /**
+   * Execute the request, following redirects, and return the final body if the final status is 200.
+   */
+  static String execute(final CloseableHttpClient client, final HttpUriRequest request,
+      final HttpClientContext context) throws IOException {
+    try (CloseableHttpResponse response = client.execute(request, context)) {
+      String body = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity());
+      if (status(response) != 200) {
+        throw new IOException(request.getMethod() + " " + request.getURI() + " ended with " + status(response)
+            + (context.getRedirectLocations() == null ? "" : " after " + context.getRedirectLocations()));
+      }
+      return body;
+    }
+  }
+
+  private static int status(final HttpResponse response) {
+    return response.getStatusLine().getStatusCode();
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.loadtest;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * End-to-end load test of the proxy, authentication and config services on one machine. It starts a stub of
+ * the protected web site on 9001 and the three services, then runs each stage in turn and prints the throughput
+ * and latency percentiles of each:
+ * <ul>
+ * <li><b>sso</b> - {@link SsoLoginScenario}, a full authorization-code login through the proxy;</li>
+ * <li><b>password</b> - {@link PasswordGrantScenario}, password grants against the token endpoint;</li>
+ * <li><b>proxied</b> - {@link ProxiedGetScenario}, authenticated GETs of the protected site through the proxy.</li>
+ * </ul>
+ * The proxy is the Zuul one unless <code>load.proxy-mode</code> is <code>gateway</code>. Everything runs against
+ * localhost; nothing is fetched from the network. See {@link Settings} and the README for the
+ * <code>load.*</code> properties, and {@link ConnectionScalability} to compare the two proxies.
+ */
+public final class LoadTest {
+
+  private LoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Settings settings = Settings.fromSystemProperties();
+    System.out.println("Load test: " + settings);
+
+    List<StageResult> results = new ArrayList<>();
+    try (ProtectedSiteStub stub = ProtectedSiteStub.start(settings.stubPort, settings.stubDelayMillis);
+         ServiceLauncher launcher = new ServiceLauncher(settings)) {
+      if (settings.launchServices) {
+        launcher.startServices(settings.proxyMode);
+      }
+      try (CloseableHttpClient client = Http.client(settings.concurrency)) {
+        StageRunner runner = new StageRunner(settings, client);
+        for (String stage : settings.stages) {
+          results.add(runner.run(scenario(stage, settings)));
+        }
+      }
+    }
+    StageResult.print(results, System.out);
+  }
+
+  private static Scenario scenario(final String stage, final Settings settings) {
+    switch (stage) {
+      case "sso":
+        return new SsoLoginScenario(settings);
+      case "password":
+        return new PasswordGrantScenario(settings);
+      case "proxied":
+        return new ProxiedGetScenario(settings);
+      default:
+        throw new IllegalArgumentException("Unknown stage " + stage + ", expected sso, password or proxied");
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.loadtest;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicNameValuePair;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * A client asks the authentication service for a token with the resource owner's password.
+ */
+final class PasswordGrantScenario implements Scenario {
+
+  private final Settings settings;
+
+  PasswordGrantScenario(final Settings settings) {
+    this.settings = settings;
+  }
+
+  @Override
+  public String name() {
+    return "password";
+  }
+
+  @Override
+  public Session open(final CloseableHttpClient client) {
+    String authorization = "Basic " + Base64.getEncoder().encodeToString(
+        (settings.clientId + ":" + settings.clientSecret).getBytes(StandardCharsets.UTF_8));
+    return () -> {
+      HttpPost token = new HttpPost(settings.authUrl + "/oauth/token");
+      token.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+      token.setEntity(new UrlEncodedFormEntity(Arrays.asList(
+          new BasicNameValuePair("grant_type", "password"),
+          new BasicNameValuePair("username", settings.username),
+          new BasicNameValuePair("password", settings.password)), StandardCharsets.UTF_8));
+      String body = Http.execute(client, token, HttpClientContext.create());
+      if (!body.contains("\"access_token\"")) {
+        throw new IOException("No access token in " + body);
+      }
+    };
+  }
+}
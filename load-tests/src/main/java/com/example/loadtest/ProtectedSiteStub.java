@@ -0,0 +1,69 @@
+package com.example.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stands in for the Angular protected web site behind the proxy: every GET under <code>/protected-web-site/</code>
+ * gets the same small page, so the measured latency is the proxy's and the authentication service's, not the
+ * site's. An optional delay simulates a slow site, so that requests pile up in the proxy.
+ */
+final class ProtectedSiteStub implements AutoCloseable {
+
+  static final String MARKER = "protected-web-site stub";
+
+  private static final byte[] PAGE = ("<!DOCTYPE html><html><head><title>" + MARKER
+      + "</title></head><body><app-root></app-root></body></html>").getBytes(StandardCharsets.UTF_8);
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  private ProtectedSiteStub(final HttpServer server, final ExecutorService executor) {
+    this.server = server;
+    this.executor = executor;
+  }
+
+  /**
+   * @param delayMillis how long each response takes; each waiting request holds a stub thread, the pool grows as
+   *                    needed.
+   */
+  static ProtectedSiteStub start(final int port, final long delayMillis) throws IOException {
+    // Without TCP_NODELAY the separate header and body writes meet the client's delayed ACK, adding ~40ms
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+    server.createContext("/protected-web-site/", exchange -> {
+      try {
+        exchange.getRequestBody().close();
+        if (delayMillis > 0) {
+          TimeUnit.MILLISECONDS.sleep(delayMillis);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/html;charset=UTF-8");
+        exchange.sendResponseHeaders(200, PAGE.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+          body.write(PAGE);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        exchange.close();
+      }
+    });
+    ExecutorService executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.start();
+    return new ProtectedSiteStub(server, executor);
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
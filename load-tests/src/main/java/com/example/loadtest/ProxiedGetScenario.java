@@ -0,0 +1,44 @@
+package com.example.loadtest;
+
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Logged-in users browse the protected site: workers GET the page through the proxy with a session cookie. Up to
+ * <code>load.sessions</code> users log in, unmeasured, and the workers share their sessions round-robin, so high
+ * concurrency does not mean as many logins first.
+ */
+final class ProxiedGetScenario implements Scenario {
+
+  private final SsoLogin ssoLogin;
+  private final int sessions;
+  private final List<CookieStore> loggedIn = new ArrayList<>();
+  private int opened;
+
+  ProxiedGetScenario(final Settings settings) {
+    this.ssoLogin = new SsoLogin(settings);
+    this.sessions = settings.sessions;
+  }
+
+  @Override
+  public String name() {
+    return "proxied";
+  }
+
+  @Override
+  public synchronized Session open(final CloseableHttpClient client) throws IOException {
+    if (loggedIn.size() < sessions) {
+      loggedIn.add(ssoLogin.login(client).getCookieStore());
+    }
+    HttpClientContext context = HttpClientContext.create();
+    context.setCookieStore(loggedIn.get(opened++ % loggedIn.size()));
+    return () -> SsoLogin.assertProtectedPage(
+        Http.execute(client, new HttpGet(ssoLogin.protectedPage()), context), context);
+  }
+}
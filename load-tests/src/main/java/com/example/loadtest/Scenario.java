@@ -0,0 +1,24 @@
+package com.example.loadtest;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.IOException;
+
+/**
+ * One stage of the load test. Each worker thread opens its own {@link Session}, which is not measured, and then
+ * runs it over and over; every run is one measured sample.
+ */
+interface Scenario {
+
+  String name();
+
+  Session open(CloseableHttpClient client) throws IOException;
+
+  interface Session {
+
+    /**
+     * One iteration; throws if the services did not answer as a browser or client would expect.
+     */
+    void run() throws IOException;
+  }
+}
@@ -0,0 +1,134 @@
+package com.example.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * Starts the services from the jars their own builds left in <code>target/</code>, one after another and each
+ * only once the previous one answers, and stops them again in reverse order. Each service's output goes to
+ * <code>target/logs/&lt;service&gt;.log</code>.
+ */
+final class ServiceLauncher implements AutoCloseable {
+
+  private final Settings settings;
+  private final File logDir;
+  private final Deque<Process> processes = new ArrayDeque<>();
+
+  ServiceLauncher(final Settings settings) {
+    this.settings = settings;
+    this.logDir = new File("target/logs");
+  }
+
+  /**
+   * Start config-service, authentication-service and the proxy built for <code>proxyMode</code>: the Zuul proxy
+   * or, for <code>gateway</code>, the one built with <code>mvn -Pgateway package</code>.
+   */
+  void startServices(final String proxyMode) throws IOException, InterruptedException {
+    start("config-service", "config-service", settings.configUrl + "/proxy-service/default",
+        status -> status == 200);
+    start("authentication-service", "authentication-service", settings.authUrl + "/.well-known/jwks.json",
+        status -> status == 200);
+    // Any answer will do: /login redirects to the authentication service, or is a login page on the gateway
+    start("proxy-service", "gateway".equals(proxyMode) ? "proxy-service-gateway" : "proxy-service",
+        settings.proxyUrl + "/login", status -> status > 0);
+  }
+
+  /**
+   * Start a service from its <code>artifact</code> jar and wait until <code>readyUrl</code> answers with a status
+   * that is <code>ready</code>.
+   */
+  void start(final String service, final String artifact, final String readyUrl, final IntPredicate ready)
+      throws IOException, InterruptedException {
+    File serviceDir = new File(settings.projectDir, service);
+    File jar = findJar(serviceDir, artifact);
+    if (!logDir.isDirectory() && !logDir.mkdirs()) {
+      throw new IOException("Cannot create " + logDir);
+    }
+    File log = new File(logDir, service + ".log");
+    ProcessBuilder builder = new ProcessBuilder(
+        new File(System.getProperty("java.home"), "bin/java").getPath(), "-jar", jar.getPath())
+        .directory(serviceDir)
+        .redirectErrorStream(true)
+        .redirectOutput(log);
+    // config-service resolves its native search location against ${pwd}
+    builder.environment().put("PWD", serviceDir.getPath());
+    System.out.printf("Starting %s from %s, logging to %s%n", service, jar.getName(), log);
+    Process process = builder.start();
+    processes.push(process);
+    awaitReady(service, process, readyUrl, ready);
+  }
+
+  private void awaitReady(final String service, final Process process, final String readyUrl,
+      final IntPredicate ready) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.startupTimeoutSeconds);
+    while (System.nanoTime() < deadline) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException(service + " exited with " + process.exitValue() + ", see its log");
+      }
+      if (ready.test(status(readyUrl))) {
+        System.out.printf("%s is up%n", service);
+        return;
+      }
+      TimeUnit.MILLISECONDS.sleep(500);
+    }
+    throw new IllegalStateException(service + " did not answer on " + readyUrl + " within "
+        + settings.startupTimeoutSeconds + "s, see its log");
+  }
+
+  private static int status(final String url) {
+    try {
+      HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+      connection.setInstanceFollowRedirects(false);
+      connection.setConnectTimeout(1000);
+      connection.setReadTimeout(5000);
+      try {
+        return connection.getResponseCode();
+      } finally {
+        connection.disconnect();
+      }
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * The executable jar: authentication-service publishes it with the <code>exec</code> classifier, the other
+   * services as their main artifact.
+   */
+  private static File findJar(final File serviceDir, final String artifact) {
+    String prefix = artifact + "-";
+    File[] jars = new File(serviceDir, "target").listFiles((dir, name) -> name.startsWith(prefix)
+        && name.length() > prefix.length() && Character.isDigit(name.charAt(prefix.length()))
+        && name.endsWith(".jar") && !name.endsWith("-sources.jar") && !name.endsWith("-javadoc.jar"));
+    Optional<File> jar = jars == null ? Optional.empty() : Arrays.stream(jars)
+        .max(Comparator.comparing((File file) -> file.getName().endsWith("-exec.jar")));
+    return jar.orElseThrow(() -> new IllegalStateException("No " + artifact + " jar in " + serviceDir
+        + "/target; build it first with: (cd " + serviceDir + " && mvn package -DskipTests"
+        + (artifact.endsWith("-gateway") ? " -Pgateway)" : ")")));
+  }
+
+  @Override
+  public void close() {
+    while (!processes.isEmpty()) {
+      Process process = processes.pop();
+      process.destroy();
+      try {
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+          process.destroyForcibly();
+        }
+      } catch (InterruptedException e) {
+        process.destroyForcibly();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.loadtest;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Load test settings, read from <code>load.*</code> system properties so they can be passed straight through
+ * <code>mvn exec:java</code>.
+ */
+final class Settings {
+
+  final File projectDir;
+  final boolean launchServices;
+  final List<String> stages;
+  final int concurrency;
+  final long warmupSeconds;
+  final long durationSeconds;
+  final long startupTimeoutSeconds;
+  final String proxyUrl;
+  final String authUrl;
+  final String configUrl;
+  final int stubPort;
+  final long stubDelayMillis;
+  final String proxyMode;
+  final List<String> proxyModes;
+  final List<Integer> connections;
+  final int sessions;
+  final String clientId;
+  final String clientSecret;
+  final String username;
+  final String password;
+
+  private final Map<String, String> defaults;
+
+  private Settings(final Map<String, String> defaults) {
+    this.defaults = defaults;
+    this.projectDir = new File(property("project-dir", "..")).getAbsoluteFile();
+    this.launchServices = Boolean.parseBoolean(property("launch", "true"));
+    this.stages = list(property("stages", "sso,password,proxied"));
+    this.concurrency = Integer.parseInt(property("concurrency", "16"));
+    this.warmupSeconds = Long.parseLong(property("warmup-seconds", "10"));
+    this.durationSeconds = Long.parseLong(property("duration-seconds", "30"));
+    this.startupTimeoutSeconds = Long.parseLong(property("startup-timeout-seconds", "180"));
+    this.proxyUrl = property("proxy-url", "http://localhost:9000");
+    this.authUrl = property("auth-url", "http://localhost:9002");
+    this.configUrl = property("config-url", "http://localhost:8888");
+    this.stubPort = Integer.parseInt(property("stub-port", "9001"));
+    this.stubDelayMillis = Long.parseLong(property("stub-delay-millis", "0"));
+    this.proxyMode = property("proxy-mode", "zuul");
+    this.proxyModes = list(property("proxy-modes", "zuul,gateway"));
+    this.connections = list(property("connections", "50,200,1000")).stream()
+        .map(Integer::valueOf)
+        .collect(Collectors.toList());
+    this.sessions = Integer.parseInt(property("sessions", "16"));
+    this.clientId = property("client-id", "proxy-client");
+    this.clientSecret = property("client-secret", "client-secret");
+    this.username = property("username", "user");
+    this.password = property("password", "password");
+  }
+
+  static Settings fromSystemProperties() {
+    return fromSystemProperties(Collections.emptyMap());
+  }
+
+  /**
+   * @param defaults defaults of this run, by property name without the <code>load.</code> prefix, overriding the
+   *                 general ones.
+   */
+  static Settings fromSystemProperties(final Map<String, String> defaults) {
+    return new Settings(defaults);
+  }
+
+  private String property(final String name, final String defaultValue) {
+    return System.getProperty("load." + name, defaults.getOrDefault(name, defaultValue));
+  }
+
+  private static List<String> list(final String value) {
+    return Arrays.asList(value.split("\\s*,\\s*"));
+  }
+
+  @Override
+  public String toString() {
+    return "stages=" + stages + ", concurrency=" + concurrency + ", warmup=" + warmupSeconds
+        + "s, duration=" + durationSeconds + "s, proxy=" + proxyMode + ", launch=" + launchServices;
+  }
+}
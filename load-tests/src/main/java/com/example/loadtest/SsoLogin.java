@@ -0,0 +1,75 @@
+package com.example.loadtest;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicNameValuePair;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The authorization-code SSO flow as a browser goes through it, one fresh cookie jar per login:
+ * <ol>
+ * <li>GET the protected site through the proxy, which redirects to the proxy's <code>/login</code>, then to the
+ * authentication service's <code>/oauth/authorize</code> and finally to its login form;</li>
+ * <li>POST the form, which redirects back to <code>/oauth/authorize</code>, which auto-approves the proxy and
+ * redirects to the proxy's <code>/login?code=...</code>; the proxy exchanges the code for a token and redirects
+ * to the page first asked for, now served from the stub.</li>
+ * </ol>
+ */
+final class SsoLogin {
+
+  private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+  private final Settings settings;
+
+  SsoLogin(final Settings settings) {
+    this.settings = settings;
+  }
+
+  String protectedPage() {
+    return settings.proxyUrl + "/protected-web-site/";
+  }
+
+  /**
+   * Log in with a new cookie jar.
+   *
+   * @return the context whose cookies hold the proxy session.
+   */
+  HttpClientContext login(final CloseableHttpClient client) throws IOException {
+    HttpClientContext context = HttpClientContext.create();
+    CookieStore cookies = new BasicCookieStore();
+    context.setCookieStore(cookies);
+
+    String loginForm = Http.execute(client, new HttpGet(protectedPage()), context);
+    Matcher csrf = CSRF.matcher(loginForm);
+    if (!csrf.find()) {
+      throw new IOException("No login form at the end of " + context.getRedirectLocations());
+    }
+
+    HttpPost login = new HttpPost(settings.authUrl + "/login");
+    List<NameValuePair> form = Arrays.asList(
+        new BasicNameValuePair("username", settings.username),
+        new BasicNameValuePair("password", settings.password),
+        new BasicNameValuePair("_csrf", csrf.group(1)));
+    login.setEntity(new UrlEncodedFormEntity(form, StandardCharsets.UTF_8));
+    assertProtectedPage(Http.execute(client, login, context), context);
+    return context;
+  }
+
+  static void assertProtectedPage(final String page, final HttpClientContext context) throws IOException {
+    if (!page.contains(ProtectedSiteStub.MARKER)) {
+      throw new IOException("Not the protected page at the end of " + context.getRedirectLocations());
+    }
+  }
+}
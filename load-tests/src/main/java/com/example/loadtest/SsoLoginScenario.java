@@ -0,0 +1,26 @@
+package com.example.loadtest;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+
+/**
+ * A new user logs in through the proxy and lands on the protected site: eight requests across the proxy and the
+ * authentication service, including the code exchange and a BCrypt check.
+ */
+final class SsoLoginScenario implements Scenario {
+
+  private final SsoLogin ssoLogin;
+
+  SsoLoginScenario(final Settings settings) {
+    this.ssoLogin = new SsoLogin(settings);
+  }
+
+  @Override
+  public String name() {
+    return "sso";
+  }
+
+  @Override
+  public Session open(final CloseableHttpClient client) {
+    return () -> ssoLogin.login(client);
+  }
+}
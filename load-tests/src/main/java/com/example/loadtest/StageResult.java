@@ -0,0 +1,79 @@
+package com.example.loadtest;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The measured samples of one stage.
+ */
+final class StageResult {
+
+  private final String stage;
+  private final int concurrency;
+  private final long[] latencyNanos;
+  private final long errors;
+  private final long elapsedNanos;
+  private final String firstError;
+
+  /**
+   * @param latencyNanos latencies of the successful iterations, in any order; sorted in place.
+   */
+  StageResult(final String stage, final int concurrency, final long[] latencyNanos, final long errors,
+      final long elapsedNanos, final String firstError) {
+    Arrays.sort(latencyNanos);
+    this.stage = stage;
+    this.concurrency = concurrency;
+    this.latencyNanos = latencyNanos;
+    this.errors = errors;
+    this.elapsedNanos = elapsedNanos;
+    this.firstError = firstError;
+  }
+
+  /**
+   * Nearest-rank percentile, in milliseconds.
+   */
+  double percentileMillis(final double percentile) {
+    if (latencyNanos.length == 0) {
+      return Double.NaN;
+    }
+    int rank = (int) Math.ceil(percentile / 100 * latencyNanos.length);
+    return toMillis(latencyNanos[Math.max(0, rank - 1)]);
+  }
+
+  /**
+   * Successful iterations per second.
+   */
+  double throughput() {
+    return latencyNanos.length / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+  }
+
+  long errors() {
+    return errors;
+  }
+
+  String firstError() {
+    return firstError;
+  }
+
+  private static double toMillis(final long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  static void print(final List<StageResult> results, final PrintStream out) {
+    out.printf("%n%-10s %8s %10s %8s %12s %10s %10s %10s %10s%n",
+        "stage", "threads", "ok", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+    for (StageResult result : results) {
+      out.printf("%-10s %8d %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f%n",
+          result.stage, result.concurrency, result.latencyNanos.length, result.errors, result.throughput(),
+          result.percentileMillis(50), result.percentileMillis(90), result.percentileMillis(99),
+          result.percentileMillis(100));
+    }
+    for (StageResult result : results) {
+      if (result.firstError != null) {
+        out.printf("%s: first of %d errors: %s%n", result.stage, result.errors, result.firstError);
+      }
+    }
+  }
+}
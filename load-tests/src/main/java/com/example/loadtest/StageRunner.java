@@ -0,0 +1,127 @@
+package com.example.loadtest;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a {@link Scenario} closed-loop on a number of threads: all workers open their sessions,
+ * start together, run for <code>load.warmup-seconds</code> unmeasured and then for
+ * <code>load.duration-seconds</code> measured.
+ */
+final class StageRunner {
+
+  private final Settings settings;
+  private final CloseableHttpClient client;
+
+  StageRunner(final Settings settings, final CloseableHttpClient client) {
+    this.settings = settings;
+    this.client = client;
+  }
+
+  StageResult run(final Scenario scenario) throws Exception {
+    return run(scenario, settings.concurrency);
+  }
+
+  StageResult run(final Scenario scenario, final int workers) throws Exception {
+    List<Scenario.Session> sessions = new ArrayList<>(workers);
+    for (int i = 0; i < workers; i++) {
+      sessions.add(scenario.open(client));
+    }
+
+    System.out.printf("Running %s on %d threads: %ds warmup, %ds measured%n", scenario.name(), workers,
+        settings.warmupSeconds, settings.durationSeconds);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicLong measureFrom = new AtomicLong();
+    AtomicLong measureUntil = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    AtomicReference<String> firstError = new AtomicReference<>();
+    Worker[] running = new Worker[workers];
+    for (int i = 0; i < workers; i++) {
+      running[i] = new Worker(scenario.name() + "-" + i, sessions.get(i), start, measureFrom, measureUntil,
+          errors, firstError);
+      running[i].start();
+    }
+
+    long now = System.nanoTime();
+    measureFrom.set(now + TimeUnit.SECONDS.toNanos(settings.warmupSeconds));
+    measureUntil.set(measureFrom.get() + TimeUnit.SECONDS.toNanos(settings.durationSeconds));
+    start.countDown();
+
+    long[] latencies = new long[0];
+    for (Worker worker : running) {
+      worker.join();
+      int offset = latencies.length;
+      latencies = Arrays.copyOf(latencies, offset + worker.count);
+      System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+    }
+    return new StageResult(scenario.name(), workers, latencies, errors.get(),
+        measureUntil.get() - measureFrom.get(), firstError.get());
+  }
+
+  private static final class Worker extends Thread {
+
+    private final Scenario.Session session;
+    private final CountDownLatch start;
+    private final AtomicLong measureFrom;
+    private final AtomicLong measureUntil;
+    private final AtomicLong errors;
+    private final AtomicReference<String> firstError;
+    private long[] latencies = new long[1024];
+    private int count;
+
+    Worker(final String name, final Scenario.Session session, final CountDownLatch start,
+        final AtomicLong measureFrom, final AtomicLong measureUntil, final AtomicLong errors,
+        final AtomicReference<String> firstError) {
+      super(name);
+      this.session = session;
+      this.start = start;
+      this.measureFrom = measureFrom;
+      this.measureUntil = measureUntil;
+      this.errors = errors;
+      this.firstError = firstError;
+    }
+
+    @Override
+    public void run() {
+      try {
+        start.await();
+      } catch (InterruptedException e) {
+        return;
+      }
+      long from = measureFrom.get();
+      long until = measureUntil.get();
+      long started;
+      while ((started = System.nanoTime()) < until) {
+        boolean measured = started >= from;
+        try {
+          session.run();
+        } catch (Exception e) {
+          if (measured) {
+            errors.incrementAndGet();
+            firstError.compareAndSet(null, e.toString());
+          }
+          continue;
+        }
+        long ended = System.nanoTime();
+        // Iterations still running at the end of the window are left out, as they are of the throughput
+        if (measured && ended <= until) {
+          record(ended - started);
+        }
+      }
+    }
+
+    private void record(final long latencyNanos) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = latencyNanos;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.service.proxy.config;
+
+import com.example.service.proxy.gateway.TokenRelayGatewayFilter;
+import com.example.service.proxy.gateway.ZuulHeadersFilter;
+import com.example.service.proxy.gateway.ZuulRouteLocator;
+import com.example.service.proxy.gateway.ZuulRouteProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.web.server.ServerOAuth2AuthorizedClientRepository;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.server.session.CookieWebSessionIdResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+
+/**
+ * Spring Cloud Gateway routing, built with the <code>gateway</code> profile. It serves the same
+ * <code>zuul.*</code> routes and header rules as the Zuul proxy, on Netty's event loop instead of a request
+ * thread per proxied call.
+ */
+@Configuration
+@EnableConfigurationProperties(ZuulRouteProperties.class)
+public class GatewayConfig {
+
+  @Bean
+  public TokenRelayGatewayFilter tokenRelayGatewayFilter(
+      final ServerOAuth2AuthorizedClientRepository authorizedClients) {
+    return new TokenRelayGatewayFilter(authorizedClients);
+  }
+
+  @Bean
+  public RouteLocator zuulRouteLocator(final RouteLocatorBuilder builder, final ZuulRouteProperties properties,
+      final TokenRelayGatewayFilter tokenRelay) {
+    return new ZuulRouteLocator(builder, properties, tokenRelay);
+  }
+
+  @Bean
+  public ZuulHeadersFilter zuulRequestHeadersFilter(final ZuulRouteProperties properties) {
+    return new ZuulHeadersFilter(properties, HttpHeadersFilter.Type.REQUEST);
+  }
+
+  @Bean
+  public ZuulHeadersFilter zuulResponseHeadersFilter(final ZuulRouteProperties properties) {
+    return new ZuulHeadersFilter(properties, HttpHeadersFilter.Type.RESPONSE);
+  }
+
+  /**
+   * Sessions under the same cookie name as the Zuul proxy's servlet sessions.
+   */
+  @Bean(WebHttpHandlerBuilder.WEB_SESSION_MANAGER_BEAN_NAME)
+  public WebSessionManager webSessionManager(
+      @Value("${server.servlet.session.cookie.name:SESSION}") final String cookieName) {
+    CookieWebSessionIdResolver sessionIdResolver = new CookieWebSessionIdResolver();
+    sessionIdResolver.setCookieName(cookieName);
+    DefaultWebSessionManager sessionManager = new DefaultWebSessionManager();
+    sessionManager.setSessionIdResolver(sessionIdResolver);
+    return sessionManager;
+  }
+
+}
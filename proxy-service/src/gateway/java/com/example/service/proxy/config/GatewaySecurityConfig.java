@@ -0,0 +1,116 @@
+package com.example.service.proxy.config;
+
+import com.example.service.proxy.gateway.JwtClaimsOAuth2UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.client.authentication.OAuth2LoginReactiveAuthenticationManager;
+import org.springframework.security.oauth2.client.endpoint.WebClientReactiveAuthorizationCodeTokenResponseClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.InMemoryReactiveClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.ReactiveClientRegistrationRepository;
+import org.springframework.security.oauth2.client.web.server.ServerOAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.client.web.server.WebSessionServerOAuth2AuthorizedClientRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.authentication.logout.RedirectServerLogoutSuccessHandler;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.server.WebSession;
+
+import java.net.URI;
+
+/**
+ * The gateway's counterpart of the Zuul proxy's <code>@EnableOAuth2Sso</code> <code>WebSecurityConfig</code>: the
+ * same client, endpoints and public paths from <code>security.oauth2.*</code>, users taken from the access token's
+ * claims, and the token kept in the session for {@link com.example.service.proxy.gateway.TokenRelayGatewayFilter}.
+ * <p>
+ * The authentication service redirects back to <code>/login/oauth2/code/&lt;client id&gt;</code>, so that URI
+ * must be registered for the client as well as the Zuul proxy's <code>/login</code>.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class GatewaySecurityConfig {
+
+  private static final String AUTHORIZATION_REQUEST_PATH = "/oauth2/authorization/";
+
+  @Bean
+  public CorsWebFilter corsFilter() {
+    final UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+    final CorsConfiguration config = new CorsConfiguration();
+    config.setAllowCredentials(true);
+    config.addAllowedOrigin("*");
+    config.addAllowedHeader("*");
+    config.addAllowedMethod("*");
+    source.registerCorsConfiguration("/**", config);
+    return new CorsWebFilter(source);
+  }
+
+  @Bean
+  public ReactiveClientRegistrationRepository clientRegistrationRepository(
+      @Value("${security.oauth2.client.clientId}") final String clientId,
+      @Value("${security.oauth2.client.clientSecret}") final String clientSecret,
+      @Value("${security.oauth2.client.userAuthorizationUri}") final String authorizationUri,
+      @Value("${security.oauth2.client.accessTokenUri}") final String tokenUri) {
+    return new InMemoryReactiveClientRegistrationRepository(ClientRegistration.withRegistrationId(clientId)
+        .clientId(clientId)
+        .clientSecret(clientSecret)
+        .clientAuthenticationMethod(ClientAuthenticationMethod.BASIC)
+        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+        .redirectUriTemplate("{baseUrl}/login/oauth2/code/{registrationId}")
+        .authorizationUri(authorizationUri)
+        .tokenUri(tokenUri)
+        .build());
+  }
+
+  @Bean
+  public ServerOAuth2AuthorizedClientRepository authorizedClientRepository() {
+    return new WebSessionServerOAuth2AuthorizedClientRepository();
+  }
+
+  @Bean
+  public SecurityWebFilterChain springSecurityFilterChain(final ServerHttpSecurity http,
+      final ReactiveClientRegistrationRepository clientRegistrations,
+      final ServerOAuth2AuthorizedClientRepository authorizedClients,
+      @Value("${security.oauth2.client.clientId}") final String clientId,
+      @Value("${security.oauth2.resource.jwk.key-set-uri}") final String jwkSetUri) {
+    RedirectServerLogoutSuccessHandler logoutSuccessHandler = new RedirectServerLogoutSuccessHandler();
+    logoutSuccessHandler.setLogoutSuccessUrl(URI.create("http://localhost:9000/protected-web-site/"));
+    OAuth2LoginReactiveAuthenticationManager authenticationManager = new OAuth2LoginReactiveAuthenticationManager(
+        new WebClientReactiveAuthorizationCodeTokenResponseClient(),
+        new JwtClaimsOAuth2UserService(new NimbusReactiveJwtDecoder(jwkSetUri)));
+    // @formatter:off
+    http
+        .authorizeExchange()
+            .pathMatchers("/login","/login/**","/oauth2/**","/error**","/*.css","/*.js","/favicon.ico","/*.map",
+                "/robots.txt","/*/webjars/**","/*/css/**","/*/images/**")
+            .permitAll()
+        .anyExchange()
+            .authenticated()
+            .and()
+        .exceptionHandling()
+            .authenticationEntryPoint(new RedirectServerAuthenticationEntryPoint(AUTHORIZATION_REQUEST_PATH + clientId))
+            .and()
+        .oauth2Login()
+            .clientRegistrationRepository(clientRegistrations)
+            .authorizedClientRepository(authorizedClients)
+            .authenticationManager(authenticationManager)
+            .and()
+        .logout()
+            .logoutHandler((exchange, authentication) -> exchange.getExchange().getSession()
+                .flatMap(WebSession::invalidate))
+            .logoutSuccessHandler(logoutSuccessHandler)
+            .and()
+        .csrf()
+            .disable();
+    // @formatter:on
+    return http.build();
+  }
+
+}
@@ -0,0 +1,56 @@
+package com.example.service.proxy.gateway;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.ReactiveOAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Builds the logged-in user from the claims of the access token, verified against the authentication service's
+ * JWK set, rather than from a user-info endpoint, which the authentication service does not have. This is what
+ * the Zuul proxy's <code>security.oauth2.resource.jwk</code> setting does.
+ */
+public class JwtClaimsOAuth2UserService implements ReactiveOAuth2UserService<OAuth2UserRequest, OAuth2User> {
+
+  static final String USER_NAME_CLAIM = "user_name";
+  static final String AUTHORITIES_CLAIM = "authorities";
+
+  private final ReactiveJwtDecoder jwtDecoder;
+
+  public JwtClaimsOAuth2UserService(final ReactiveJwtDecoder jwtDecoder) {
+    this.jwtDecoder = jwtDecoder;
+  }
+
+  @Override
+  public Mono<OAuth2User> loadUser(final OAuth2UserRequest userRequest) {
+    return jwtDecoder.decode(userRequest.getAccessToken().getTokenValue())
+        .map(JwtClaimsOAuth2UserService::toUser)
+        .onErrorMap(JwtException.class, e -> new OAuth2AuthenticationException(
+            new OAuth2Error("invalid_token", e.getMessage(), null), e));
+  }
+
+  private static OAuth2User toUser(final Jwt jwt) {
+    Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+    authorities.add(new OAuth2UserAuthority(jwt.getClaims()));
+    Object claimed = jwt.getClaims().get(AUTHORITIES_CLAIM);
+    if (claimed instanceof Collection) {
+      for (Object authority : (Collection<?>) claimed) {
+        authorities.add(new SimpleGrantedAuthority(String.valueOf(authority)));
+      }
+    }
+    return new DefaultOAuth2User(authorities, jwt.getClaims(), USER_NAME_CLAIM);
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.service.proxy.gateway;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.web.server.ServerOAuth2AuthorizedClientRepository;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Relays the logged-in user's access token to the route as a bearer token, as Zuul does under
+ * <code>@EnableOAuth2Sso</code>. A route that lists <code>Authorization</code> as sensitive still drops it.
+ */
+public class TokenRelayGatewayFilter implements GatewayFilter {
+
+  private final ServerOAuth2AuthorizedClientRepository authorizedClients;
+
+  public TokenRelayGatewayFilter(final ServerOAuth2AuthorizedClientRepository authorizedClients) {
+    this.authorizedClients = authorizedClients;
+  }
+
+  @Override
+  public Mono<Void> filter(final ServerWebExchange exchange, final GatewayFilterChain chain) {
+    return exchange.getPrincipal()
+        .filter(OAuth2AuthenticationToken.class::isInstance)
+        .cast(OAuth2AuthenticationToken.class)
+        .flatMap(authentication -> authorizedClients.<OAuth2AuthorizedClient>loadAuthorizedClient(
+            authentication.getAuthorizedClientRegistrationId(), authentication, exchange))
+        .map(client -> withBearerToken(exchange, client.getAccessToken().getTokenValue()))
+        .defaultIfEmpty(exchange)
+        .flatMap(chain::filter);
+  }
+
+  private static ServerWebExchange withBearerToken(final ServerWebExchange exchange, final String token) {
+    return exchange.mutate()
+        .request(request -> request.headers(headers -> headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + token)))
+        .build();
+  }
+}
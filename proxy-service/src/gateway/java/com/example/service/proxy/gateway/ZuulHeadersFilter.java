@@ -0,0 +1,98 @@
+package com.example.service.proxy.gateway;
+
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+/**
+ * Zuul's header handling for the gateway. Sensitive headers, <code>zuul.sensitive-headers</code> or the route's own
+ * list, are dropped from both the proxied request and the proxied response. With <code>zuul.add-proxy-headers</code>
+ * the request also gets the <code>X-Forwarded-*</code> headers Zuul adds, including
+ * <code>X-Forwarded-Prefix</code> when the route strips one. One instance filters requests, another responses.
+ */
+public class ZuulHeadersFilter implements HttpHeadersFilter {
+
+  static final String X_FORWARDED_HOST = "X-Forwarded-Host";
+  static final String X_FORWARDED_PROTO = "X-Forwarded-Proto";
+  static final String X_FORWARDED_PORT = "X-Forwarded-Port";
+  static final String X_FORWARDED_PREFIX = "X-Forwarded-Prefix";
+  static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+  private final ZuulRouteProperties properties;
+  private final Type type;
+
+  public ZuulHeadersFilter(final ZuulRouteProperties properties, final Type type) {
+    this.properties = properties;
+    this.type = type;
+  }
+
+  @Override
+  public boolean supports(final Type type) {
+    return this.type == type;
+  }
+
+  @Override
+  public HttpHeaders filter(final HttpHeaders input, final ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    String routeId = route == null ? null : route.getId();
+    Set<String> sensitive = properties.sensitiveHeaders(routeId);
+    HttpHeaders filtered = new HttpHeaders();
+    input.forEach((name, values) -> {
+      if (!isSensitive(sensitive, name)) {
+        filtered.put(name, values);
+      }
+    });
+    if (type == Type.REQUEST && properties.isAddProxyHeaders()) {
+      addProxyHeaders(filtered, exchange.getRequest(), strippedPrefix(routeId));
+    }
+    return filtered;
+  }
+
+  private String strippedPrefix(final String routeId) {
+    ZuulRouteProperties.Route route = routeId == null ? null : properties.getRoutes().get(routeId);
+    return route == null ? "" : route.strippedPrefix(routeId);
+  }
+
+  private static void addProxyHeaders(final HttpHeaders headers, final ServerHttpRequest request,
+      final String prefix) {
+    String host = request.getHeaders().getFirst(HttpHeaders.HOST);
+    if (host != null) {
+      append(headers, X_FORWARDED_HOST, host);
+    }
+    append(headers, X_FORWARDED_PROTO, request.getURI().getScheme());
+    int port = request.getURI().getPort();
+    if (port > 0) {
+      append(headers, X_FORWARDED_PORT, String.valueOf(port));
+    }
+    if (!prefix.isEmpty()) {
+      append(headers, X_FORWARDED_PREFIX, prefix);
+    }
+    InetSocketAddress remote = request.getRemoteAddress();
+    if (remote != null && remote.getAddress() != null) {
+      append(headers, X_FORWARDED_FOR, remote.getAddress().getHostAddress());
+    }
+  }
+
+  /**
+   * Add to the comma-separated list a previous proxy may have started.
+   */
+  private static void append(final HttpHeaders headers, final String name, final String value) {
+    String existing = headers.getFirst(name);
+    headers.set(name, existing == null ? value : existing + "," + value);
+  }
+
+  private static boolean isSensitive(final Set<String> sensitive, final String name) {
+    for (String header : sensitive) {
+      if (header.equalsIgnoreCase(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
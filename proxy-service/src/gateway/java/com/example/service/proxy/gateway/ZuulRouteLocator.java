@@ -0,0 +1,82 @@
+package com.example.service.proxy.gateway;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gateway routes built from <code>zuul.routes</code>, matched in the order they are configured and with Zuul's Ant
+ * patterns. As in Zuul, a route that strips its prefix forwards <code>/prefix/rest</code> to
+ * <code>url/rest</code>, and one that does not forwards it to <code>url/prefix/rest</code>. Requests matching
+ * <code>zuul.ignored-patterns</code> are not routed.
+ * <p>
+ * Routes are rebuilt from the current properties whenever the gateway refreshes them, e.g. after a config refresh.
+ */
+public class ZuulRouteLocator implements RouteLocator {
+
+  private static final Logger log = LoggerFactory.getLogger(ZuulRouteLocator.class);
+
+  private final RouteLocatorBuilder builder;
+  private final ZuulRouteProperties properties;
+  private final GatewayFilter tokenRelay;
+  private final PathMatcher pathMatcher = new AntPathMatcher();
+
+  public ZuulRouteLocator(final RouteLocatorBuilder builder, final ZuulRouteProperties properties,
+      final GatewayFilter tokenRelay) {
+    this.builder = builder;
+    this.properties = properties;
+    this.tokenRelay = tokenRelay;
+  }
+
+  @Override
+  public Flux<Route> getRoutes() {
+    RouteLocatorBuilder.Builder routes = builder.routes();
+    int order = 0;
+    for (Map.Entry<String, ZuulRouteProperties.Route> entry : properties.getRoutes().entrySet()) {
+      String id = entry.getKey();
+      ZuulRouteProperties.Route route = entry.getValue();
+      if (!StringUtils.hasText(route.getUrl())) {
+        log.warn("Route {} has no url; service routes are not supported by the gateway", id);
+        continue;
+      }
+      URI url = URI.create(route.getUrl());
+      String pattern = route.pathPattern(id);
+      String targetPath = StringUtils.trimTrailingCharacter(url.getRawPath() == null ? "" : url.getRawPath(), '/');
+      int routeOrder = order++;
+      routes.route(id, spec -> spec
+          .order(routeOrder)
+          .predicate(exchange -> isRouted(pattern, exchange))
+          .filters(filters -> filters
+              .rewritePath("^" + Pattern.quote(route.strippedPrefix(id)), Matcher.quoteReplacement(targetPath))
+              .filter(tokenRelay))
+          .uri(URI.create(url.getScheme() + "://" + url.getRawAuthority())));
+    }
+    return routes.build().getRoutes();
+  }
+
+  private boolean isRouted(final String pattern, final ServerWebExchange exchange) {
+    String path = exchange.getRequest().getPath().pathWithinApplication().value();
+    if (!pathMatcher.match(pattern, path)) {
+      return false;
+    }
+    for (String ignored : properties.getIgnoredPatterns()) {
+      if (pathMatcher.match(ignored, path)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,129 @@
+package com.example.service.proxy.gateway;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The subset of Zuul's <code>zuul.*</code> settings the gateway honours, so both proxies run from the same
+ * <code>proxy-service.yml</code>: URL routes, sensitive headers, proxy headers and ignored patterns. Defaults are
+ * Zuul's.
+ */
+@ConfigurationProperties("zuul")
+public class ZuulRouteProperties {
+
+  private static final String ANY_PATH = "/**";
+
+  private Map<String, Route> routes = new LinkedHashMap<>();
+
+  private Set<String> sensitiveHeaders = new LinkedHashSet<>(Arrays.asList("Cookie", "Set-Cookie", "Authorization"));
+
+  private boolean addProxyHeaders = true;
+
+  private Set<String> ignoredPatterns = new LinkedHashSet<>();
+
+  public Map<String, Route> getRoutes() {
+    return routes;
+  }
+
+  public void setRoutes(final Map<String, Route> routes) {
+    this.routes = routes;
+  }
+
+  public Set<String> getSensitiveHeaders() {
+    return sensitiveHeaders;
+  }
+
+  public void setSensitiveHeaders(final Set<String> sensitiveHeaders) {
+    this.sensitiveHeaders = sensitiveHeaders;
+  }
+
+  public boolean isAddProxyHeaders() {
+    return addProxyHeaders;
+  }
+
+  public void setAddProxyHeaders(final boolean addProxyHeaders) {
+    this.addProxyHeaders = addProxyHeaders;
+  }
+
+  public Set<String> getIgnoredPatterns() {
+    return ignoredPatterns;
+  }
+
+  public void setIgnoredPatterns(final Set<String> ignoredPatterns) {
+    this.ignoredPatterns = ignoredPatterns;
+  }
+
+  /**
+   * The headers neither passed to nor returned from the route: its own list if it has one, else the global one.
+   */
+  public Set<String> sensitiveHeaders(final String routeId) {
+    Route route = routeId == null ? null : routes.get(routeId);
+    return route == null || route.getSensitiveHeaders() == null ? sensitiveHeaders : route.getSensitiveHeaders();
+  }
+
+  public static class Route {
+
+    private String path;
+
+    private String url;
+
+    private boolean stripPrefix = true;
+
+    private Set<String> sensitiveHeaders;
+
+    public String getPath() {
+      return path;
+    }
+
+    public void setPath(final String path) {
+      this.path = path;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(final String url) {
+      this.url = url;
+    }
+
+    public boolean isStripPrefix() {
+      return stripPrefix;
+    }
+
+    public void setStripPrefix(final boolean stripPrefix) {
+      this.stripPrefix = stripPrefix;
+    }
+
+    public Set<String> getSensitiveHeaders() {
+      return sensitiveHeaders;
+    }
+
+    public void setSensitiveHeaders(final Set<String> sensitiveHeaders) {
+      this.sensitiveHeaders = sensitiveHeaders;
+    }
+
+    /**
+     * The Ant pattern the route matches; <code>/&lt;id&gt;/**</code> if none is configured, as in Zuul.
+     */
+    public String pathPattern(final String id) {
+      return path == null ? "/" + id + ANY_PATH : path;
+    }
+
+    /**
+     * The part of the request path replaced by the URL's path: the pattern's fixed prefix if the route strips it,
+     * else nothing.
+     */
+    public String strippedPrefix(final String id) {
+      String pattern = pathPattern(id);
+      return stripPrefix && pattern.endsWith(ANY_PATH)
+          ? pattern.substring(0, pattern.length() - ANY_PATH.length())
+          : "";
+    }
+  }
+}
@@ -3,10 +3,13 @@ package com.example.service.proxy;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
-import org.springframework.cloud.netflix.zuul.EnableZuulProxy;
 
+/**
+ * The proxy in front of the protected web site. Which proxy runs depends on the Maven profile it was built with:
+ * Zuul 1 by default, or Spring Cloud Gateway with <code>-Pgateway</code>. Both take their routes from
+ * <code>zuul.routes</code> and log users in against the authentication service.
+ */
 @RefreshScope
-@EnableZuulProxy
 @SpringBootApplication
 public class Application {
 
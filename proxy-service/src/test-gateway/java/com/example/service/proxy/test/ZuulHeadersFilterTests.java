@@ -0,0 +1,104 @@
+package com.example.service.proxy.test;
+
+import com.example.service.proxy.gateway.ZuulHeadersFilter;
+import com.example.service.proxy.gateway.ZuulRouteProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The gateway must treat headers as the Zuul proxy does with the routes in <code>proxy-service.yml</code>.
+ */
+public class ZuulHeadersFilterTests {
+
+  private ZuulRouteProperties properties;
+
+  @Before
+  public void setUp() {
+    properties = new ZuulRouteProperties();
+    properties.setSensitiveHeaders(new LinkedHashSet<>(Arrays.asList("Cookie", "Set-Cookie")));
+
+    ZuulRouteProperties.Route site = new ZuulRouteProperties.Route();
+    site.setPath("/protected-web-site/**");
+    site.setUrl("http://localhost:9001/protected-web-site/");
+    properties.getRoutes().put("protected-site", site);
+
+    ZuulRouteProperties.Route authorization = new ZuulRouteProperties.Route();
+    authorization.setPath("/authorization-server/**");
+    authorization.setUrl("http://localhost:9002/authorization-service");
+    authorization.setStripPrefix(false);
+    authorization.setSensitiveHeaders(Collections.singleton("Authorization"));
+    properties.getRoutes().put("authorization-service", authorization);
+  }
+
+  @Test
+  public void globalSensitiveHeadersAreDroppedAndProxyHeadersAdded() {
+    MockServerWebExchange exchange = exchange("protected-site");
+
+    HttpHeaders filtered = new ZuulHeadersFilter(properties, HttpHeadersFilter.Type.REQUEST)
+        .filter(exchange.getRequest().getHeaders(), exchange);
+
+    assertNull(filtered.getFirst(HttpHeaders.COOKIE));
+    assertEquals("Bearer token", filtered.getFirst(HttpHeaders.AUTHORIZATION));
+    assertEquals("localhost:9000", filtered.getFirst("X-Forwarded-Host"));
+    assertEquals("http", filtered.getFirst("X-Forwarded-Proto"));
+    assertEquals("9000", filtered.getFirst("X-Forwarded-Port"));
+    assertEquals("/protected-web-site", filtered.getFirst("X-Forwarded-Prefix"));
+    assertEquals("127.0.0.1", filtered.getFirst("X-Forwarded-For"));
+  }
+
+  @Test
+  public void routeSensitiveHeadersReplaceTheGlobalOnes() {
+    MockServerWebExchange exchange = exchange("authorization-service");
+
+    HttpHeaders filtered = new ZuulHeadersFilter(properties, HttpHeadersFilter.Type.REQUEST)
+        .filter(exchange.getRequest().getHeaders(), exchange);
+
+    assertEquals("UISESSION=session", filtered.getFirst(HttpHeaders.COOKIE));
+    assertNull(filtered.getFirst(HttpHeaders.AUTHORIZATION));
+    assertNull(filtered.getFirst("X-Forwarded-Prefix"));
+  }
+
+  @Test
+  public void responsesLoseSensitiveHeadersOnly() {
+    MockServerWebExchange exchange = exchange("protected-site");
+    HttpHeaders response = new HttpHeaders();
+    response.add(HttpHeaders.SET_COOKIE, "JSESSIONID=downstream");
+    response.add(HttpHeaders.CONTENT_TYPE, "text/html");
+
+    HttpHeaders filtered = new ZuulHeadersFilter(properties, HttpHeadersFilter.Type.RESPONSE)
+        .filter(response, exchange);
+
+    assertNull(filtered.getFirst(HttpHeaders.SET_COOKIE));
+    assertEquals("text/html", filtered.getFirst(HttpHeaders.CONTENT_TYPE));
+    assertNull(filtered.getFirst("X-Forwarded-Host"));
+  }
+
+  private static MockServerWebExchange exchange(final String routeId) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+        .get("http://localhost:9000/protected-web-site/index.html")
+        .remoteAddress(new InetSocketAddress("127.0.0.1", 50000))
+        .header(HttpHeaders.HOST, "localhost:9000")
+        .header(HttpHeaders.COOKIE, "UISESSION=session")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+    Route route = mock(Route.class);
+    when(route.getId()).thenReturn(routeId);
+    exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+    return exchange;
+  }
+}
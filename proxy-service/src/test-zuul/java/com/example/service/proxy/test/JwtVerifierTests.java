@@ -0,0 +1,100 @@
+package com.example.service.proxy.test;
+
+import com.example.service.proxy.security.JwtVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class JwtVerifierTests {
+
+  private KeyPair keyPair;
+  private MeterRegistry meterRegistry;
+  private JwtVerifier verifier;
+
+  @Before
+  public void setUp() throws Exception {
+    keyPair = generateKeyPair();
+    meterRegistry = new SimpleMeterRegistry();
+    verifier = new JwtVerifier(new RsaVerifier((RSAPublicKey) keyPair.getPublic()), 100, 0, meterRegistry);
+  }
+
+  @Test
+  public void validTokenIsVerifiedOnceThenServedFromTheCache() {
+    String token = token(keyPair, "user", System.currentTimeMillis() / 1000 + 60);
+
+    Authentication authentication = verifier.verify(token);
+    assertNotNull(authentication);
+    assertEquals("user", authentication.getName());
+    assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER"), authentication.getAuthorities());
+
+    assertEquals(authentication, verifier.verify(token));
+    assertEquals(1, meterRegistry.get("proxy.jwt.verification").tag("cached", "false").tag("status", "valid")
+        .timer().count());
+    assertEquals(1, meterRegistry.get("proxy.jwt.verification").tag("cached", "true").timer().count());
+  }
+
+  @Test
+  public void expiredTokenIsRejected() {
+    assertNull(verifier.verify(token(keyPair, "user", System.currentTimeMillis() / 1000 - 1)));
+    assertEquals(1, meterRegistry.get("proxy.jwt.verification").tag("status", "expired").timer().count());
+  }
+
+  @Test
+  public void tokenSignedWithAnotherKeyIsRejected() throws Exception {
+    assertNull(verifier.verify(token(generateKeyPair(), "user", System.currentTimeMillis() / 1000 + 60)));
+    assertEquals(1, meterRegistry.get("proxy.jwt.verification").tag("status", "bad_signature").timer().count());
+  }
+
+  @Test
+  public void tamperedTokenIsRejected() {
+    String token = token(keyPair, "user", System.currentTimeMillis() / 1000 + 60);
+    String forged = token(keyPair, "admin", System.currentTimeMillis() / 1000 + 60);
+    String[] parts = token.split("\\.");
+    String[] forgedParts = forged.split("\\.");
+
+    assertNull(verifier.verify(parts[0] + "." + forgedParts[1] + "." + parts[2]));
+    assertNull(verifier.verify("not-a-token"));
+  }
+
+  @Test
+  public void refreshTokenIsRejected() {
+    long expiresAt = System.currentTimeMillis() / 1000 + 3600;
+    String refreshToken = sign(keyPair, "{\"user_name\":\"user\",\"authorities\":[\"ROLE_USER\"],\"exp\":"
+        + expiresAt + ",\"client_id\":\"proxy-client\",\"scope\":[\"read\"],\"ati\":\"access-jti\","
+        + "\"jti\":\"refresh-jti\"}");
+
+    assertNull(verifier.verify(refreshToken));
+    assertEquals(1, meterRegistry.get("proxy.jwt.verification").tag("status", "malformed").timer().count());
+  }
+
+  private static String token(final KeyPair keyPair, final String username, final long expiresAt) {
+    return sign(keyPair, "{\"user_name\":\"" + username + "\",\"authorities\":[\"ROLE_USER\"],\"exp\":"
+        + expiresAt + ",\"client_id\":\"proxy-client\",\"scope\":[\"read\"],\"jti\":\"" + username
+        + expiresAt + "\"}");
+  }
+
+  private static String sign(final KeyPair keyPair, final String claims) {
+    return JwtHelper.encode(claims, new RsaSigner((RSAPrivateKey) keyPair.getPrivate())).getEncoded();
+  }
+
+  private static KeyPair generateKeyPair() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    return generator.generateKeyPair();
+  }
+}
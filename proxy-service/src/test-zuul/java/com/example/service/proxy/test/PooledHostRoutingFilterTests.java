@@ -0,0 +1,121 @@
+package com.example.service.proxy.test;
+
+import com.example.service.proxy.routing.PooledHostRoutingFilter;
+import com.example.service.proxy.routing.RoutePoolProperties;
+import com.netflix.zuul.context.RequestContext;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.junit.Test;
+import org.springframework.cloud.commons.httpclient.DefaultApacheHttpClientConnectionManagerFactory;
+import org.springframework.cloud.commons.httpclient.DefaultApacheHttpClientFactory;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PooledHostRoutingFilterTests {
+
+  @Test
+  public void configuredRoutesReportTheirOwnPools() {
+    RoutePoolProperties pools = new RoutePoolProperties();
+    RoutePoolProperties.Pool pool = new RoutePoolProperties.Pool();
+    pool.setMaxConnections(7);
+    pools.getRoutes().put("protected-site", pool);
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ZuulProperties zuulProperties = new ZuulProperties();
+
+    PooledHostRoutingFilter filter = new PooledHostRoutingFilter(new ProxyRequestHelper(zuulProperties),
+        zuulProperties, new DefaultApacheHttpClientConnectionManagerFactory(),
+        new DefaultApacheHttpClientFactory(HttpClientBuilder.create()), pools, meterRegistry);
+    try {
+      assertEquals(7, meterRegistry.get("proxy.route.connections.max")
+          .tag("route", "protected-site").gauge().value(), 0);
+      assertEquals(0, meterRegistry.get("proxy.route.connections.leased")
+          .tag("route", "protected-site").gauge().value(), 0);
+      assertEquals(0, meterRegistry.get("proxy.route.connections.pending")
+          .tag("route", "protected-site").gauge().value(), 0);
+      assertNull(meterRegistry.find("proxy.route.connections.max").tag("route", "authorization-service").gauge());
+    } finally {
+      filter.closeRoutePools();
+    }
+  }
+
+  /**
+   * Forwards a request the way Zuul does, after its pre filters matched the route, and checks which pool the
+   * connection came from.
+   */
+  @Test
+  public void requestsGoThroughTheirRoutesPool() throws Exception {
+    HttpServer host = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    host.createContext("/", exchange -> {
+      byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    });
+    host.start();
+    RoutePoolProperties pools = new RoutePoolProperties();
+    pools.getRoutes().put("protected-site", new RoutePoolProperties.Pool());
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ZuulProperties zuulProperties = new ZuulProperties();
+    // A context, so that the filter builds Zuul's client as it does in the proxy
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(PooledHostRoutingFilter.class, () -> new PooledHostRoutingFilter(
+        new ProxyRequestHelper(zuulProperties), zuulProperties, new DefaultApacheHttpClientConnectionManagerFactory(),
+        new DefaultApacheHttpClientFactory(HttpClientBuilder.create()), pools, meterRegistry));
+    context.refresh();
+    try {
+      PooledHostRoutingFilter filter = context.getBean(PooledHostRoutingFilter.class);
+      URL url = new URL("http://" + host.getAddress().getHostString() + ":" + host.getAddress().getPort());
+
+      forward(filter, url, "authorization-service");
+      assertEquals(0, routeConnections(meterRegistry, "protected-site"), 0);
+
+      forward(filter, url, "protected-site");
+      assertEquals(1, routeConnections(meterRegistry, "protected-site"), 0);
+    } finally {
+      context.close();
+      host.stop(0);
+    }
+  }
+
+  private static void forward(final PooledHostRoutingFilter filter, final URL url, final String route)
+      throws Exception {
+    RequestContext context = RequestContext.getCurrentContext();
+    try {
+      context.setRequest(new MockHttpServletRequest("GET", "/hello"));
+      context.setResponse(new MockHttpServletResponse());
+      context.setRouteHost(url);
+      context.set(FilterConstants.PROXY_KEY, route);
+      context.set(FilterConstants.REQUEST_URI_KEY, "/hello");
+
+      filter.run();
+
+      assertEquals(200, context.getResponseStatusCode());
+      try (InputStream body = context.getResponseDataStream()) {
+        assertEquals("ok", StreamUtils.copyToString(body, StandardCharsets.UTF_8));
+      }
+    } finally {
+      context.unset();
+    }
+  }
+
+  private static double routeConnections(final MeterRegistry meterRegistry, final String route) {
+    return meterRegistry.get("proxy.route.connections.leased").tag("route", route).gauge().value()
+        + meterRegistry.get("proxy.route.connections.available").tag("route", route).gauge().value();
+  }
+}
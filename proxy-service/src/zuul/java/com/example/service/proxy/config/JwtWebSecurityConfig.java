@@ -0,0 +1,121 @@
+package com.example.service.proxy.config;
+
+import com.example.service.proxy.security.JwtBearerTokenFilter;
+import com.example.service.proxy.security.JwtVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.builders.WebSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.csrf.CsrfFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * The <code>jwt</code> security mode, <code>proxy.security.mode: jwt</code>: every request carries its access token
+ * and the proxy verifies it locally against the authentication service's public key, <code>proxy.jwt.public-key</code>.
+ * The proxy keeps no session and never calls the authentication service, so any proxy node can serve any request.
+ * Clients obtain and refresh their tokens from the authentication service themselves.
+ * <p>
+ * A token sent in the <code>proxy.jwt.cookie-name</code> cookie comes with every request the browser makes, including
+ * those another site triggers, so with a cookie name set, state-changing requests without an
+ * <code>Authorization: Bearer</code> header must also send the <code>XSRF-TOKEN</code> cookie's value as the
+ * <code>X-XSRF-TOKEN</code> header.
+ * <p>
+ * A token revoked at the authentication service stays valid here until it expires: the proxy does not consult the
+ * revocation list, and {@link JwtVerifier} caches verified tokens until their <code>exp</code>. Keep access tokens
+ * short-lived in this mode, or use <code>sso</code> where revocation must take effect at once.
+ */
+@Configuration
+@EnableWebSecurity
+@ConditionalOnProperty(name = "proxy.security.mode", havingValue = "jwt")
+public class JwtWebSecurityConfig extends WebSecurityConfigurerAdapter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final JwtVerifier jwtVerifier;
+
+  private final String cookieName;
+
+  public JwtWebSecurityConfig(
+      @Value("${proxy.jwt.public-key}") final String publicKey,
+      @Value("${proxy.jwt.cache.max-size:10000}") final long maxCachedTokens,
+      @Value("${proxy.jwt.clock-skew-seconds:30}") final long clockSkewSeconds,
+      @Value("${proxy.jwt.cookie-name:}") final String cookieName,
+      final MeterRegistry meterRegistry) {
+    this.jwtVerifier = new JwtVerifier(new RsaVerifier(publicKey), maxCachedTokens, clockSkewSeconds, meterRegistry);
+    this.cookieName = cookieName;
+  }
+
+  @Override
+  public void configure(WebSecurity web) throws Exception {
+    web.ignoring().antMatchers(
+            "/*.css",
+            "/*.js",
+            "/*/webjars/**",
+            "/*/css/**",
+            "/*/images/**",
+            "/favicon.ico");
+  }
+
+  @Override
+  public void configure(HttpSecurity http) throws Exception {
+    // @formatter:off
+    http
+        .antMatcher("/**")
+        .addFilterBefore(new JwtBearerTokenFilter(jwtVerifier, cookieName), BasicAuthenticationFilter.class)
+        .sessionManagement()
+            .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            .and()
+        .requestCache()
+            .requestCache(new NullRequestCache())
+            .and()
+        .exceptionHandling()
+            .authenticationEntryPoint((request, response, e) -> {
+              response.setHeader("WWW-Authenticate", "Bearer");
+              response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
+            })
+            .and()
+        .authorizeRequests()
+            .antMatchers("/login","/login/**","/error**","/*.css","/*.js","/favicon.ico","/*.map","/robots.txt")
+            .permitAll()
+        .anyRequest()
+            .authenticated()
+            .and()
+        .logout()
+            .disable();
+    if (StringUtils.hasText(cookieName)) {
+      http
+          .csrf()
+              .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+              .requireCsrfProtectionMatcher(JwtWebSecurityConfig::requiresCsrfToken);
+    } else {
+      http
+          .csrf()
+              .disable();
+    }
+    // @formatter:on
+  }
+
+  /**
+   * A request that sends its token as <code>Authorization: Bearer</code> cannot be forged by another site, since
+   * browsers never add that header by themselves.
+   */
+  private static boolean requiresCsrfToken(final HttpServletRequest request) {
+    String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+    return CsrfFilter.DEFAULT_CSRF_MATCHER.matches(request)
+        && (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length()));
+  }
+
+}
@@ -0,0 +1,34 @@
+package com.example.service.proxy.config;
+
+import com.example.service.proxy.routing.PooledHostRoutingFilter;
+import com.example.service.proxy.routing.RoutePoolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.commons.httpclient.ApacheHttpClientConnectionManagerFactory;
+import org.springframework.cloud.commons.httpclient.ApacheHttpClientFactory;
+import org.springframework.cloud.netflix.zuul.EnableZuulProxy;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Zuul 1 routing, built with the default <code>zuul</code> profile.
+ */
+@Configuration
+@EnableZuulProxy
+@EnableConfigurationProperties(RoutePoolProperties.class)
+public class ZuulConfig {
+
+  /**
+   * Replaces Zuul's own URL route filter, which backs off when one is defined.
+   */
+  @Bean
+  public PooledHostRoutingFilter simpleHostRoutingFilter(final ProxyRequestHelper helper,
+      final ZuulProperties zuulProperties, final ApacheHttpClientConnectionManagerFactory connectionManagerFactory,
+      final ApacheHttpClientFactory httpClientFactory, final RoutePoolProperties pools,
+      final MeterRegistry meterRegistry) {
+    return new PooledHostRoutingFilter(helper, zuulProperties, connectionManagerFactory, httpClientFactory, pools,
+        meterRegistry);
+  }
+}
@@ -0,0 +1,186 @@
+package com.example.service.proxy.routing;
+
+import com.netflix.zuul.context.RequestContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.commons.httpclient.ApacheHttpClientConnectionManagerFactory;
+import org.springframework.cloud.commons.httpclient.ApacheHttpClientFactory;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.route.SimpleHostRoutingFilter;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Zuul's URL route filter with a connection pool per route. Each route in <code>proxy.routes</code> is forwarded
+ * through its own HTTP client, with its own connection limit, timeouts, keep-alive and idle eviction, so a slow
+ * host cannot take the connections another route needs. Other routes use Zuul's shared client as before.
+ * <p>
+ * Each pool reports <code>proxy.route.connections.{leased,available,pending,max}</code>, tagged with the route:
+ * leased near max, or any pending, means the route waits for connections; many available means it holds more
+ * than it needs.
+ */
+public class PooledHostRoutingFilter extends SimpleHostRoutingFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(PooledHostRoutingFilter.class);
+
+  private final Map<String, CloseableHttpClient> clients = new HashMap<>();
+
+  public PooledHostRoutingFilter(final ProxyRequestHelper helper, final ZuulProperties zuulProperties,
+      final ApacheHttpClientConnectionManagerFactory connectionManagerFactory,
+      final ApacheHttpClientFactory httpClientFactory, final RoutePoolProperties pools,
+      final MeterRegistry meterRegistry) {
+    super(helper, zuulProperties, connectionManagerFactory, httpClientFactory);
+    pools.getRoutes().forEach((route, pool) -> {
+      PoolingHttpClientConnectionManager connectionManager = newConnectionManager(pool);
+      clients.put(route, newClient(httpClientFactory, connectionManager, pool));
+      registerGauges(meterRegistry, route, connectionManager);
+      log.info("Route {} has its own pool of {} connections", route, pool.getMaxConnections());
+    });
+  }
+
+  /**
+   * Zuul forwards every request through the client built here, so it is wrapped to pick the route's client.
+   */
+  @Override
+  protected CloseableHttpClient newClient() {
+    return new RouteHttpClient(super.newClient(), clients);
+  }
+
+  @PreDestroy
+  public void closeRoutePools() {
+    clients.forEach((route, client) -> {
+      try {
+        client.close();
+      } catch (IOException e) {
+        log.warn("Cannot close the pool of route {}", route, e);
+      }
+    });
+  }
+
+  private static PoolingHttpClientConnectionManager newConnectionManager(final RoutePoolProperties.Pool pool) {
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager(pool.getTimeToLiveMillis(), TimeUnit.MILLISECONDS);
+    // One host per route, so the route's limit is the pool's
+    connectionManager.setMaxTotal(pool.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(pool.getMaxConnections());
+    connectionManager.setValidateAfterInactivity(pool.getValidateAfterInactivityMillis());
+    return connectionManager;
+  }
+
+  /**
+   * A client configured as Zuul configures its own, redirects and cookies left to the browser, but with the
+   * route's pool settings.
+   */
+  private static CloseableHttpClient newClient(final ApacheHttpClientFactory httpClientFactory,
+      final PoolingHttpClientConnectionManager connectionManager, final RoutePoolProperties.Pool pool) {
+    return httpClientFactory.createBuilder()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setConnectTimeout(pool.getConnectTimeoutMillis())
+            .setSocketTimeout(pool.getReadTimeoutMillis())
+            .setConnectionRequestTimeout(pool.getConnectionRequestTimeoutMillis())
+            .setCookieSpec(CookieSpecs.IGNORE_COOKIES)
+            .build())
+        .setKeepAliveStrategy(keepAliveStrategy(pool.getKeepAliveMillis()))
+        .evictExpiredConnections()
+        .evictIdleConnections(pool.getIdleEvictionMillis(), TimeUnit.MILLISECONDS)
+        .disableRedirectHandling()
+        .build();
+  }
+
+  /**
+   * The host's <code>Keep-Alive: timeout</code>, capped at the route's keep-alive; the route's keep-alive if the
+   * host does not send one, rather than keeping the connection forever.
+   */
+  private static ConnectionKeepAliveStrategy keepAliveStrategy(final long keepAliveMillis) {
+    return (response, context) -> {
+      long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      return announced > 0 ? Math.min(announced, keepAliveMillis) : keepAliveMillis;
+    };
+  }
+
+  /**
+   * Sends each request through the client of the route Zuul matched it to, or through Zuul's shared client if the
+   * route has no pool of its own. Closing it closes the shared client only; the route pools live as long as the
+   * filter.
+   */
+  private static final class RouteHttpClient extends CloseableHttpClient {
+
+    private final CloseableHttpClient shared;
+    private final Map<String, CloseableHttpClient> routes;
+
+    private RouteHttpClient(final CloseableHttpClient shared, final Map<String, CloseableHttpClient> routes) {
+      this.shared = shared;
+      this.routes = routes;
+    }
+
+    @Override
+    protected CloseableHttpResponse doExecute(final HttpHost target, final HttpRequest request,
+        final HttpContext context) throws IOException {
+      Object route = RequestContext.getCurrentContext().get(FilterConstants.PROXY_KEY);
+      CloseableHttpClient routeClient = route == null ? null : routes.get(route);
+      return (routeClient == null ? shared : routeClient).execute(target, request, context);
+    }
+
+    @Override
+    public void close() throws IOException {
+      shared.close();
+    }
+
+    @Override
+    @Deprecated
+    public HttpParams getParams() {
+      return shared.getParams();
+    }
+
+    @Override
+    @Deprecated
+    public ClientConnectionManager getConnectionManager() {
+      return shared.getConnectionManager();
+    }
+  }
+
+  private static void registerGauges(final MeterRegistry meterRegistry, final String route,
+      final PoolingHttpClientConnectionManager connectionManager) {
+    registerGauge(meterRegistry, route, connectionManager, "leased", "Connections in use by a request",
+        PoolStats::getLeased);
+    registerGauge(meterRegistry, route, connectionManager, "available", "Idle connections kept for reuse",
+        PoolStats::getAvailable);
+    registerGauge(meterRegistry, route, connectionManager, "pending", "Requests waiting for a connection",
+        PoolStats::getPending);
+    registerGauge(meterRegistry, route, connectionManager, "max", "Connections the pool may open",
+        PoolStats::getMax);
+  }
+
+  private static void registerGauge(final MeterRegistry meterRegistry, final String route,
+      final PoolingHttpClientConnectionManager connectionManager, final String name, final String description,
+      final ToDoubleFunction<PoolStats> stat) {
+    Gauge.builder("proxy.route.connections." + name, connectionManager,
+        manager -> stat.applyAsDouble(manager.getTotalStats()))
+        .description(description)
+        .tag("route", route)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,128 @@
+package com.example.service.proxy.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection pools of the Zuul URL routes, by route id under <code>proxy.routes</code>. A route listed here gets
+ * its own pool from {@link PooledHostRoutingFilter}; the others share Zuul's <code>zuul.host.*</code> pool.
+ */
+@ConfigurationProperties("proxy")
+public class RoutePoolProperties {
+
+  private Map<String, Pool> routes = new LinkedHashMap<>();
+
+  public Map<String, Pool> getRoutes() {
+    return routes;
+  }
+
+  public void setRoutes(final Map<String, Pool> routes) {
+    this.routes = routes;
+  }
+
+  public static class Pool {
+
+    /**
+     * Connections open to the route's host, leased or idle.
+     */
+    private int maxConnections = 50;
+
+    private int connectTimeoutMillis = 2000;
+
+    /**
+     * Socket timeout: the longest wait for the next bytes of a response.
+     */
+    private int readTimeoutMillis = 10000;
+
+    /**
+     * The longest a request waits for a free connection when all are leased.
+     */
+    private int connectionRequestTimeoutMillis = 1000;
+
+    /**
+     * How long an idle connection is kept for reuse when the host does not say, and at most what it says.
+     */
+    private long keepAliveMillis = 30000;
+
+    /**
+     * Idle connections are closed in the background after this long, before the host drops them.
+     */
+    private long idleEvictionMillis = 30000;
+
+    /**
+     * Connections are not reused after this long, however busy; -1 for no limit.
+     */
+    private long timeToLiveMillis = -1;
+
+    /**
+     * Idle connections are checked for staleness before reuse after this long.
+     */
+    private int validateAfterInactivityMillis = 2000;
+
+    public int getMaxConnections() {
+      return maxConnections;
+    }
+
+    public void setMaxConnections(final int maxConnections) {
+      this.maxConnections = maxConnections;
+    }
+
+    public int getConnectTimeoutMillis() {
+      return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(final int connectTimeoutMillis) {
+      this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+      return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(final int readTimeoutMillis) {
+      this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    public int getConnectionRequestTimeoutMillis() {
+      return connectionRequestTimeoutMillis;
+    }
+
+    public void setConnectionRequestTimeoutMillis(final int connectionRequestTimeoutMillis) {
+      this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+    }
+
+    public long getKeepAliveMillis() {
+      return keepAliveMillis;
+    }
+
+    public void setKeepAliveMillis(final long keepAliveMillis) {
+      this.keepAliveMillis = keepAliveMillis;
+    }
+
+    public long getIdleEvictionMillis() {
+      return idleEvictionMillis;
+    }
+
+    public void setIdleEvictionMillis(final long idleEvictionMillis) {
+      this.idleEvictionMillis = idleEvictionMillis;
+    }
+
+    public long getTimeToLiveMillis() {
+      return timeToLiveMillis;
+    }
+
+    public void setTimeToLiveMillis(final long timeToLiveMillis) {
+      this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    public int getValidateAfterInactivityMillis() {
+      return validateAfterInactivityMillis;
+    }
+
+    public void setValidateAfterInactivityMillis(final int validateAfterInactivityMillis) {
+      this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.service.proxy.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Authenticates each request from its access token with the {@link JwtVerifier}. The token is read from the
+ * <code>Authorization: Bearer</code> header or, if <code>proxy.jwt.cookie-name</code> is set, from that cookie.
+ * Requests without a valid token go on unauthenticated and are turned away by the authorization rules.
+ */
+public class JwtBearerTokenFilter extends OncePerRequestFilter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final JwtVerifier verifier;
+  private final String cookieName;
+
+  public JwtBearerTokenFilter(final JwtVerifier verifier, final String cookieName) {
+    this.verifier = verifier;
+    this.cookieName = cookieName;
+  }
+
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+      final FilterChain filterChain) throws ServletException, IOException {
+    String token = token(request);
+    if (token != null) {
+      Authentication authentication = verifier.verify(token);
+      if (authentication != null) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  private String token(final HttpServletRequest request) {
+    String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+      return header.substring(BEARER_PREFIX.length()).trim();
+    }
+    if (StringUtils.hasText(cookieName)) {
+      Cookie cookie = WebUtils.getCookie(request, cookieName);
+      if (cookie != null && StringUtils.hasText(cookie.getValue())) {
+        return cookie.getValue();
+      }
+    }
+    return null;
+  }
+}
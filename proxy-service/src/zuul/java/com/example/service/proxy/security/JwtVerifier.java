@@ -0,0 +1,171 @@
+package com.example.service.proxy.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.InvalidSignatureException;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies the authentication service's access tokens locally, against its public key, so the proxy needs neither
+ * a session nor a call to the authentication service per request. A verified token is cached, keyed by the token
+ * itself, until it expires, so each token's signature is checked once per proxy node and later requests only cost
+ * a cache lookup.
+ * <p>
+ * Each verification is timed as <code>proxy.jwt.verification</code>, tagged with its status and whether it was
+ * answered from the cache.
+ */
+public class JwtVerifier {
+
+  static final String USER_NAME_CLAIM = "user_name";
+  static final String CLIENT_ID_CLAIM = "client_id";
+  static final String AUTHORITIES_CLAIM = "authorities";
+  static final String EXPIRES_CLAIM = "exp";
+  /**
+   * Only refresh tokens carry the id of their access token; like JwtTokenStore, refuse them as access tokens.
+   */
+  static final String ACCESS_TOKEN_ID_CLAIM = "ati";
+
+  public enum Status {
+    VALID, EXPIRED, BAD_SIGNATURE, MALFORMED
+  }
+
+  private final SignatureVerifier signatureVerifier;
+  private final long clockSkewMillis;
+  private final Cache<String, VerifiedToken> verified;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Map<Status, Timer> parsedTimers;
+  private final Timer cachedTimer;
+
+  public JwtVerifier(final SignatureVerifier signatureVerifier, final long maxCachedTokens,
+      final long clockSkewSeconds, final MeterRegistry meterRegistry) {
+    this.signatureVerifier = signatureVerifier;
+    this.clockSkewMillis = TimeUnit.SECONDS.toMillis(clockSkewSeconds);
+    this.verified = Caffeine.newBuilder()
+        .maximumSize(maxCachedTokens)
+        .expireAfter(new UntilTokenExpires())
+        .build();
+    this.parsedTimers = new EnumMap<>(Status.class);
+    for (Status status : Status.values()) {
+      parsedTimers.put(status, timer(meterRegistry, status, false));
+    }
+    this.cachedTimer = timer(meterRegistry, Status.VALID, true);
+  }
+
+  /**
+   * @return the token's user and authorities, or null if the token is expired, forged or not a JWT.
+   */
+  public Authentication verify(final String token) {
+    long startedAt = System.nanoTime();
+    VerifiedToken cached = verified.getIfPresent(token);
+    if (cached != null && System.currentTimeMillis() < cached.expiresAtMillis) {
+      cachedTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+      return cached.authentication;
+    }
+    Status status;
+    Authentication authentication = null;
+    try {
+      VerifiedToken parsed = parse(token);
+      if (System.currentTimeMillis() >= parsed.expiresAtMillis) {
+        status = Status.EXPIRED;
+      } else {
+        verified.put(token, parsed);
+        authentication = parsed.authentication;
+        status = Status.VALID;
+      }
+    } catch (InvalidSignatureException e) {
+      status = Status.BAD_SIGNATURE;
+    } catch (IOException | RuntimeException e) {
+      status = Status.MALFORMED;
+    }
+    parsedTimers.get(status).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    return authentication;
+  }
+
+  private VerifiedToken parse(final String token) throws IOException {
+    Jwt jwt = JwtHelper.decodeAndVerify(token, signatureVerifier);
+    JsonNode claims = objectMapper.readTree(jwt.getClaims());
+    JsonNode expiresAt = claims.get(EXPIRES_CLAIM);
+    JsonNode principal = claims.hasNonNull(USER_NAME_CLAIM) ? claims.get(USER_NAME_CLAIM) : claims.get(CLIENT_ID_CLAIM);
+    if (expiresAt == null || !expiresAt.canConvertToLong() || principal == null || !principal.isTextual()) {
+      throw new IllegalArgumentException("Token has no exp or no user_name and client_id");
+    }
+    if (claims.has(ACCESS_TOKEN_ID_CLAIM)) {
+      throw new IllegalArgumentException("Refresh token used as an access token");
+    }
+    Authentication authentication = new UsernamePasswordAuthenticationToken(principal.asText(), null,
+        toAuthorities(claims.get(AUTHORITIES_CLAIM)));
+    return new VerifiedToken(authentication, TimeUnit.SECONDS.toMillis(expiresAt.asLong()) + clockSkewMillis);
+  }
+
+  private static List<GrantedAuthority> toAuthorities(final JsonNode names) {
+    if (names == null || !names.isArray()) {
+      return Collections.emptyList();
+    }
+    List<GrantedAuthority> authorities = new ArrayList<>(names.size());
+    for (JsonNode name : names) {
+      authorities.add(new SimpleGrantedAuthority(name.asText()));
+    }
+    return authorities;
+  }
+
+  private static Timer timer(final MeterRegistry meterRegistry, final Status status, final boolean cached) {
+    return Timer.builder("proxy.jwt.verification")
+        .description("Bearer token verifications")
+        .tag("status", status.name().toLowerCase())
+        .tag("cached", String.valueOf(cached))
+        .register(meterRegistry);
+  }
+
+  private static final class VerifiedToken {
+
+    private final Authentication authentication;
+    private final long expiresAtMillis;
+
+    VerifiedToken(final Authentication authentication, final long expiresAtMillis) {
+      this.authentication = authentication;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+
+  /**
+   * Evicts each token when it expires rather than after a fixed time.
+   */
+  private static final class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+
+    @Override
+    public long expireAfterCreate(final String token, final VerifiedToken value, final long currentTime) {
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMillis - System.currentTimeMillis()));
+    }
+
+    @Override
+    public long expireAfterUpdate(final String token, final VerifiedToken value, final long currentTime,
+        final long currentDuration) {
+      return expireAfterCreate(token, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(final String token, final VerifiedToken value, final long currentTime,
+        final long currentDuration) {
+      return currentDuration;
+    }
+  }
+}